@@ -0,0 +1,40 @@
+package com.tdit.dataprovideservice.service;
+
+import com.tdit.dataprovideservice.config.ExcelProcessingProperties;
+import com.tdit.dataprovideservice.dto.UploadProgress;
+import com.tdit.dataprovideservice.reader.UploadFormat;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to read the rows of {@link XlsxReadBenchmark} from a CSV file instead of a workbook.
+ * <pre>mvn -Pbenchmark compile exec:exec -Djmh.args="CsvReadBenchmark|XlsxReadBenchmark.streaming -p rows=100000"</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+public class CsvReadBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int rows;
+
+    private FileSystemResource file;
+    private ExcelProcessorService reader;
+
+    @Setup
+    public void setUp() {
+        file = new FileSystemResource(XlsxFixtures.csv(rows));
+        reader = XlsxReadBenchmark.reader(ExcelProcessingProperties.ReaderMode.STREAMING);
+    }
+
+    @Benchmark
+    public UploadProgress csv(Blackhole blackhole) throws IOException {
+        return XlsxReadBenchmark.read(reader, file, UploadFormat.CSV, blackhole);
+    }
+}
@@ -0,0 +1,81 @@
+package com.tdit.dataprovideservice.service;
+
+import com.tdit.dataprovideservice.dto.ExcelRowData;
+import com.tdit.dataprovideservice.entity.UploadAudit;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compiled row validation against the reflective Bean Validation baseline, one million synthetic rows
+ * per invocation (scores are rows per second). Setup fails if the two disagree on any row.
+ * <pre>mvn -Pbenchmark compile exec:exec -Djmh.args="ExcelValidationBenchmark -prof gc"</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@OperationsPerInvocation(ExcelValidationBenchmark.ROWS)
+public class ExcelValidationBenchmark {
+
+    static final int ROWS = 1_000_000;
+    private static final int DISTINCT_ROWS = 4096;
+
+    private ExcelRowData[] rows;
+    private ValidatorFactory validatorFactory;
+    private ExcelValidationService compiled;
+    private LegacyExcelValidationService beanValidation;
+
+    @Setup
+    public void setUp() {
+        rows = SyntheticRows.generate(DISTINCT_ROWS, 42);
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        compiled = new ExcelValidationService();
+        beanValidation = new LegacyExcelValidationService(validatorFactory.getValidator());
+
+        for (int i = 0; i < rows.length; i++) {
+            UploadAudit.RowResult expected = beanValidation.validateRow(rows[i], i);
+            UploadAudit.RowResult actual = compiled.validateRow(rows[i], i);
+            if (expected.isSuccess() != actual.isSuccess()
+                    || !Objects.equals(expected.getWarningMessage(), actual.getWarningMessage())
+                    || !Arrays.equals(sortedMessages(expected), sortedMessages(actual))) {
+                throw new IllegalStateException("Validators disagree on row " + i + ": " + expected + " vs " + actual);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public void compiled(Blackhole blackhole) {
+        for (int i = 0; i < ROWS; i++) {
+            blackhole.consume(compiled.validateRow(rows[i & (DISTINCT_ROWS - 1)], i));
+        }
+    }
+
+    @Benchmark
+    public void beanValidation(Blackhole blackhole) {
+        for (int i = 0; i < ROWS; i++) {
+            blackhole.consume(beanValidation.validateRow(rows[i & (DISTINCT_ROWS - 1)], i));
+        }
+    }
+
+    // Bean Validation reports violations in no particular order
+    private static String[] sortedMessages(UploadAudit.RowResult result) {
+        if (result.getErrorMessage() == null) {
+            return new String[0];
+        }
+        String[] messages = result.getErrorMessage().split(CompiledConstraints.MESSAGE_SEPARATOR);
+        Arrays.sort(messages);
+        return messages;
+    }
+}
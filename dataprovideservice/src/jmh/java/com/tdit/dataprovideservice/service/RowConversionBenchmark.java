@@ -0,0 +1,89 @@
+package com.tdit.dataprovideservice.service;
+
+import com.tdit.dataprovideservice.config.ExcelProcessingProperties;
+import com.tdit.dataprovideservice.dto.ExcelRowData;
+import com.tdit.dataprovideservice.entity.Property_Type;
+import com.tdit.dataprovideservice.entity.Status;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion of a validated row into a {@code Property} and the lookups it relies on: amenity splitting
+ * and the case/space-insensitive enum parsing. Scores are conversions per second. Row validation
+ * itself is covered by {@link ExcelValidationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@OperationsPerInvocation(RowConversionBenchmark.OPERATIONS)
+public class RowConversionBenchmark {
+
+    static final int OPERATIONS = 4096;
+
+    private static final String[] AMENITIES = {
+            "WiFi, Parking, Pool", "[\"WiFi\",\"AC\",\"Kitchen\"]", "", "Gym ,  Lift, , Power Backup", "WiFi", null
+    };
+    private static final String[] PROPERTY_TYPES = {
+            "Apartment", " villa ", "P G", "HOTEL", "Hostel", "Cottage", "apart ment"
+    };
+    private static final String[] STATUSES = {"APPROVED", " rejected ", "Approved", "PENDING"};
+
+    private ExcelProcessorService processor;
+    private ExcelRowData[] validRows;
+    private ExcelRowData[] amenityRows;
+
+    @Setup
+    public void setUp() {
+        processor = XlsxReadBenchmark.reader(ExcelProcessingProperties.ReaderMode.STREAMING);
+
+        // Only rows that pass validation reach convertToProperty, with their numbers already parsed
+        ExcelValidationService validation = new ExcelValidationService();
+        List<ExcelRowData> valid = new ArrayList<>();
+        ExcelRowData[] rows = SyntheticRows.generate(OPERATIONS, 42);
+        for (int i = 0; i < rows.length; i++) {
+            if (validation.validateRow(rows[i], i).isSuccess()) {
+                valid.add(rows[i]);
+            }
+        }
+        validRows = valid.toArray(new ExcelRowData[0]);
+
+        amenityRows = new ExcelRowData[AMENITIES.length];
+        for (int i = 0; i < AMENITIES.length; i++) {
+            amenityRows[i] = ExcelRowData.builder().amenities(AMENITIES[i]).build();
+        }
+    }
+
+    @Benchmark
+    public void convertToProperty(Blackhole blackhole) {
+        for (int i = 0; i < OPERATIONS; i++) {
+            blackhole.consume(processor.convertToProperty(validRows[i % validRows.length]));
+        }
+    }
+
+    @Benchmark
+    public void getAmenitiesList(Blackhole blackhole) {
+        for (int i = 0; i < OPERATIONS; i++) {
+            blackhole.consume(amenityRows[i % amenityRows.length].getAmenitiesList());
+        }
+    }
+
+    @Benchmark
+    public void propertyTypeFromString(Blackhole blackhole) {
+        for (int i = 0; i < OPERATIONS; i++) {
+            blackhole.consume(Property_Type.fromString(PROPERTY_TYPES[i % PROPERTY_TYPES.length]));
+        }
+    }
+
+    @Benchmark
+    public void statusFromString(Blackhole blackhole) {
+        for (int i = 0; i < OPERATIONS; i++) {
+            blackhole.consume(Status.fromString(STATUSES[i % STATUSES.length]));
+        }
+    }
+}
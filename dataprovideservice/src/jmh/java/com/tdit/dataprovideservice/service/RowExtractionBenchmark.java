@@ -0,0 +1,83 @@
+package com.tdit.dataprovideservice.service;
+
+import com.tdit.dataprovideservice.config.ExcelProcessingProperties;
+import com.tdit.dataprovideservice.dto.ExcelRowData;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import static com.tdit.dataprovideservice.entity.Constants.EXCEL_COLUMN_COUNT;
+
+/**
+ * Per-cell and per-row cost of turning sheet data into {@code ExcelRowData}: {@code getCellValue} over
+ * every cell of the 1k row fixture (scores are cells per second) and {@code extractRowData} over
+ * synthetic column values (scores are rows per second).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class RowExtractionBenchmark {
+
+    static final int ROWS = 1000;
+    static final int CELLS = ROWS * EXCEL_COLUMN_COUNT;
+
+    private XSSFWorkbook workbook;
+    private Cell[] cells;
+    private String[][] values;
+    private ExcelProcessorService processor;
+
+    @Setup
+    public void setUp() throws IOException {
+        processor = XlsxReadBenchmark.reader(ExcelProcessingProperties.ReaderMode.DOM);
+
+        try (InputStream in = Files.newInputStream(XlsxFixtures.workbook(ROWS))) {
+            workbook = new XSSFWorkbook(in);
+        }
+        Sheet sheet = workbook.getSheetAt(0);
+        cells = new Cell[CELLS];
+        for (int row = 0; row < ROWS; row++) {
+            Row sheetRow = sheet.getRow(row + 1);
+            for (int column = 0; column < EXCEL_COLUMN_COUNT; column++) {
+                // Missing cells stay null, as getCellValue sees them for empty columns
+                cells[row * EXCEL_COLUMN_COUNT + column] = sheetRow.getCell(column);
+            }
+        }
+
+        ExcelRowData[] rows = SyntheticRows.generate(ROWS, 42);
+        values = new String[ROWS][];
+        for (int i = 0; i < ROWS; i++) {
+            values[i] = SyntheticRows.values(rows[i]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        workbook.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CELLS)
+    public void getCellValue(Blackhole blackhole) {
+        for (Cell cell : cells) {
+            blackhole.consume(processor.getCellValue(cell));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void extractRowData(Blackhole blackhole) {
+        for (int i = 0; i < ROWS; i++) {
+            blackhole.consume(processor.extractRowData(values[i], i));
+        }
+    }
+}
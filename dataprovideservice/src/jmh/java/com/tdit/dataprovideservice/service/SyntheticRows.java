@@ -0,0 +1,87 @@
+package com.tdit.dataprovideservice.service;
+
+import com.tdit.dataprovideservice.dto.ExcelRowData;
+import com.tdit.dataprovideservice.entity.Property_Type;
+import com.tdit.dataprovideservice.entity.Status;
+
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic template rows for the benchmarks. Roughly three rows in four are clean; the rest
+ * each break one rule, so both the happy path and every kind of error or warning get exercised.
+ */
+final class SyntheticRows {
+
+    private static final String[] CITIES = {"Pune", "Mumbai", "Bengaluru", "Chennai", "Delhi", "Goa"};
+    private static final String[] CURRENCIES = {"INR", "USD", "EUR", "GBP"};
+
+    private SyntheticRows() {
+    }
+
+    static ExcelRowData[] generate(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        ExcelRowData[] rows = new ExcelRowData[count];
+        for (int i = 0; i < count; i++) {
+            rows[i] = row(i, random);
+        }
+        return rows;
+    }
+
+    /**
+     * The row as the 22 sheet columns, in the order {@link ExcelProcessorService#extractRowData} reads them.
+     */
+    static String[] values(ExcelRowData row) {
+        return new String[]{
+                row.getPropertyId(), row.getPropertyTitle(), row.getDescription(),
+                row.getPropertyType() == null ? "" : row.getPropertyType().name(),
+                row.getAddressLine1(), row.getCity(), row.getState(), row.getCountry(), row.getPincode(),
+                row.getLatitude(), row.getLongitude(), row.getHostId(), row.getHostName(), row.getHostContact(),
+                row.getHostEmail(), row.getBasePrice(), row.getCurrency(), row.getAmenities(), row.getPropertyUrl(),
+                row.getStatus() == null ? "" : row.getStatus().name(),
+                row.getCreatedAt(), row.getUpdatedAt()
+        };
+    }
+
+    private static ExcelRowData row(int i, SplittableRandom random) {
+        ExcelRowData row = ExcelRowData.builder()
+                .propertyId("")
+                .propertyTitle("Sea view apartment " + i)
+                .description("Two bedroom apartment with a balcony, close to the beach and the market")
+                .propertyType(Property_Type.values()[random.nextInt(Property_Type.values().length)])
+                .addressLine1(random.nextInt(1, 500) + " MG Road")
+                .city(CITIES[random.nextInt(CITIES.length)])
+                .state("Maharashtra")
+                .country("India")
+                .pincode(String.valueOf(random.nextInt(100_000, 999_999)))
+                .latitude(String.valueOf(random.nextInt(-89, 89) + random.nextInt(1, 9999) / 10_000.0))
+                .longitude(String.valueOf(random.nextInt(-179, 179) + random.nextInt(1, 9999) / 10_000.0))
+                .hostId(String.valueOf(random.nextInt(1, 100_000)))
+                .hostName("Host " + random.nextInt(1000))
+                .hostContact("98" + random.nextInt(10_000_000, 99_999_999))
+                .hostEmail("host" + random.nextInt(1000) + "@example.com")
+                .basePrice(random.nextInt(500, 20_000) + ".50")
+                .currency(CURRENCIES[random.nextInt(CURRENCIES.length)])
+                .amenities("WiFi, Parking, Pool")
+                .propertyUrl("https://listings.example.com/p/" + i)
+                .status(Status.APPROVED)
+                .createdAt("2024-01-15 10:30:00")
+                .updatedAt("2024-01-15 10:30:00")
+                .build();
+
+        switch (random.nextInt(40)) {
+            case 0 -> row.setPropertyTitle("  ");
+            case 1 -> row.setPropertyType(null);
+            case 2 -> row.setPincode("41A001");
+            case 3 -> row.setLatitude("123.5");
+            case 4 -> row.setLongitude("east");
+            case 5 -> row.setHostEmail("not-an-email");
+            case 6 -> row.setBasePrice("-250");
+            case 7 -> row.setCurrency("JPY");
+            case 8 -> row.setPropertyUrl("listings.example.com/p/" + i);
+            case 9 -> row.setHostContact("12345");
+            default -> {
+            }
+        }
+        return row;
+    }
+}
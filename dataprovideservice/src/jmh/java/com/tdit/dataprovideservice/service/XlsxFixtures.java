@@ -0,0 +1,145 @@
+package com.tdit.dataprovideservice.service;
+
+import com.tdit.dataprovideservice.dto.ExcelRowData;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import static com.tdit.dataprovideservice.entity.Constants.EXCEL_COLUMNS;
+
+/**
+ * Upload workbooks of a given row count, built from {@link SyntheticRows} and cached under
+ * {@code target/jmh-fixtures} (override with {@code -Djmh.fixtures.dir}) so a 1M row file is written once.
+ * Latitude, longitude, host id and base price are numeric cells, as Excel stores them; the rest are text.
+ * {@link #csv(int)} writes the same rows as a CSV file.
+ */
+final class XlsxFixtures {
+
+    private static final String[] HEADER = EXCEL_COLUMNS.toArray(String[]::new);
+    private static final boolean[] NUMERIC_COLUMNS = new boolean[HEADER.length];
+    private static final int DISTINCT_ROWS = 4096;
+    private static final int ROW_WINDOW = 200;
+
+    static {
+        NUMERIC_COLUMNS[9] = true;
+        NUMERIC_COLUMNS[10] = true;
+        NUMERIC_COLUMNS[11] = true;
+        NUMERIC_COLUMNS[15] = true;
+    }
+
+    private XlsxFixtures() {
+    }
+
+    static Path workbook(int rows) {
+        return fixture(rows, ".xlsx", out -> write(rows, out));
+    }
+
+    static Path csv(int rows) {
+        return fixture(rows, ".csv", out -> writeCsv(rows, out));
+    }
+
+    private interface FixtureWriter {
+        void write(OutputStream out) throws IOException;
+    }
+
+    private static Path fixture(int rows, String extension, FixtureWriter writer) {
+        Path directory = Paths.get(System.getProperty("jmh.fixtures.dir", "target/jmh-fixtures"));
+        Path file = directory.resolve("properties-" + rows + extension);
+        if (Files.exists(file)) {
+            return file;
+        }
+        try {
+            Files.createDirectories(directory);
+            // Written aside and moved into place, so an interrupted run never leaves a truncated fixture
+            Path partial = Files.createTempFile(directory, "properties-" + rows, ".partial");
+            try (OutputStream out = Files.newOutputStream(partial)) {
+                writer.write(out);
+            }
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write fixture " + file, e);
+        }
+    }
+
+    private static void write(int rows, OutputStream out) throws IOException {
+        ExcelRowData[] templates = SyntheticRows.generate(Math.min(rows, DISTINCT_ROWS), 7);
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW);
+        try {
+            workbook.setCompressTempFiles(true);
+            Sheet sheet = workbook.createSheet("Properties");
+            Row header = sheet.createRow(0);
+            for (int column = 0; column < HEADER.length; column++) {
+                header.createCell(column).setCellValue(HEADER[column]);
+            }
+            for (int i = 0; i < rows; i++) {
+                String[] values = SyntheticRows.values(templates[i % templates.length]);
+                Row row = sheet.createRow(i + 1);
+                for (int column = 0; column < values.length; column++) {
+                    setCell(row, column, values[column]);
+                }
+            }
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private static void writeCsv(int rows, OutputStream out) throws IOException {
+        ExcelRowData[] templates = SyntheticRows.generate(Math.min(rows, DISTINCT_ROWS), 7);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writeCsvRecord(writer, HEADER);
+        for (int i = 0; i < rows; i++) {
+            writeCsvRecord(writer, SyntheticRows.values(templates[i % templates.length]));
+        }
+        writer.flush();
+    }
+
+    private static void writeCsvRecord(Writer writer, String[] values) throws IOException {
+        for (int column = 0; column < values.length; column++) {
+            if (column > 0) {
+                writer.write(',');
+            }
+            String value = values[column];
+            if (value == null) {
+                continue;
+            }
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private static void setCell(Row row, int column, String value) {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        if (NUMERIC_COLUMNS[column]) {
+            try {
+                row.createCell(column).setCellValue(Double.parseDouble(value));
+                return;
+            } catch (NumberFormatException e) {
+                // Invalid on purpose; stored as text like a user would have typed it
+            }
+        }
+        row.createCell(column).setCellValue(value);
+    }
+}
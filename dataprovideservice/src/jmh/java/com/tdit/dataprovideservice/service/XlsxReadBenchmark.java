@@ -0,0 +1,86 @@
+package com.tdit.dataprovideservice.service;
+
+import com.tdit.dataprovideservice.config.ExcelProcessingProperties;
+import com.tdit.dataprovideservice.dto.UploadProgress;
+import com.tdit.dataprovideservice.reader.CsvRowSource;
+import com.tdit.dataprovideservice.reader.StreamingXlsxReader;
+import com.tdit.dataprovideservice.reader.UploadFormat;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to read a whole upload workbook into {@code ExcelRowData}, with the streaming reader and with
+ * the DOM reader. The DOM reader stops at 100k rows, which already needs a 3GB heap: a 1M row workbook
+ * does not fit a normal one. Fixtures are generated on the first run (see {@link XlsxFixtures}).
+ * <pre>mvn -Pbenchmark compile exec:exec -Djmh.args="XlsxReadBenchmark -p rows=1000,100000"</pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+public class XlsxReadBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class StreamingWorkbook {
+
+        @Param({"1000", "100000", "1000000"})
+        int rows;
+
+        FileSystemResource file;
+        ExcelProcessorService reader;
+
+        @Setup
+        public void setUp() {
+            file = new FileSystemResource(XlsxFixtures.workbook(rows));
+            reader = reader(ExcelProcessingProperties.ReaderMode.STREAMING);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class DomWorkbook {
+
+        @Param({"1000", "100000"})
+        int rows;
+
+        FileSystemResource file;
+        ExcelProcessorService reader;
+
+        @Setup
+        public void setUp() {
+            file = new FileSystemResource(XlsxFixtures.workbook(rows));
+            reader = reader(ExcelProcessingProperties.ReaderMode.DOM);
+        }
+    }
+
+    @Benchmark
+    public UploadProgress streaming(StreamingWorkbook workbook, Blackhole blackhole) throws IOException {
+        return read(workbook.reader, workbook.file, UploadFormat.XLSX, blackhole);
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = "-Xmx3g")
+    public UploadProgress dom(DomWorkbook workbook, Blackhole blackhole) throws IOException {
+        return read(workbook.reader, workbook.file, UploadFormat.XLSX, blackhole);
+    }
+
+    static UploadProgress read(ExcelProcessorService reader, FileSystemResource file, UploadFormat format,
+                               Blackhole blackhole) throws IOException {
+        UploadProgress progress = new UploadProgress();
+        reader.processExcelFile(file, format,
+                (sheetIndex, sheetName) -> (rowNumber, rowData) -> blackhole.consume(rowData), progress);
+        return progress;
+    }
+
+    static ExcelProcessorService reader(ExcelProcessingProperties.ReaderMode mode) {
+        ExcelProcessingProperties properties = new ExcelProcessingProperties();
+        properties.setReaderMode(mode);
+        return new ExcelProcessorService(properties, new StreamingXlsxReader(new SimpleAsyncTaskExecutor(), properties),
+                List.of(new CsvRowSource(properties)));
+    }
+}
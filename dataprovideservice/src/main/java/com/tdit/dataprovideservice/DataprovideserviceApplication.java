@@ -2,8 +2,10 @@ package com.tdit.dataprovideservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class  DataprovideserviceApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,120 @@
+package com.tdit.dataprovideservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Routes connections between up to three Hikari pools:
+ * <ul>
+ *     <li>{@code primary}: {@code spring.datasource}, for everything not listed below</li>
+ *     <li>{@code replica}: {@code datasource-routing.replica}, for {@code @Transactional(readOnly = true)}
+ *     transactions, Spring Data's reads such as {@code findById} among them</li>
+ *     <li>{@code ingest}: {@code datasource-routing.ingest}, the primary database again, for transactions named
+ *     {@link #INGEST_TRANSACTION}</li>
+ * </ul>
+ * The pool is picked when a transaction runs its first statement, by then Spring has exposed whether it is read-only
+ * and its name. Each pool is a bean of its own, so Actuator reports {@code hikaricp.connections.*} per pool.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    /** Name of the transactions that run on the ingest pool. */
+    public static final String INGEST_TRANSACTION = "ingest";
+
+    public static final String PRIMARY_DATA_SOURCE = "primaryDataSource";
+    public static final String REPLICA_DATA_SOURCE = "replicaDataSource";
+    public static final String INGEST_DATA_SOURCE = "ingestDataSource";
+
+    private enum Route {
+        PRIMARY, REPLICA, INGEST
+    }
+
+    @Bean(PRIMARY_DATA_SOURCE)
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        pool.setPoolName("primary");
+        return pool;
+    }
+
+    @Bean(REPLICA_DATA_SOURCE)
+    @ConditionalOnProperty(prefix = "datasource-routing.replica", name = "url")
+    public HikariDataSource replicaDataSource(DataSourceProperties primary, DataSourceRoutingProperties routing) {
+        DataSourceRoutingProperties.Replica replica = routing.getReplica();
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName("replica");
+        pool.setJdbcUrl(replica.getUrl());
+        pool.setUsername(StringUtils.hasText(replica.getUsername()) ? replica.getUsername() : primary.determineUsername());
+        pool.setPassword(replica.getPassword() != null ? replica.getPassword() : primary.determinePassword());
+        pool.setDriverClassName(primary.determineDriverClassName());
+        pool.setMaximumPoolSize(replica.getMaximumPoolSize());
+        pool.setConnectionTimeout(replica.getConnectionTimeout().toMillis());
+        pool.setReadOnly(true);
+        return pool;
+    }
+
+    /**
+     * Set up like the primary, {@code spring.datasource.hikari} included, except for its name, size and timeout.
+     * Bound here rather than with {@code @ConfigurationProperties}, which would bind after the overrides.
+     */
+    @Bean(INGEST_DATA_SOURCE)
+    @ConditionalOnProperty(prefix = "datasource-routing.ingest", name = "enabled", matchIfMissing = true)
+    public HikariDataSource ingestDataSource(DataSourceProperties primary, DataSourceRoutingProperties routing,
+                                             Environment environment) {
+        DataSourceRoutingProperties.Ingest ingest = routing.getIngest();
+        HikariDataSource pool = primary.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName("ingest");
+        pool.setMaximumPoolSize(ingest.getMaximumPoolSize());
+        pool.setConnectionTimeout(ingest.getConnectionTimeout().toMillis());
+        return pool;
+    }
+
+    /**
+     * The data source JPA, JDBC and schema initialisation use. The lazy proxy defers taking a connection to the
+     * first statement, when the transaction's attributes are known.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier(PRIMARY_DATA_SOURCE) DataSource primary,
+                                 @Qualifier(REPLICA_DATA_SOURCE) ObjectProvider<DataSource> replica,
+                                 @Qualifier(INGEST_DATA_SOURCE) ObjectProvider<DataSource> ingest) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(Route.PRIMARY, primary);
+        replica.ifAvailable(pool -> targets.put(Route.REPLICA, pool));
+        ingest.ifAvailable(pool -> targets.put(Route.INGEST, pool));
+
+        AbstractRoutingDataSource routing = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                if (INGEST_TRANSACTION.equals(TransactionSynchronizationManager.getCurrentTransactionName())) {
+                    return Route.INGEST;
+                }
+                return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? Route.REPLICA : Route.PRIMARY;
+            }
+        };
+        // Routes without a pool of their own fall back to the primary
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
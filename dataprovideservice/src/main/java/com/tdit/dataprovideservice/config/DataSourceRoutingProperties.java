@@ -0,0 +1,45 @@
+package com.tdit.dataprovideservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Connection pools next to the primary one ({@code spring.datasource}), see {@link DataSourceConfig}.
+ */
+@Data
+@ConfigurationProperties(prefix = "datasource-routing")
+public class DataSourceRoutingProperties {
+
+    private Replica replica = new Replica();
+
+    private Ingest ingest = new Ingest();
+
+    /**
+     * Read-only transactions go to the replica once {@code url} is set; until then to the primary.
+     */
+    @Data
+    public static class Replica {
+        private String url;
+        /** The primary's when unset. */
+        private String username;
+        /** The primary's when unset. */
+        private String password;
+        private int maximumPoolSize = 10;
+        private Duration connectionTimeout = Duration.ofSeconds(30);
+    }
+
+    /**
+     * The chunk commits of uploads, on the primary database but in a pool of their own, so a large ingest cannot
+     * take the connections requests need.
+     */
+    @Data
+    public static class Ingest {
+        private boolean enabled = true;
+        /** One connection per upload committing a chunk at that moment. */
+        private int maximumPoolSize = 4;
+        /** A commit waits this long for a connection before the upload fails. */
+        private Duration connectionTimeout = Duration.ofSeconds(30);
+    }
+}
@@ -0,0 +1,123 @@
+package com.tdit.dataprovideservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "excel.processing")
+public class ExcelProcessingProperties {
+
+    /**
+     * STREAMING reads sheets through the POI event model with constant memory,
+     * DOM loads the whole workbook into an XSSFWorkbook first.
+     */
+    private ReaderMode readerMode = ReaderMode.STREAMING;
+
+    /**
+     * Answers an upload whose file is byte for byte the one of the uploader's last completed upload with
+     * that upload's figures, without reading it again.
+     */
+    private boolean skipIdenticalFiles = true;
+
+    /**
+     * Where uploads are kept on disk while they are processed; the system temp dir when unset.
+     */
+    private String spoolDirectory;
+
+    private Pipeline pipeline = new Pipeline();
+
+    private Jobs jobs = new Jobs();
+
+    private Admission admission = new Admission();
+
+    private Csv csv = new Csv();
+
+    private Columns columns = new Columns();
+
+    private Upsert upsert = new Upsert();
+
+    public enum ReaderMode {
+        STREAMING, DOM
+    }
+
+    @Data
+    public static class Pipeline {
+        /** Validation/conversion workers per upload. */
+        private int workers = Runtime.getRuntime().availableProcessors();
+        /** Capacity of the parse -> validate and validate -> persist queues. */
+        private int queueCapacity = 1000;
+        /** Number of properties handed to the writer per saveAll call. */
+        private int batchSize = 500;
+        /** Rows committed per transaction; the upload checkpoint advances once per chunk. */
+        private int chunkSize = 5000;
+        /** Threads shared by all uploads for the validation/conversion stage. */
+        private int workerPoolSize = Runtime.getRuntime().availableProcessors();
+        /** Upper bound on concurrently running parser threads. */
+        private int parserPoolSize = 8;
+        /** Sheets of one workbook read at the same time by the streaming reader. */
+        private int sheetParallelism = 4;
+        /** Threads shared by all uploads for reading sheets. */
+        private int sheetPoolSize = 8;
+    }
+
+    @Data
+    public static class Jobs {
+        /** Asynchronous uploads processed at the same time. */
+        private int poolSize = 2;
+        /** Accepted uploads allowed to wait for a free slot before new ones are rejected. */
+        private int queueCapacity = 20;
+    }
+
+    @Data
+    public static class Admission {
+        /** Admits every upload at once when off. */
+        private boolean enabled = true;
+        /** Heap that running uploads may take together, by their estimates; half the maximum heap when unset. */
+        private DataSize memoryBudget;
+        /** Heap an upload is estimated to take per byte of its file, for CSV, NDJSON and streamed workbooks. */
+        private double expansionFactor = 4;
+        /** The same for workbooks loaded whole by the DOM reader. */
+        private double domExpansionFactor = 40;
+        /** How long an upload waits for budget before it is rejected. */
+        private Duration maxWait = Duration.ofSeconds(10);
+        /** Uploads allowed to wait for budget at the same time; further ones are rejected at once. */
+        private int maxQueued = 10;
+        /** Retry-After sent with rejections that are not down to the uploader's rate. */
+        private Duration retryAfter = Duration.ofSeconds(30);
+        /** Uploads of one uploader processed at the same time, async ones counted until their job ends; 0 for no limit. */
+        private int perUserConcurrency = 2;
+        /** Uploads one uploader may start per minute; as many may be started at once after a quiet minute; 0 for no limit. */
+        private int perUserPerMinute = 20;
+    }
+
+    @Data
+    public static class Columns {
+        /** Further header names per template column, e.g. {@code Base_Price: [Price, Rate]}. */
+        private Map<String, List<String>> aliases = new LinkedHashMap<>();
+        /** Template columns a sheet may leave out; a sheet missing any other column is rejected. */
+        private List<String> optional = new ArrayList<>(List.of(
+                "Property_ID", "Description", "Latitude", "Longitude", "Amenities", "Property_URL",
+                "createdAt", "updatedAt"));
+    }
+
+    @Data
+    public static class Upsert {
+        /** Updates the stored property with the same natural key instead of inserting every row again. */
+        private boolean enabled = false;
+        /** Template columns that identify a property across uploads, e.g. {@code [Property_ID]}. */
+        private List<String> naturalKey = new ArrayList<>(List.of("Host_ID", "Property_Title", "Pincode"));
+    }
+
+    @Data
+    public static class Csv {
+        /** Field separator of CSV uploads; Excel writes ';' in locales with a decimal comma. */
+        private char delimiter = ',';
+    }
+}
@@ -0,0 +1,37 @@
+package com.tdit.dataprovideservice.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Caffeine caches for property reads. Actuator binds every cache of the manager, so hits, misses and
+ * evictions show up as {@code cache.gets} and {@code cache.evictions}.
+ */
+@Configuration
+@EnableCaching
+public class PropertyCacheConfig {
+
+    public static final String PROPERTIES = "properties";
+    public static final String PROPERTY_LISTINGS = "propertyListings";
+
+    @Bean
+    public CacheManager cacheManager(PropertyCacheProperties properties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(PROPERTIES, caffeine(properties.getById()).build());
+        cacheManager.registerCustomCache(PROPERTY_LISTINGS, caffeine(properties.getListings()).build());
+        // Evictions inside a transaction wait for its commit; earlier, a concurrent read could cache the old rows again
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+    private static Caffeine<Object, Object> caffeine(PropertyCacheProperties.Spec spec) {
+        return Caffeine.newBuilder()
+                .maximumSize(spec.getMaximumSize())
+                .expireAfterWrite(spec.getExpireAfterWrite())
+                .recordStats();
+    }
+}
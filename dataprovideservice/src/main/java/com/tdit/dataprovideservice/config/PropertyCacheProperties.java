@@ -0,0 +1,28 @@
+package com.tdit.dataprovideservice.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "property-cache")
+public class PropertyCacheProperties {
+
+    /** Properties looked up by id. */
+    private Spec byId = new Spec(10_000, Duration.ofMinutes(10));
+
+    /** Property listings such as the rejected list; few entries, each a whole listing. */
+    private Spec listings = new Spec(100, Duration.ofSeconds(30));
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Spec {
+        private long maximumSize;
+        /** Upper bound on staleness for changes made outside this service; its own writes evict at once. */
+        private Duration expireAfterWrite;
+    }
+}
@@ -0,0 +1,109 @@
+package com.tdit.dataprovideservice.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.task.SimpleAsyncTaskExecutorBuilder;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executors of the upload pipeline.
+ * <p>
+ * With {@code spring.threads.virtual.enabled} on Java 21, Tomcat and the application executor run on virtual
+ * threads, and so do upload jobs, which spend their time waiting on the pipeline and the database. The parser,
+ * sheet and worker pools stay on platform threads: they are CPU-bound, sized to the cores, and POI reads zip
+ * entries under {@code java.util.zip} monitors, which would pin a virtual thread's carrier through the I/O.
+ */
+@Slf4j
+@Configuration
+public class UploadExecutorConfig {
+
+    private static final String VIRTUAL_THREADS_PROPERTY = "spring.threads.virtual.enabled";
+
+    public static final String PARSER_EXECUTOR = "uploadParserExecutor";
+    public static final String SHEET_EXECUTOR = "uploadSheetExecutor";
+    public static final String WORKER_EXECUTOR = "uploadWorkerExecutor";
+    public static final String JOB_EXECUTOR = "uploadJobExecutor";
+
+    /**
+     * Parsers block on the bounded row queue, so they get their own pool and never
+     * starve the workers that drain it.
+     */
+    @Bean(PARSER_EXECUTOR)
+    public ThreadPoolTaskExecutor uploadParserExecutor(ExcelProcessingProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getPipeline().getParserPoolSize());
+        executor.setMaxPoolSize(properties.getPipeline().getParserPoolSize());
+        executor.setThreadNamePrefix("upload-parser-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    /**
+     * Reads the sheets of a workbook in parallel for the streaming reader. Kept apart from the parser
+     * pool because a parser thread waits on its sheets and must not take the threads they need.
+     */
+    @Bean(SHEET_EXECUTOR)
+    public ThreadPoolTaskExecutor uploadSheetExecutor(ExcelProcessingProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getPipeline().getSheetPoolSize());
+        executor.setMaxPoolSize(properties.getPipeline().getSheetPoolSize());
+        executor.setThreadNamePrefix("upload-sheet-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    @Bean(WORKER_EXECUTOR)
+    public ThreadPoolTaskExecutor uploadWorkerExecutor(ExcelProcessingProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getPipeline().getWorkerPoolSize());
+        executor.setMaxPoolSize(properties.getPipeline().getWorkerPoolSize());
+        executor.setThreadNamePrefix("upload-worker-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    /**
+     * Runs async uploads. The bounded queue is the backpressure: once it is full new
+     * submissions are rejected instead of piling up spooled files and heap.
+     */
+    @Bean(JOB_EXECUTOR)
+    public ThreadPoolTaskExecutor uploadJobExecutor(ExcelProcessingProperties properties, Environment environment) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        if (Threading.VIRTUAL.isActive(environment)) {
+            // Still a bounded pool with a bounded queue, only its threads are virtual
+            executor.setThreadFactory(new VirtualThreadTaskExecutor("upload-job-").getVirtualThreadFactory());
+        } else if (environment.getProperty(VIRTUAL_THREADS_PROPERTY, Boolean.class, false)) {
+            log.warn("{} is set but needs Java 21; running on platform threads on Java {}",
+                    VIRTUAL_THREADS_PROPERTY, Runtime.version().feature());
+        }
+        executor.setCorePoolSize(properties.getJobs().getPoolSize());
+        executor.setMaxPoolSize(properties.getJobs().getPoolSize());
+        executor.setQueueCapacity(properties.getJobs().getQueueCapacity());
+        executor.setThreadNamePrefix("upload-job-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    /**
+     * Declaring our own executors switches off Boot's default one, which MVC async
+     * request handling relies on, so it is re-registered here the way Boot builds it.
+     */
+    @Lazy
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public AsyncTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder,
+                                                     SimpleAsyncTaskExecutorBuilder virtualBuilder,
+                                                     Environment environment) {
+        // Boot's builder is set up for virtual threads when they are active
+        return Threading.VIRTUAL.isActive(environment) ? virtualBuilder.build() : builder.build();
+    }
+}
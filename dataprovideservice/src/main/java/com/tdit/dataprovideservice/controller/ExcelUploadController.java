@@ -1,20 +1,51 @@
 package com.tdit.dataprovideservice.controller;
 
+import com.tdit.dataprovideservice.dto.BulkStatusRequest;
+import com.tdit.dataprovideservice.dto.BulkStatusResponse;
 import com.tdit.dataprovideservice.dto.ExcelUploadResponse;
+import com.tdit.dataprovideservice.dto.NearbyPropertyPageResponse;
+import com.tdit.dataprovideservice.dto.PropertyFilter;
+import com.tdit.dataprovideservice.dto.PropertyPageResponse;
+import com.tdit.dataprovideservice.dto.PropertySearchCriteria;
+import com.tdit.dataprovideservice.dto.PropertySearchResponse;
+import com.tdit.dataprovideservice.dto.UploadRowResultsResponse;
+import com.tdit.dataprovideservice.dto.UploadStatusResponse;
 import com.tdit.dataprovideservice.entity.Property;
-import com.tdit.dataprovideservice.entity.UploadAudit;
+import com.tdit.dataprovideservice.entity.Property_Type;
+import com.tdit.dataprovideservice.entity.Status;
+import com.tdit.dataprovideservice.entity.UploadRowResult;
+import com.tdit.dataprovideservice.reader.UploadFormat;
 import com.tdit.dataprovideservice.service.ExcelUploadService;
+import com.tdit.dataprovideservice.service.ExportService;
+import com.tdit.dataprovideservice.service.PropertySearchService;
 import com.tdit.dataprovideservice.service.PropertyServiceAdmin;
+import com.tdit.dataprovideservice.service.UploadJobService;
+import com.tdit.dataprovideservice.service.UploadNotFoundException;
+import com.tdit.dataprovideservice.service.UploadProcessingException;
+import com.tdit.dataprovideservice.service.UploadRejectedException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
 
+import static com.tdit.dataprovideservice.entity.Constants.ERROR_INVALID_STATUS;
+import static com.tdit.dataprovideservice.entity.Constants.ERROR_UNSUPPORTED_EXPORT_FORMAT;
+import static com.tdit.dataprovideservice.entity.Constants.ERROR_UNSUPPORTED_FORMAT;
+import static com.tdit.dataprovideservice.entity.Constants.ERROR_UPLOAD_QUEUE_FULL;
+import static com.tdit.dataprovideservice.entity.Constants.UPLOAD_NOT_FOUND;
+
 @RequiredArgsConstructor
 @Slf4j
 @CrossOrigin(origins = "*")
@@ -24,11 +55,15 @@ public class ExcelUploadController {
 
     private final ExcelUploadService excelUploadService;
     private final PropertyServiceAdmin propertyServiceAdmin;
+    private final UploadJobService uploadJobService;
+    private final ExportService exportService;
+    private final PropertySearchService propertySearchService;
 
     @PostMapping("/upload")
     public ResponseEntity<ExcelUploadResponse> uploadExcel(
             @RequestParam("file") MultipartFile file,
-            @RequestParam(value = "uploadedBy", defaultValue = "system") String uploadedBy) {
+            @RequestParam(value = "uploadedBy", defaultValue = "system") String uploadedBy,
+            @RequestParam(value = "async", defaultValue = "false") boolean async) {
 
         try {
             if (file.isEmpty()) {
@@ -38,16 +73,38 @@ public class ExcelUploadController {
                                 .message("File is empty")
                                 .build());
             }
-            if (!file.getOriginalFilename().endsWith(".xlsx")) {
+            UploadFormat format = UploadFormat.detect(file.getOriginalFilename(), file.getContentType());
+            if (format == null) {
                 return ResponseEntity.badRequest()
                         .body(ExcelUploadResponse.builder()
                                 .status("FAILED")
-                                .message("Only .xlsx files are supported")
+                                .message(ERROR_UNSUPPORTED_FORMAT)
                                 .build());
             }
-            log.info("Processing Excel upload: {} by user: {}", file.getOriginalFilename(), uploadedBy);
-            ExcelUploadResponse response = excelUploadService.processExcelUpload(file, uploadedBy);
+            log.info("Processing {} upload: {} by user: {}", format, file.getOriginalFilename(), uploadedBy);
+            if (async) {
+                return ResponseEntity.accepted().body(uploadJobService.submit(file, format, uploadedBy));
+            }
+            ExcelUploadResponse response = excelUploadService.processExcelUpload(file, format, uploadedBy);
             return ResponseEntity.ok(response);
+        } catch (TaskRejectedException e) {
+            log.warn("Rejected Excel upload {}: job queue is full", file.getOriginalFilename());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body(ExcelUploadResponse.builder()
+                            .status("FAILED")
+                            .message(ERROR_UPLOAD_QUEUE_FULL)
+                            .build());
+        } catch (UploadRejectedException e) {
+            log.warn("Rejected Excel upload {} by user {}: {}", file.getOriginalFilename(), uploadedBy, e.getMessage());
+            return rejected(null, e);
+        } catch (UploadProcessingException e) {
+            log.error("Error in Excel upload {}: {}", e.getUploadId(), e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ExcelUploadResponse.builder()
+                            .uploadId(e.getUploadId())
+                            .status("FAILED")
+                            .message("Error processing file: " + e.getMessage())
+                            .build());
         } catch (Exception e) {
             log.error("Error in Excel upload: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -58,30 +115,345 @@ public class ExcelUploadController {
         }
     }
 
+    /**
+     * Continues a FAILED upload from its last committed chunk. The original file has to be sent again.
+     */
+    @PostMapping("/upload/{uploadId}/resume")
+    public ResponseEntity<ExcelUploadResponse> resumeUpload(
+            @PathVariable UUID uploadId,
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "async", defaultValue = "false") boolean async) {
+
+        try {
+            if (file.isEmpty()) {
+                return ResponseEntity.badRequest()
+                        .body(ExcelUploadResponse.builder()
+                                .status("FAILED")
+                                .message("File is empty")
+                                .build());
+            }
+            UploadFormat format = UploadFormat.detect(file.getOriginalFilename(), file.getContentType());
+            if (format == null) {
+                return ResponseEntity.badRequest()
+                        .body(ExcelUploadResponse.builder()
+                                .uploadId(uploadId)
+                                .status("FAILED")
+                                .message(ERROR_UNSUPPORTED_FORMAT)
+                                .build());
+            }
+            log.info("Resuming Excel upload {} with file {}", uploadId, file.getOriginalFilename());
+            if (async) {
+                return ResponseEntity.accepted().body(uploadJobService.resume(uploadId, file, format));
+            }
+            return ResponseEntity.ok(excelUploadService.resumeUpload(uploadId, file, format));
+        } catch (UploadNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ExcelUploadResponse.builder()
+                            .uploadId(uploadId)
+                            .status("FAILED")
+                            .message(e.getMessage())
+                            .build());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(ExcelUploadResponse.builder()
+                            .uploadId(uploadId)
+                            .status("FAILED")
+                            .message(e.getMessage())
+                            .build());
+        } catch (TaskRejectedException e) {
+            log.warn("Rejected resume of upload {}: job queue is full", uploadId);
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body(ExcelUploadResponse.builder()
+                            .uploadId(uploadId)
+                            .status("FAILED")
+                            .message(ERROR_UPLOAD_QUEUE_FULL)
+                            .build());
+        } catch (UploadRejectedException e) {
+            log.warn("Rejected resume of upload {}: {}", uploadId, e.getMessage());
+            return rejected(uploadId, e);
+        } catch (Exception e) {
+            log.error("Error resuming upload {}: {}", uploadId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ExcelUploadResponse.builder()
+                            .uploadId(uploadId)
+                            .status("FAILED")
+                            .message("Error processing file: " + e.getMessage())
+                            .build());
+        }
+    }
+
     @GetMapping("/status/{uploadId}")
-    public ResponseEntity<UploadAudit> getUploadStatus(@PathVariable UUID uploadId) {
+    public ResponseEntity<UploadStatusResponse> getUploadStatus(@PathVariable UUID uploadId) {
         try {
-            UploadAudit audit = excelUploadService.getUploadStatus(uploadId);
-            return ResponseEntity.ok(audit);
+            return ResponseEntity.ok(excelUploadService.getUploadStatusWithProgress(uploadId));
         } catch (Exception e) {
             log.error("Error getting upload status: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
         }
     }
 
+    /**
+     * Row results of an upload, page by page. {@code outcome} narrows to FAILED, WARNING or SUCCESS rows,
+     * {@code sheet} to the rows of one sheet (by name).
+     */
+    @GetMapping("/status/{uploadId}/rows")
+    public ResponseEntity<UploadRowResultsResponse> getUploadRowResults(
+            @PathVariable UUID uploadId,
+            @RequestParam(value = "outcome", required = false) UploadRowResult.Outcome outcome,
+            @RequestParam(value = "sheet", required = false) String sheet,
+            @RequestParam(value = "fromRow", required = false) Integer fromRow,
+            @RequestParam(value = "toRow", required = false) Integer toRow,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "100") int size) {
+        try {
+            return ResponseEntity.ok(excelUploadService.getRowResults(uploadId, outcome, sheet, fromRow, toRow, page, size));
+        } catch (Exception e) {
+            log.error("Error getting row results: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+    }
+
+    /**
+     * The upload's FAILED and WARNING rows (or those of {@code outcome}) as a file in the template's columns, each
+     * row as it was read plus its error, so it can be fixed and uploaded again. {@code format} is csv, xlsx or ndjson.
+     */
+    @GetMapping("/status/{uploadId}/errors/export")
+    public ResponseEntity<StreamingResponseBody> exportErrorReport(
+            @PathVariable UUID uploadId,
+            @RequestParam(value = "outcome", required = false) List<UploadRowResult.Outcome> outcome,
+            @RequestParam(value = "format", defaultValue = "csv") String format) {
+        UploadFormat exportFormat = UploadFormat.fromName(format);
+        if (exportFormat == null) {
+            return plainText(HttpStatus.BAD_REQUEST, ERROR_UNSUPPORTED_EXPORT_FORMAT);
+        }
+        if (!exportService.uploadExists(uploadId)) {
+            return plainText(HttpStatus.NOT_FOUND, UPLOAD_NOT_FOUND + uploadId);
+        }
+        List<UploadRowResult.Outcome> outcomes = outcome != null && !outcome.isEmpty() ? outcome
+                : List.of(UploadRowResult.Outcome.FAILED, UploadRowResult.Outcome.WARNING);
+        return attachment("upload-" + uploadId + "-errors", exportFormat, out -> {
+            long rows = exportService.exportErrorReport(uploadId, outcomes, exportFormat, out);
+            log.info("Exported {} rows of the error report of upload {} as {}", rows, uploadId, exportFormat);
+        });
+    }
+
     @PutMapping("/admin/{id}/status")
     public ResponseEntity<String> updatePropertyStatus(
             @PathVariable Long id,
             @RequestParam String status) {
         if (!status.equalsIgnoreCase("APPROVED") && !status.equalsIgnoreCase("REJECTED")) {
-            return ResponseEntity.badRequest().body("Invalid status. Only APPROVED or REJECTED allowed.");
+            return ResponseEntity.badRequest().body(ERROR_INVALID_STATUS);
         }
         propertyServiceAdmin.updatePropertyStatus(id, status.toUpperCase());
         return ResponseEntity.ok("Property status updated to " + status.toUpperCase());
     }
 
+    /**
+     * Sets the status of many properties: the listed ids, or all properties of an upload, city and/or host.
+     */
+    @PutMapping("/admin/status")
+    public ResponseEntity<BulkStatusResponse> updatePropertyStatuses(@RequestBody BulkStatusRequest request) {
+        Status status = Status.fromString(request.getStatus());
+        if (status == null) {
+            return ResponseEntity.badRequest()
+                    .body(BulkStatusResponse.builder()
+                            .message(ERROR_INVALID_STATUS)
+                            .build());
+        }
+        request.setStatus(status.name());
+        try {
+            log.info("Setting status {} in bulk", status);
+            return ResponseEntity.ok(propertyServiceAdmin.updateStatuses(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(BulkStatusResponse.builder()
+                            .status(status.name())
+                            .message(e.getMessage())
+                            .build());
+        } catch (Exception e) {
+            log.error("Error setting status {} in bulk: {}", status, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(BulkStatusResponse.builder()
+                            .status(status.name())
+                            .message("Error updating properties: " + e.getMessage())
+                            .build());
+        }
+    }
+
+    @GetMapping("/properties/{id}")
+    public ResponseEntity<Property> getProperty(@PathVariable Long id) {
+        return propertyServiceAdmin.getProperty(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Properties page by page, in id order. Pass the {@code nextAfter} of a page as {@code after} to get the next.
+     */
+    @GetMapping("/properties")
+    public ResponseEntity<PropertyPageResponse> getProperties(
+            @RequestParam(value = "status", required = false) Status status,
+            @RequestParam(value = "city", required = false) String city,
+            @RequestParam(value = "propertyType", required = false) Property_Type propertyType,
+            @RequestParam(value = "hostId", required = false) Long hostId,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "size", defaultValue = "100") int size) {
+        PropertyFilter filter = new PropertyFilter(status != null ? status.name() : null, city,
+                propertyType != null ? propertyType.name() : null, hostId);
+        return ResponseEntity.ok(propertyServiceAdmin.findProperties(filter, after, size));
+    }
+
+    /**
+     * Full-text search with filters, returning a page of the best matches together with facet counts and a price
+     * histogram over all of them. Repeat {@code propertyType}, {@code currency} and {@code amenities} to give several.
+     */
+    @GetMapping("/properties/search")
+    public ResponseEntity<PropertySearchResponse> searchProperties(
+            @RequestParam(value = "q", required = false) String text,
+            @RequestParam(value = "status", required = false) Status status,
+            @RequestParam(value = "city", required = false) String city,
+            @RequestParam(value = "propertyType", required = false) List<Property_Type> propertyTypes,
+            @RequestParam(value = "currency", required = false) List<String> currencies,
+            @RequestParam(value = "minPrice", required = false) Double minPrice,
+            @RequestParam(value = "maxPrice", required = false) Double maxPrice,
+            @RequestParam(value = "amenities", required = false) List<String> amenities,
+            @RequestParam(value = "priceBucketWidth", defaultValue = "1000") double priceBucketWidth,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        PropertySearchCriteria criteria = new PropertySearchCriteria(text, status != null ? status.name() : null, city,
+                propertyTypes != null ? propertyTypes.stream().map(Enum::name).toList() : null,
+                currencies != null ? currencies.stream().map(currency -> currency.toUpperCase(Locale.ROOT)).toList() : null,
+                minPrice, maxPrice, amenities);
+        try {
+            return ResponseEntity.ok(propertySearchService.search(criteria, page, size, priceBucketWidth));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(PropertySearchResponse.builder()
+                            .message(e.getMessage())
+                            .build());
+        } catch (UnsupportedOperationException e) {
+            return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED)
+                    .body(PropertySearchResponse.builder()
+                            .message(e.getMessage())
+                            .build());
+        }
+    }
+
+    /**
+     * Properties within {@code radiusKm} of a point, nearest first, page by page. Pass the {@code nextAfterDistance}
+     * and {@code nextAfterId} of a page as {@code afterDistance} and {@code afterId} to get the next.
+     */
+    @GetMapping("/properties/nearby")
+    public ResponseEntity<NearbyPropertyPageResponse> getNearbyProperties(
+            @RequestParam("lat") double latitude,
+            @RequestParam("lng") double longitude,
+            @RequestParam(value = "radiusKm", defaultValue = "5") double radiusKm,
+            @RequestParam(value = "status", required = false) Status status,
+            @RequestParam(value = "city", required = false) String city,
+            @RequestParam(value = "propertyType", required = false) Property_Type propertyType,
+            @RequestParam(value = "hostId", required = false) Long hostId,
+            @RequestParam(value = "afterDistance", required = false) Double afterDistance,
+            @RequestParam(value = "afterId", required = false) Long afterId,
+            @RequestParam(value = "size", defaultValue = "100") int size) {
+        PropertyFilter filter = new PropertyFilter(status != null ? status.name() : null, city,
+                propertyType != null ? propertyType.name() : null, hostId);
+        try {
+            return ResponseEntity.ok(propertySearchService.findNearby(latitude, longitude, radiusKm, filter,
+                    afterDistance, afterId, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(NearbyPropertyPageResponse.builder()
+                            .message(e.getMessage())
+                            .build());
+        }
+    }
+
+    /**
+     * Properties inside a latitude/longitude box, nearest to its center first; paged like {@code /properties/nearby}.
+     */
+    @GetMapping("/properties/within")
+    public ResponseEntity<NearbyPropertyPageResponse> getPropertiesWithin(
+            @RequestParam("minLat") double minLatitude,
+            @RequestParam("minLng") double minLongitude,
+            @RequestParam("maxLat") double maxLatitude,
+            @RequestParam("maxLng") double maxLongitude,
+            @RequestParam(value = "status", required = false) Status status,
+            @RequestParam(value = "city", required = false) String city,
+            @RequestParam(value = "propertyType", required = false) Property_Type propertyType,
+            @RequestParam(value = "hostId", required = false) Long hostId,
+            @RequestParam(value = "afterDistance", required = false) Double afterDistance,
+            @RequestParam(value = "afterId", required = false) Long afterId,
+            @RequestParam(value = "size", defaultValue = "100") int size) {
+        PropertyFilter filter = new PropertyFilter(status != null ? status.name() : null, city,
+                propertyType != null ? propertyType.name() : null, hostId);
+        try {
+            return ResponseEntity.ok(propertySearchService.findWithin(minLatitude, minLongitude, maxLatitude,
+                    maxLongitude, filter, afterDistance, afterId, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(NearbyPropertyPageResponse.builder()
+                            .message(e.getMessage())
+                            .build());
+        }
+    }
+
+    /**
+     * Properties in id order as a file in the template's columns; {@code format} is csv, xlsx or ndjson.
+     * Rows are written while they are read, so the export starts at once and can be of any size.
+     */
+    @GetMapping("/properties/export")
+    public ResponseEntity<StreamingResponseBody> exportProperties(
+            @RequestParam(value = "status", required = false) Status status,
+            @RequestParam(value = "city", required = false) String city,
+            @RequestParam(value = "propertyType", required = false) Property_Type propertyType,
+            @RequestParam(value = "hostId", required = false) Long hostId,
+            @RequestParam(value = "format", defaultValue = "csv") String format) {
+        UploadFormat exportFormat = UploadFormat.fromName(format);
+        if (exportFormat == null) {
+            return plainText(HttpStatus.BAD_REQUEST, ERROR_UNSUPPORTED_EXPORT_FORMAT);
+        }
+        PropertyFilter filter = new PropertyFilter(status != null ? status.name() : null, city,
+                propertyType != null ? propertyType.name() : null, hostId);
+        return attachment("properties", exportFormat, out -> {
+            long rows = exportService.exportProperties(filter, exportFormat, out);
+            log.info("Exported {} properties as {}", rows, exportFormat);
+        });
+    }
+
     @GetMapping("/properties/rejected")
-    public ResponseEntity<List<Property>> getRejectedProperties() {
-        return ResponseEntity.ok(propertyServiceAdmin.getRejectedProperties());
+    public ResponseEntity<PropertyPageResponse> getRejectedProperties(
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "size", defaultValue = "100") int size) {
+        PropertyFilter filter = new PropertyFilter(Status.REJECTED.name(), null, null, null);
+        return ResponseEntity.ok(propertyServiceAdmin.findProperties(filter, after, size));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> attachment(String fileName, UploadFormat format,
+                                                                   StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(fileName + format.extension()).build().toString())
+                .body(body);
+    }
+
+    private static ResponseEntity<StreamingResponseBody> plainText(HttpStatus status, String message) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(out -> out.write(message.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * 429 with a Retry-After in whole seconds, rounded up.
+     */
+    private static ResponseEntity<ExcelUploadResponse> rejected(UUID uploadId, UploadRejectedException e) {
+        long seconds = Math.max(1, (e.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(seconds))
+                .body(ExcelUploadResponse.builder()
+                        .uploadId(uploadId)
+                        .status("FAILED")
+                        .message(e.getMessage())
+                        .build());
     }
 }
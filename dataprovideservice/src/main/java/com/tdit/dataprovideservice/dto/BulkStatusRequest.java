@@ -0,0 +1,19 @@
+package com.tdit.dataprovideservice.dto;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A status change for many properties: either the listed {@code ids}, or every property matching all
+ * of the given {@code uploadId}, {@code city} and {@code hostId}.
+ */
+@Data
+public class BulkStatusRequest {
+    private String status;
+    private List<Long> ids;
+    private UUID uploadId;
+    private String city;
+    private Long hostId;
+}
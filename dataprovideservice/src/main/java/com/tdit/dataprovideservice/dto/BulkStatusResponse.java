@@ -0,0 +1,18 @@
+package com.tdit.dataprovideservice.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class BulkStatusResponse {
+    private String status;
+    /** Requested ids that exist, including the ones that already had the status; for a filter, the same as updated. */
+    private Integer matchedRows;
+    private Integer updatedRows;
+    /** Requested ids with no property; empty for a filter. */
+    private List<Long> notFound;
+    private String message;
+}
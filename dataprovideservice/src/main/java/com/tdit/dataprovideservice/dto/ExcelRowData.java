@@ -102,6 +102,17 @@ public class ExcelRowData {
             message = "Updated date must be in format: yyyy-MM-dd HH:mm:ss")
     private String updatedAt;
 
+    // Set by ExcelValidationService when the value is valid, so conversion does not parse it again; NaN otherwise
+    @Builder.Default
+    private double parsedLatitude = Double.NaN;
+    @Builder.Default
+    private double parsedLongitude = Double.NaN;
+    @Builder.Default
+    private double parsedBasePrice = Double.NaN;
+
+    // The row's cells in template order as read; the error report echoes them for rejected rows
+    private String[] sourceValues;
+
     public List<String> getAmenitiesList() {
         if (amenities == null || amenities.trim().isEmpty()) {
             return new java.util.ArrayList<>();
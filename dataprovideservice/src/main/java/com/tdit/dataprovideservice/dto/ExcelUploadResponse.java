@@ -14,6 +14,8 @@ public class ExcelUploadResponse {
     private Integer successRows;
     private Integer failedRows;
     private Integer warningRows;
+    private Integer unchangedRows;
+    private UUID duplicateOf;
     private String status;
     private String message;
 }
@@ -0,0 +1,21 @@
+package com.tdit.dataprovideservice.dto;
+
+/**
+ * A property found by a nearby search, with its distance from the search's center in kilometres.
+ * Selected straight from the table, so no entity is loaded.
+ */
+public record NearbyProperty(
+        Long propertyId,
+        String propertyTitle,
+        String propertyType,
+        String city,
+        String pincode,
+        Double latitude,
+        Double longitude,
+        Long hostId,
+        String hostName,
+        Double basePrice,
+        String currency,
+        String status,
+        Double distanceKm) {
+}
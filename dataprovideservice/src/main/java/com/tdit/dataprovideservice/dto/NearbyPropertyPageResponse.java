@@ -0,0 +1,18 @@
+package com.tdit.dataprovideservice.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class NearbyPropertyPageResponse {
+    private List<NearbyProperty> properties;
+    private int size;
+    /** Pass as {@code afterDistance} and {@code afterId} to get the next page; null on the last page. */
+    private Double nextAfterDistance;
+    private Long nextAfterId;
+    private boolean hasNext;
+    private String message;
+}
@@ -0,0 +1,7 @@
+package com.tdit.dataprovideservice.dto;
+
+/**
+ * Narrows a property listing; null fields match every property.
+ */
+public record PropertyFilter(String status, String city, String propertyType, Long hostId) {
+}
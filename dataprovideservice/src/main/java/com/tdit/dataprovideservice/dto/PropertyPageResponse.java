@@ -0,0 +1,16 @@
+package com.tdit.dataprovideservice.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class PropertyPageResponse {
+    private List<PropertySummary> properties;
+    private int size;
+    /** Pass as {@code after} to get the next page; null on the last page. */
+    private Long nextAfter;
+    private boolean hasNext;
+}
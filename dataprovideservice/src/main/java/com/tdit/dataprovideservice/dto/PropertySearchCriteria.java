@@ -0,0 +1,19 @@
+package com.tdit.dataprovideservice.dto;
+
+import java.util.List;
+
+/**
+ * What a property search matches. {@code text} is a web-style query ({@code "sea view" pool -hostel}); null and
+ * empty values are ignored, a property needs one of the {@code propertyTypes} and {@code currencies} and all of
+ * the {@code amenities}.
+ */
+public record PropertySearchCriteria(
+        String text,
+        String status,
+        String city,
+        List<String> propertyTypes,
+        List<String> currencies,
+        Double minPrice,
+        Double maxPrice,
+        List<String> amenities) {
+}
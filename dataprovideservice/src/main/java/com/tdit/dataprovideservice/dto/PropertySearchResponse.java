@@ -0,0 +1,28 @@
+package com.tdit.dataprovideservice.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+public class PropertySearchResponse {
+    /** Best matches first; in id order when the search has no text. */
+    private List<PropertySummary> properties;
+    private int page;
+    private int size;
+    private boolean hasNext;
+    /** Properties matching the search, over all pages. */
+    private long total;
+    /** Counts per value of {@code propertyType}, {@code currency} and {@code amenities}, most frequent first. */
+    private Map<String, List<FacetCount>> facets;
+    private List<PriceBucket> priceHistogram;
+    private String message;
+
+    public record FacetCount(String value, long count) {}
+
+    /** Properties priced from {@code from} (inclusive) to {@code to} (exclusive). */
+    public record PriceBucket(double from, double to, long count) {}
+}
@@ -0,0 +1,23 @@
+package com.tdit.dataprovideservice.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A property as listed: the columns a list shows, without the description and amenities.
+ * Selected straight from the table, so no entity is loaded.
+ */
+public record PropertySummary(
+        Long propertyId,
+        String propertyTitle,
+        String propertyType,
+        String city,
+        String state,
+        String country,
+        String pincode,
+        Long hostId,
+        String hostName,
+        Double basePrice,
+        String currency,
+        String status,
+        LocalDateTime updatedAt) {
+}
@@ -0,0 +1,118 @@
+package com.tdit.dataprovideservice.dto;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live counters of a running upload, updated by the pipeline stages and read by status polls.
+ * <p>
+ * An async upload is {@link State#QUEUED} until its job runs; rate and ETA only count the time since then.
+ */
+public class UploadProgress {
+
+    public enum State {
+        QUEUED, RUNNING
+    }
+
+    private final long queuedNanos = System.nanoTime();
+    // Written before state, so whoever sees RUNNING also sees the start
+    private volatile long startedNanos = queuedNanos;
+    private volatile State state;
+    private final AtomicLong rowsParsed = new AtomicLong();
+    private final AtomicLong rowsValidated = new AtomicLong();
+    private final AtomicLong rowsPersisted = new AtomicLong();
+    private final AtomicLong estimatedTotalRows = new AtomicLong();
+
+    public UploadProgress() {
+        this(State.RUNNING);
+    }
+
+    private UploadProgress(State state) {
+        this.state = state;
+    }
+
+    /**
+     * Progress of an upload whose job waits in the queue; {@link #start()} starts its clock.
+     */
+    public static UploadProgress queued() {
+        return new UploadProgress(State.QUEUED);
+    }
+
+    /**
+     * Starts the clock of a queued upload; does nothing once it is running.
+     */
+    public void start() {
+        if (state == State.QUEUED) {
+            startedNanos = System.nanoTime();
+            state = State.RUNNING;
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public void rowParsed() {
+        rowsParsed.incrementAndGet();
+    }
+
+    public void rowValidated() {
+        rowsValidated.incrementAndGet();
+    }
+
+    public void rowsPersisted(int count) {
+        rowsPersisted.addAndGet(count);
+    }
+
+    /**
+     * Adds the row count a sheet declares up front (its dimension), used for the ETA.
+     */
+    public void addEstimatedRows(long rows) {
+        estimatedTotalRows.addAndGet(rows);
+    }
+
+    public long getRowsParsed() {
+        return rowsParsed.get();
+    }
+
+    public long getRowsValidated() {
+        return rowsValidated.get();
+    }
+
+    public long getRowsPersisted() {
+        return rowsPersisted.get();
+    }
+
+    public Long getEstimatedTotalRows() {
+        long estimate = estimatedTotalRows.get();
+        return estimate > 0 ? estimate : null;
+    }
+
+    /**
+     * Time spent waiting for a job thread, so far or in total.
+     */
+    public double getQueuedSeconds() {
+        long end = state == State.QUEUED ? System.nanoTime() : startedNanos;
+        return (end - queuedNanos) / 1_000_000_000d;
+    }
+
+    /**
+     * Time since the upload started running; 0 while it is queued.
+     */
+    public double getElapsedSeconds() {
+        return state == State.QUEUED ? 0 : (System.nanoTime() - startedNanos) / 1_000_000_000d;
+    }
+
+    public double getRowsPerSecond() {
+        double elapsed = getElapsedSeconds();
+        return elapsed > 0 ? rowsValidated.get() / elapsed : 0;
+    }
+
+    public Long getEtaSeconds() {
+        long estimate = estimatedTotalRows.get();
+        double rate = getRowsPerSecond();
+        if (estimate <= 0 || rate <= 0) {
+            return null;
+        }
+        return Math.max(0, Math.round((estimate - rowsValidated.get()) / rate));
+    }
+}
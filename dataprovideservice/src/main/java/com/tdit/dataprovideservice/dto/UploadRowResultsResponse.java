@@ -0,0 +1,18 @@
+package com.tdit.dataprovideservice.dto;
+
+import com.tdit.dataprovideservice.entity.UploadAudit;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+public class UploadRowResultsResponse {
+    private UUID uploadId;
+    private List<UploadAudit.RowResult> rows;
+    private int page;
+    private int size;
+    private boolean hasNext;
+}
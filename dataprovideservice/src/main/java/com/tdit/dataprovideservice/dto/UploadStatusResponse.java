@@ -0,0 +1,17 @@
+package com.tdit.dataprovideservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.tdit.dataprovideservice.entity.UploadAudit;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class UploadStatusResponse {
+
+    @JsonUnwrapped
+    private UploadAudit audit;
+
+    /** Present only while the upload is still running. */
+    private UploadProgress progress;
+}
@@ -12,15 +12,70 @@ public final class Constants {
     public static final String UPLOAD_NOT_FOUND =  "Upload not found: ";
 
 
+    // Excel template
+    public static final int EXCEL_COLUMN_COUNT = 22;
+    // Header names in template order; header rows and NDJSON keys are matched against them
+    public static final List<String> EXCEL_COLUMNS = List.of(
+            "Property_ID", "Property_Title", "Description", "Property_Type", "Address_Line1", "City", "State",
+            "Country", "Pincode", "Latitude", "Longitude", "Host_ID", "Host_Name", "Host_Contact", "Host_Email",
+            "Base_Price", "Currency", "Amenities", "Property_URL", "Status", "createdAt", "updatedAt");
+
+    // Row results
+    public static final int MAX_ROW_RESULTS_PAGE_SIZE = 1000;
+
+    // Property listings
+    public static final int MAX_PROPERTY_PAGE_SIZE = 1000;
+    // Properties locked and updated per transaction by a bulk status change
+    public static final int BULK_STATUS_BATCH_SIZE = 1000;
+
+    // Nearby searches
+    public static final double MAX_SEARCH_RADIUS_KM = 100;
+    public static final double MAX_SEARCH_BOX_DEGREES = 10;
+    // Full-text search: deepest result a page may reach, and values returned per facet
+    public static final int MAX_SEARCH_RESULTS = 10_000;
+    public static final int MAX_FACET_VALUES = 50;
+    // Properties given a geohash per transaction when older rows are backfilled
+    public static final int GEOHASH_BACKFILL_BATCH_SIZE = 1000;
+
+    // Exports: rows fetched per database round trip (a string, as query hints take it)
+    public static final String EXPORT_FETCH_SIZE = "1000";
+    // Columns the error report adds after the template columns
+    public static final List<String> ERROR_REPORT_COLUMNS = List.of("Error", "Warning", "Sheet", "Row");
+
+
     // Error messages
     public static final String ERROR_ROW_EXTRACTION = "Failed to extract row data";
     public static final String ERROR_PROPERTY_CONVERSION = "Error converting to property: ";
     public static final String ERROR_PROCESSING_ROW = "Error processing row {}: {}";
     public static final String ERROR_PROCESSING_EXCEL_FILE = "Failed to process Excel file: ";
+    public static final String ERROR_UNSUPPORTED_FORMAT = "Only .xlsx, .csv and .ndjson files are supported";
+    public static final String ERROR_MISSING_COLUMNS = "Sheet '%s' is missing required columns: %s";
+    public static final String ERROR_UNKNOWN_COLUMN = "Unknown template column in excel.processing.columns: ";
+    public static final String ERROR_INVALID_STATUS = "Invalid status. Only APPROVED or REJECTED allowed.";
+    public static final String ERROR_BULK_STATUS_SELECTION = "Select properties by ids or by at least one of uploadId, city and hostId";
+    public static final String ERROR_INVALID_COORDINATES = "Latitudes must be between -90 and 90 and longitudes between -180 and 180";
+    public static final String ERROR_SEARCH_RADIUS = "radiusKm must be greater than 0 and at most %.0f";
+    public static final String ERROR_SEARCH_BOX = "The box must have min below max and span at most %.0f degrees each way";
+    public static final String ERROR_SEARCH_DEPTH = "Search results can be paged up to result %d";
+    public static final String ERROR_PRICE_BUCKET = "priceBucketWidth must be greater than 0";
+    public static final String ERROR_SEARCH_UNSUPPORTED = "Full-text search needs PostgreSQL";
+    public static final String ERROR_UNSUPPORTED_EXPORT_FORMAT = "Export format must be csv, xlsx or ndjson";
+    public static final String ERROR_UNKNOWN_KEY_COLUMN = "Unknown template column in excel.processing.upsert.natural-key: ";
 
 
     // Audit messages
-    public static final String MESSAGE_TEMPLATE = "Processed %d rows: %d success, %d failed, %d warnings";
+    public static final String MESSAGE_TEMPLATE = "Processed %d rows: %d success, %d failed, %d warnings, %d unchanged";
+    public static final String MESSAGE_DUPLICATE_UPLOAD = "File is identical to completed upload %s, nothing was processed";
+    public static final String MESSAGE_BULK_STATUS = "%d properties set to %s";
+    public static final String MESSAGE_UPLOAD_ACCEPTED = "Upload accepted, poll /api/excel/status/{uploadId} for progress";
+    public static final String ERROR_UPLOAD_QUEUE_FULL = "Too many uploads in progress, please retry later";
+    public static final String ERROR_UPLOAD_OVER_BUDGET = "Not enough capacity for this upload right now, please retry later";
+    public static final String ERROR_UPLOAD_USER_CONCURRENCY = "Too many of your uploads are in progress, please retry later";
+    public static final String ERROR_UPLOAD_USER_RATE = "Upload rate limit reached, please retry later";
+    public static final String ERROR_UPLOAD_NOT_RESUMABLE = "Only failed uploads can be resumed: ";
+    public static final String ERROR_RESUME_FILE_MISMATCH = "Resume expects the originally uploaded file: ";
+    public static final String ERROR_RESUME_CONTENT_MISMATCH = "Resume expects the originally uploaded file, its content has changed: ";
+    public static final String ERROR_RESUME_SHEET_MISMATCH = "Resume expects the originally uploaded file: sheet %d is '%s', was '%s'";
 
     //Warn messages
     public static final String INVALID_STATUS_VALUE = "Invalid Status value '{}' found in Excel. Returning null.";
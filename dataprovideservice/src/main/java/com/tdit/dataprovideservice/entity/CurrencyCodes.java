@@ -0,0 +1,48 @@
+package com.tdit.dataprovideservice.entity;
+
+import java.util.Currency;
+
+/**
+ * ISO 4217 codes looked up case-insensitively in a table indexed by their three letters. Every row of a currency
+ * gets the same String instance, so a million properties in {@code INR} hold one {@code "INR"}, not a million.
+ */
+public final class CurrencyCodes {
+
+    private static final int LETTERS = 26;
+    private static final String[] CODES = new String[LETTERS * LETTERS * LETTERS];
+
+    static {
+        for (Currency currency : Currency.getAvailableCurrencies()) {
+            String code = currency.getCurrencyCode();
+            int index = index(code);
+            if (index >= 0) {
+                CODES[index] = code;
+            }
+        }
+    }
+
+    private CurrencyCodes() {}
+
+    /**
+     * @return the upper-case ISO code, or null when {@code value} is not one
+     */
+    public static String canonical(String value) {
+        int index = value != null ? index(value) : -1;
+        return index >= 0 ? CODES[index] : null;
+    }
+
+    private static int index(String code) {
+        if (code.length() != 3) {
+            return -1;
+        }
+        int index = 0;
+        for (int i = 0; i < 3; i++) {
+            int letter = (code.charAt(i) | 0x20) - 'a';
+            if (letter < 0 || letter >= LETTERS) {
+                return -1;
+            }
+            index = index * LETTERS + letter;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,48 @@
+package com.tdit.dataprovideservice.entity;
+
+/**
+ * Case-insensitive matching of cell text against enum names without building a cleaned-up copy of the text.
+ * Leading and trailing characters up to {@code ' '} are skipped, as {@link String#trim()} would.
+ */
+final class EnumNames {
+
+    private EnumNames() {}
+
+    /**
+     * @param ignoreInnerWhitespace also skips whitespace ({@code \s}) between the letters, e.g. {@code "P G"}
+     */
+    static <E extends Enum<E>> E find(E[] constants, String value, boolean ignoreInnerWhitespace) {
+        int start = 0;
+        int end = value.length();
+        while (start < end && value.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && value.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        for (E constant : constants) {
+            if (matches(constant.name(), value, start, end, ignoreInnerWhitespace)) {
+                return constant;
+            }
+        }
+        return null;
+    }
+
+    private static boolean matches(String name, String value, int start, int end, boolean ignoreInnerWhitespace) {
+        if (!ignoreInnerWhitespace) {
+            return end - start == name.length() && value.regionMatches(true, start, name, 0, name.length());
+        }
+        int matched = 0;
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r') {
+                continue;
+            }
+            if (matched == name.length() || !value.regionMatches(true, i, name, matched, 1)) {
+                return false;
+            }
+            matched++;
+        }
+        return matched == name.length();
+    }
+}
@@ -7,17 +7,30 @@ import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
 
 @Entity
-@Table(name = "properties")
+// The listing indexes end in the id so a filtered page is a range scan in keyset order. The full-text
+// search column and the GIN indexes are PostgreSQL's own, see schema-postgresql.sql
+@Table(name = "properties", indexes = {
+        @Index(name = "uk_properties_natural_key", columnList = "natural_key", unique = true),
+        @Index(name = "idx_properties_status_id", columnList = "status, property_id"),
+        @Index(name = "idx_properties_host_id_id", columnList = "host_id, property_id"),
+        @Index(name = "idx_properties_city_id", columnList = "city, property_id"),
+        @Index(name = "idx_properties_upload_id_id", columnList = "upload_id, property_id"),
+        @Index(name = "idx_properties_geohash", columnList = "geohash"),
+        @Index(name = "idx_properties_type_price", columnList = "property_type, base_price"),
+        @Index(name = "idx_properties_currency_price", columnList = "currency, base_price")})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Property {
 
+    // Pooled sequence ids let Hibernate batch inserts; IDENTITY forces one round trip per row
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "property_seq")
+    @SequenceGenerator(name = "property_seq", sequenceName = "properties_seq", allocationSize = 50)
     private Long propertyId;
 
     @Column(length = 150)
@@ -47,6 +60,10 @@ public class Property {
     private Double latitude;
     private Double longitude;
 
+    // Geohash of latitude/longitude, see Geohash; nearby searches range-scan its index
+    @Column(length = 12)
+    private String geohash;
+
     @Column(name = "host_id")
     private Long hostId;
 
@@ -80,4 +97,16 @@ public class Property {
 
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
+
+    // Set by PropertyBatchWriter in upsert mode only, so inserted rows never collide on it
+    @Column(name = "natural_key", length = 1000)
+    private String naturalKey;
+
+    // The upload that last wrote the row
+    @Column(name = "upload_id")
+    private UUID uploadId;
+
+    // SHA-256 of the row's content, see ContentHashes; upsert compares it instead of the fields
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
 }
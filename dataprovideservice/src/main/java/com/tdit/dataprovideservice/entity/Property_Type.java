@@ -1,7 +1,5 @@
 package com.tdit.dataprovideservice.entity;
 
-import java.util.Arrays;
-
 public enum Property_Type {
     Apartment,
     Villa,
@@ -9,15 +7,16 @@ public enum Property_Type {
     Hotel,
     Hostel;
 
+    // values() copies the array on every call
+    private static final Property_Type[] VALUES = values();
+
+    /**
+     * Case-insensitive, ignoring spaces anywhere in the value, e.g. {@code " p g "} is {@link #PG}.
+     */
     public static Property_Type fromString(String value) {
         if (value == null) {
             return null;
         }
-        // Trim + remove multiple/hidden spaces
-        String cleanValue = value.trim().replaceAll("\\s+", "");
-        return Arrays.stream(Property_Type.values())
-                .filter(e -> e.name().equalsIgnoreCase(cleanValue))
-                .findFirst()
-                .orElse(null);
+        return EnumNames.find(VALUES, value, true);
     }
 }
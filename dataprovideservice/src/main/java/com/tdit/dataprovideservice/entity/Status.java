@@ -1,19 +1,18 @@
 package com.tdit.dataprovideservice.entity;
 
-import java.util.Arrays;
-
 public enum Status {
     REJECTED,
     APPROVED;
 
+    private static final Status[] VALUES = values();
+
+    /**
+     * Case-insensitive, ignoring leading and trailing spaces.
+     */
     public static Status fromString(String value) {
         if (value == null) {
             return null;
         }
-        String clean = value.trim();
-        return Arrays.stream(Status.values())
-                .filter(s -> s.name().equalsIgnoreCase(clean))
-                .findFirst()
-                .orElse(null);
+        return EnumNames.find(VALUES, value, false);
     }
 }
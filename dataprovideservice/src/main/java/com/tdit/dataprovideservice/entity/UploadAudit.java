@@ -2,15 +2,13 @@ package com.tdit.dataprovideservice.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
-import org.hibernate.annotations.JdbcTypeCode;
-import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
-import java.util.Map;
+import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "upload_audit")
+@Table(name = "upload_audit", indexes = @Index(name = "idx_upload_audit_uploaded_by_timestamp", columnList = "uploadedBy, timestamp"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -28,19 +26,30 @@ public class UploadAudit {
     @Enumerated(EnumType.STRING)
     private UploadStatus status;
 
-    @JdbcTypeCode(SqlTypes.JSON)
-    @Column(columnDefinition = "jsonb")
-    private Map<Integer, RowResult> rowResults;
-
     private Integer totalRows;
     private Integer successRows;
     private Integer failedRows;
     private Integer warningRows;
+    /** Successful rows that matched a stored property field for field, so nothing was written; upsert mode only. */
+    private Integer unchangedRows;
+
+    /** SHA-256 of the uploaded file; the same file sent again next is answered from this upload. */
+    @Column(length = 64)
+    private String contentHash;
+
+    /** The completed upload of the same file this one was answered from, without processing it again. */
+    private UUID duplicateOf;
+
+    /** Data rows committed over all sheets; where each sheet resumes is kept in {@link UploadSheetCheckpoint}. */
+    private Integer committedRows;
 
     public enum UploadStatus {
         PROCESSING, COMPLETED, FAILED
     }
 
+    /**
+     * Outcome of a single row as produced by validation; persisted as {@link UploadRowResult}.
+     */
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -49,6 +58,10 @@ public class UploadAudit {
         private boolean success;
         private String errorMessage;
         private String warningMessage;
+        private Integer sheetIndex;
+        private String sheetName;
         private Integer rowNumber;
+        /** The row's cells in template order; kept for FAILED and WARNING rows only. */
+        private List<String> values;
     }
 }
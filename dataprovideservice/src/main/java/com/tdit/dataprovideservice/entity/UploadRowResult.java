@@ -0,0 +1,86 @@
+package com.tdit.dataprovideservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Outcome of one data row of an upload. Written in batches together with the chunk it belongs to,
+ * so the rows of a committed chunk always have their results.
+ */
+@Entity
+@Table(name = "upload_row_results",
+        indexes = @Index(name = "idx_upload_row_results_upload_outcome_sheet_row",
+                columnList = "uploadId, outcome, sheetIndex, rowNumber"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UploadRowResult {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "upload_row_result_seq")
+    @SequenceGenerator(name = "upload_row_result_seq", sequenceName = "upload_row_results_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private UUID uploadId;
+
+    @Column(nullable = false)
+    private Integer sheetIndex;
+
+    private String sheetName;
+
+    /** Row number as shown in Excel within its sheet; the header is row 1. */
+    @Column(nullable = false)
+    private Integer rowNumber;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Outcome outcome;
+
+    @Column(columnDefinition = "text")
+    private String errorMessage;
+
+    @Column(columnDefinition = "text")
+    private String warningMessage;
+
+    /** The row's cells in template order, for FAILED and WARNING rows; the error report echoes them. */
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
+    private List<String> rowValues;
+
+    public enum Outcome {
+        SUCCESS, WARNING, FAILED
+    }
+
+    public static UploadRowResult from(UUID uploadId, UploadAudit.RowResult rowResult) {
+        return UploadRowResult.builder()
+                .uploadId(uploadId)
+                .sheetIndex(rowResult.getSheetIndex())
+                .sheetName(rowResult.getSheetName())
+                .rowNumber(rowResult.getRowNumber())
+                .outcome(!rowResult.isSuccess() ? Outcome.FAILED
+                        : rowResult.getWarningMessage() != null ? Outcome.WARNING : Outcome.SUCCESS)
+                .errorMessage(rowResult.getErrorMessage())
+                .warningMessage(rowResult.getWarningMessage())
+                .rowValues(rowResult.getValues())
+                .build();
+    }
+
+    public UploadAudit.RowResult toRowResult() {
+        return UploadAudit.RowResult.builder()
+                .success(outcome != Outcome.FAILED)
+                .errorMessage(errorMessage)
+                .warningMessage(warningMessage)
+                .sheetIndex(sheetIndex)
+                .sheetName(sheetName)
+                .rowNumber(rowNumber)
+                .values(rowValues)
+                .build();
+    }
+}
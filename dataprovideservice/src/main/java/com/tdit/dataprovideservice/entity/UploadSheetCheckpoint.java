@@ -0,0 +1,40 @@
+package com.tdit.dataprovideservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * How far an upload got in one sheet of its workbook: the first {@code committedRows} data rows of the
+ * sheet are persisted. Updated in the transaction of every chunk with rows of that sheet.
+ */
+@Entity
+@Table(name = "upload_sheet_checkpoints")
+@IdClass(UploadSheetCheckpoint.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UploadSheetCheckpoint {
+
+    @Id
+    private UUID uploadId;
+
+    /** Zero-based position of the sheet in the workbook. */
+    @Id
+    private Integer sheetIndex;
+
+    private String sheetName;
+
+    private Integer committedRows;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private UUID uploadId;
+        private Integer sheetIndex;
+    }
+}
@@ -0,0 +1,20 @@
+package com.tdit.dataprovideservice.reader;
+
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Formatting rules shared by the DOM and the streaming reader so both produce identical strings.
+ */
+public final class CellValueFormatter {
+
+    public static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private CellValueFormatter() {}
+
+    public static String formatNumeric(double numericValue) {
+        if (numericValue == Math.floor(numericValue)) {
+            return String.valueOf((long) numericValue);
+        }
+        return String.valueOf(numericValue);
+    }
+}
@@ -0,0 +1,119 @@
+package com.tdit.dataprovideservice.reader;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.tdit.dataprovideservice.entity.Constants.ERROR_MISSING_COLUMNS;
+import static com.tdit.dataprovideservice.entity.Constants.ERROR_UNKNOWN_COLUMN;
+
+/**
+ * Matches the column names a file brings (header rows, NDJSON keys) to the template columns, by the
+ * template name or one of its aliases. Names are compared case-insensitively and ignoring everything
+ * but letters and digits, so {@code Property_ID}, {@code property id} and {@code propertyId} are the
+ * same column.
+ * <p>
+ * Readers {@link #compile} each header row once into a flat array from source column to template
+ * index, and skip the cells of columns that map nowhere.
+ */
+public final class ColumnMapping {
+
+    private final List<String> columnNames;
+    private final Map<String, Integer> columnsByName = new HashMap<>();
+    private final boolean[] required;
+
+    /**
+     * @param aliases  further names per template column
+     * @param optional template columns a header may leave out
+     * @throws IllegalStateException when {@code aliases} or {@code optional} name a column that does not exist
+     */
+    public ColumnMapping(List<String> columnNames, Map<String, ? extends Collection<String>> aliases,
+                         Collection<String> optional) {
+        this.columnNames = List.copyOf(columnNames);
+        this.required = new boolean[columnNames.size()];
+        Arrays.fill(required, true);
+        for (int i = 0; i < columnNames.size(); i++) {
+            columnsByName.put(normalize(columnNames.get(i)), i);
+        }
+
+        aliases.forEach((column, names) -> {
+            int index = templateIndex(column);
+            names.forEach(name -> columnsByName.putIfAbsent(normalize(name), index));
+        });
+        optional.forEach(column -> required[templateIndex(column)] = false);
+    }
+
+    private int templateIndex(String column) {
+        Integer index = columnsByName.get(normalize(column));
+        if (index == null || !normalize(columnNames.get(index)).equals(normalize(column))) {
+            throw new IllegalStateException(ERROR_UNKNOWN_COLUMN + column);
+        }
+        return index;
+    }
+
+    public int columnCount() {
+        return columnNames.size();
+    }
+
+    /**
+     * Template index of the column called {@code name}, or -1 when there is no such column.
+     */
+    public int indexOf(String name) {
+        if (name == null) {
+            return -1;
+        }
+        return columnsByName.getOrDefault(normalize(name), -1);
+    }
+
+    /**
+     * Template index for every position of a header row; -1 for unknown columns and for repeats of a column.
+     * A header that names none of the template columns is read as the template itself, column by column,
+     * like files were read before headers were looked at.
+     *
+     * @throws IllegalStateException when the header lacks a required column
+     */
+    public int[] compile(List<String> header, String sheetName) {
+        int[] indexes = new int[header.size()];
+        boolean[] seen = new boolean[columnNames.size()];
+        Arrays.fill(indexes, -1);
+        boolean matched = false;
+        for (int i = 0; i < indexes.length; i++) {
+            int index = indexOf(header.get(i));
+            if (index >= 0 && !seen[index]) {
+                seen[index] = true;
+                indexes[i] = index;
+                matched = true;
+            }
+        }
+        if (!matched) {
+            int[] positional = new int[columnNames.size()];
+            Arrays.setAll(positional, i -> i);
+            return positional;
+        }
+
+        List<String> missing = new ArrayList<>();
+        for (int i = 0; i < seen.length; i++) {
+            if (required[i] && !seen[i]) {
+                missing.add(columnNames.get(i));
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException(String.format(ERROR_MISSING_COLUMNS, sheetName, String.join(", ", missing)));
+        }
+        return indexes;
+    }
+
+    static String normalize(String name) {
+        StringBuilder normalized = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(Character.toLowerCase(c));
+            }
+        }
+        return normalized.toString();
+    }
+}
@@ -0,0 +1,164 @@
+package com.tdit.dataprovideservice.reader;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * RFC 4180 record reader that scans its own char buffer. A field becomes a String only when the caller
+ * wants it, cut straight from the buffer; characters are only copied when a field straddles a buffer
+ * refill or contains escaped quotes. Values are trimmed and empty ones are null, as the xlsx readers
+ * return them. Quoted fields may hold delimiters and line breaks; an unterminated quote runs to the end
+ * of the input.
+ */
+final class CsvRecordReader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final char QUOTE = '"';
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+    private final Reader in;
+    private final char delimiter;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    // Holds the part of a field read before a refill, or the unescaped text of a quoted field
+    private final StringBuilder spill = new StringBuilder();
+    private int position;
+    private int limit;
+    private boolean started;
+    private boolean eof;
+
+    /**
+     * Receives the fields of a record. Fields it does not want are skipped without being copied.
+     */
+    interface FieldTarget {
+
+        boolean wants(int column);
+
+        void accept(int column, String value);
+    }
+
+    CsvRecordReader(Reader in, char delimiter) {
+        this.in = in;
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * Reads the next record; false at the end of the input.
+     */
+    boolean next(FieldTarget target) throws IOException {
+        if (!ensure()) {
+            return false;
+        }
+        for (int column = 0; ; column++) {
+            boolean wanted = target.wants(column);
+            String value = ensure() && buffer[position] == QUOTE ? readQuoted(wanted) : readPlain(wanted);
+            if (wanted) {
+                target.accept(column, value);
+            }
+            if (!ensure()) {
+                return true;
+            }
+            char c = buffer[position++];
+            if (c != delimiter) {
+                // CR, LF or CRLF ends the record
+                if (c == '\r' && ensure() && buffer[position] == '\n') {
+                    position++;
+                }
+                return true;
+            }
+        }
+    }
+
+    private String readPlain(boolean wanted) throws IOException {
+        int start = position;
+        while (true) {
+            while (position < limit) {
+                char c = buffer[position];
+                if (c == delimiter || c == '\r' || c == '\n') {
+                    return wanted ? value(start, position) : null;
+                }
+                position++;
+            }
+            if (wanted) {
+                spill.append(buffer, start, position - start);
+            }
+            if (!fill()) {
+                return wanted ? value(position, position) : null;
+            }
+            start = position;
+        }
+    }
+
+    private String readQuoted(boolean wanted) throws IOException {
+        int start = ++position;
+        while (true) {
+            while (position < limit) {
+                if (buffer[position] != QUOTE) {
+                    position++;
+                    continue;
+                }
+                if (wanted) {
+                    spill.append(buffer, start, position - start);
+                }
+                position++;
+                if (!ensure() || buffer[position] != QUOTE) {
+                    // Closing quote; anything after it up to the delimiter is kept as typed
+                    return readPlain(wanted);
+                }
+                // Escaped quote: the second one starts the next run of text
+                start = position++;
+            }
+            if (wanted) {
+                spill.append(buffer, start, position - start);
+            }
+            if (!fill()) {
+                return wanted ? value(position, position) : null;
+            }
+            start = position;
+        }
+    }
+
+    private String value(int start, int end) {
+        if (spill.isEmpty()) {
+            while (start < end && buffer[start] <= ' ') {
+                start++;
+            }
+            while (end > start && buffer[end - 1] <= ' ') {
+                end--;
+            }
+            return start < end ? new String(buffer, start, end - start) : null;
+        }
+        spill.append(buffer, start, end - start);
+        String value = spill.toString().trim();
+        spill.setLength(0);
+        return value.isEmpty() ? null : value;
+    }
+
+    private boolean ensure() throws IOException {
+        return position < limit || fill();
+    }
+
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+        int read;
+        do {
+            read = in.read(buffer, 0, buffer.length);
+        } while (read == 0);
+        if (read < 0) {
+            eof = true;
+            return false;
+        }
+        position = 0;
+        limit = read;
+        if (!started) {
+            started = true;
+            // Excel writes "CSV UTF-8" with a byte order mark
+            if (buffer[0] == BYTE_ORDER_MARK) {
+                position = 1;
+                return ensure();
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,95 @@
+package com.tdit.dataprovideservice.reader;
+
+import com.tdit.dataprovideservice.config.ExcelProcessingProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads UTF-8 CSV files. The first record is the header, compiled into a column mapping (see
+ * {@link ColumnMapping}); columns that are not in the template are skipped without being decoded. A CSV file is read as a single
+ * sheet; row numbers count records, the header being row 1, so they match the file opened in Excel.
+ */
+@Component
+@RequiredArgsConstructor
+public class CsvRowSource implements RowSource {
+
+    private final ExcelProcessingProperties properties;
+
+    @Override
+    public UploadFormat format() {
+        return UploadFormat.CSV;
+    }
+
+    @Override
+    public void read(InputStreamSource source, ColumnMapping columns, SheetRowHandler.Factory handlers)
+            throws IOException {
+        SheetRowHandler handler = handlers.forSheet(0, UploadFormat.CSV.name());
+        try (Reader in = new InputStreamReader(source.getInputStream(), StandardCharsets.UTF_8)) {
+            CsvRecordReader reader = new CsvRecordReader(in, properties.getCsv().getDelimiter());
+
+            List<String> header = new ArrayList<>();
+            if (!reader.next(new CsvRecordReader.FieldTarget() {
+                @Override
+                public boolean wants(int column) {
+                    return true;
+                }
+
+                @Override
+                public void accept(int column, String value) {
+                    header.add(value);
+                }
+            })) {
+                return;
+            }
+
+            RowTarget row = new RowTarget(columns.compile(header, UploadFormat.CSV.name()), columns.columnCount());
+            for (int rowIndex = 1; reader.next(row.reset()); rowIndex++) {
+                // Blank lines and rows only filled in columns we do not read
+                if (row.hasValues) {
+                    handler.handleRow(rowIndex, row.values);
+                }
+            }
+        } finally {
+            handler.sheetFinished();
+        }
+    }
+
+    private static final class RowTarget implements CsvRecordReader.FieldTarget {
+
+        private final int[] indexes;
+        private final int columnCount;
+        private String[] values;
+        private boolean hasValues;
+
+        RowTarget(int[] indexes, int columnCount) {
+            this.indexes = indexes;
+            this.columnCount = columnCount;
+        }
+
+        RowTarget reset() {
+            // Handlers may keep the array, so every row gets its own
+            values = new String[columnCount];
+            hasValues = false;
+            return this;
+        }
+
+        @Override
+        public boolean wants(int column) {
+            return column < indexes.length && indexes[column] >= 0;
+        }
+
+        @Override
+        public void accept(int column, String value) {
+            values[indexes[column]] = value;
+            hasValues |= value != null;
+        }
+    }
+}
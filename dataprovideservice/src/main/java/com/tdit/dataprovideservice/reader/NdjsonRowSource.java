@@ -0,0 +1,103 @@
+package com.tdit.dataprovideservice.reader;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Reads newline-delimited JSON: one object per line, keyed by column name (see {@link ColumnMapping}).
+ * Objects are pulled off a single streaming parser, never bound to a tree. Arrays of scalars are joined
+ * with commas, which is how the amenities column lists them; keys outside the template are skipped.
+ * The file is read as a single sheet and a row's number is the line its object starts on.
+ */
+@Component
+@RequiredArgsConstructor
+public class NdjsonRowSource implements RowSource {
+
+    // Keys repeat on every line, so each is matched once; the cap guards against files with endless distinct keys
+    private static final int MAX_CACHED_KEYS = 1000;
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public UploadFormat format() {
+        return UploadFormat.NDJSON;
+    }
+
+    @Override
+    public void read(InputStreamSource source, ColumnMapping columns, SheetRowHandler.Factory handlers)
+            throws IOException {
+        SheetRowHandler handler = handlers.forSheet(0, UploadFormat.NDJSON.name());
+        Map<String, Integer> keyIndexes = new HashMap<>();
+        try (JsonParser parser = objectMapper.getFactory().createParser(source.getInputStream())) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                int lineNumber = parser.currentTokenLocation().getLineNr();
+                if (token != JsonToken.START_OBJECT) {
+                    throw new IOException("Line " + lineNumber + " is not a JSON object");
+                }
+
+                String[] values = new String[columns.columnCount()];
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String key = parser.currentName();
+                    Integer index = keyIndexes.get(key);
+                    if (index == null) {
+                        index = columns.indexOf(key);
+                        if (keyIndexes.size() < MAX_CACHED_KEYS) {
+                            keyIndexes.put(key, index);
+                        }
+                    }
+
+                    JsonToken value = parser.nextToken();
+                    if (index < 0) {
+                        parser.skipChildren();
+                    } else {
+                        values[index] = text(parser, value);
+                    }
+                }
+                handler.handleRow(lineNumber - 1, values);
+            }
+        } finally {
+            handler.sheetFinished();
+        }
+    }
+
+    private static String text(JsonParser parser, JsonToken token) throws IOException {
+        return switch (token) {
+            case VALUE_STRING -> {
+                String text = parser.getText().trim();
+                yield text.isEmpty() ? null : text;
+            }
+            // Same text as a numeric cell of the xlsx template, e.g. 1500.0 -> "1500"
+            case VALUE_NUMBER_FLOAT -> CellValueFormatter.formatNumeric(parser.getDoubleValue());
+            case VALUE_NUMBER_INT, VALUE_TRUE, VALUE_FALSE -> parser.getText();
+            case START_ARRAY -> {
+                StringJoiner joined = new StringJoiner(", ");
+                JsonToken element;
+                while ((element = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    if (element.isScalarValue()) {
+                        String text = text(parser, element);
+                        if (text != null) {
+                            joined.add(text);
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                yield joined.length() > 0 ? joined.toString() : null;
+            }
+            default -> {
+                parser.skipChildren();
+                yield null;
+            }
+        };
+    }
+}
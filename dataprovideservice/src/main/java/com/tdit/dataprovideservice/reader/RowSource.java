@@ -0,0 +1,20 @@
+package com.tdit.dataprovideservice.reader;
+
+import org.springframework.core.io.InputStreamSource;
+
+import java.io.IOException;
+
+/**
+ * Reads the data rows of one upload format. Every format hands its rows over as the values of the
+ * template columns, in template order, so validation, conversion and persistence do not depend on it.
+ */
+public interface RowSource {
+
+    UploadFormat format();
+
+    /**
+     * Reads every data row of {@code source}; {@code values} passed to the handlers are indexed like the
+     * template columns of {@code columns}, with null for columns the file does not have.
+     */
+    void read(InputStreamSource source, ColumnMapping columns, SheetRowHandler.Factory handlers) throws IOException;
+}
@@ -0,0 +1,36 @@
+package com.tdit.dataprovideservice.reader;
+
+import org.apache.poi.xssf.model.SharedStrings;
+
+/**
+ * Decoded, trimmed shared strings of a workbook. {@link SharedStrings#getItemAt} wraps the string in a new rich text
+ * object on every call, an XMLBeans tree that is thrown away straight after; repeated values of a column (city,
+ * currency, status) are decoded once here and handed out as the same String.
+ * <p>
+ * Direct-mapped by index, so it stays small for workbooks with millions of unique strings. Shared by the sheets
+ * read in parallel without locking: entries are immutable and a lost write only means decoding again.
+ */
+final class SharedStringCache {
+
+    private static final int SLOTS = 8192;
+
+    private final SharedStrings sharedStrings;
+    private final Entry[] entries = new Entry[SLOTS];
+
+    SharedStringCache(SharedStrings sharedStrings) {
+        this.sharedStrings = sharedStrings;
+    }
+
+    String get(int index) {
+        int slot = index & (SLOTS - 1);
+        Entry entry = entries[slot];
+        if (entry != null && entry.index == index) {
+            return entry.value;
+        }
+        String value = sharedStrings.getItemAt(index).getString().trim();
+        entries[slot] = new Entry(index, value);
+        return value;
+    }
+
+    private record Entry(int index, String value) {}
+}
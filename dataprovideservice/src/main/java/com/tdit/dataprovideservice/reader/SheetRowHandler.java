@@ -0,0 +1,36 @@
+package com.tdit.dataprovideservice.reader;
+
+/**
+ * Receives the raw cell values of one data row (the header row is never passed on).
+ * {@code rowIndex} is zero-based, as in {@link org.apache.poi.ss.usermodel.Sheet#getRow(int)}.
+ * <p>
+ * A handler belongs to one sheet and is only called from the thread reading that sheet.
+ */
+@FunctionalInterface
+public interface SheetRowHandler {
+
+    /**
+     * @param values null when the row's cells could not be read
+     */
+    void handleRow(int rowIndex, String[] values);
+
+    /**
+     * Called before the rows of a sheet with the number of data rows it declares, when known.
+     */
+    default void sheetStarted(int estimatedRows) {
+    }
+
+    /**
+     * Called after the last row of the sheet, also when reading it failed.
+     */
+    default void sheetFinished() {
+    }
+
+    /**
+     * Creates the handler of each sheet, on the thread that is about to read it.
+     */
+    @FunctionalInterface
+    interface Factory {
+        SheetRowHandler forSheet(int sheetIndex, String sheetName);
+    }
+}
@@ -0,0 +1,246 @@
+package com.tdit.dataprovideservice.reader;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static com.tdit.dataprovideservice.entity.Constants.ERROR_PROCESSING_ROW;
+
+/**
+ * SAX handler for one worksheet part. Cells are decoded with the same rules as
+ * {@code ExcelProcessorService#getCellValue} and each row is handed off as soon as
+ * its closing tag is seen, so memory use does not grow with the sheet.
+ * <p>
+ * The header row is compiled into a column mapping before the first data row; cells of
+ * columns that map to no template column are skipped without being decoded.
+ * <p>
+ * Whole numbers not formatted as dates are passed on as the text of the cell, which already has the form
+ * {@link CellValueFormatter#formatNumeric} would give them, instead of being parsed and formatted again.
+ * A data row with a cell that cannot be decoded is logged and passed on as null; the sheet reads on.
+ */
+@Slf4j
+class StreamingSheetHandler extends DefaultHandler {
+
+    private static final byte DATE_STYLE = 1;
+    private static final byte OTHER_STYLE = 2;
+
+    private final SharedStringCache sharedStrings;
+    private final StylesTable styles;
+    private final ColumnMapping columns;
+    private final String sheetName;
+    private final SheetRowHandler rowHandler;
+
+    private final StringBuilder text = new StringBuilder();
+    // Per cell style: 0 not looked up yet, DATE_STYLE or OTHER_STYLE
+    private final byte[] styleKinds;
+
+    private String[] header = new String[0];
+    private int[] mapping;
+    private String[] values;
+    private int rowIndex = -1;
+    private int column = -1;
+    private boolean rowFailed;
+    private boolean wanted;
+    private String cellType;
+    private int styleIndex;
+    private boolean hasFormula;
+    private boolean hasValue;
+    private boolean inValue;
+    private boolean inInlineString;
+
+    StreamingSheetHandler(SharedStringCache sharedStrings, StylesTable styles, ColumnMapping columns, String sheetName,
+                          SheetRowHandler rowHandler) {
+        this.sharedStrings = sharedStrings;
+        this.styles = styles;
+        this.styleKinds = new byte[styles != null ? styles.getNumCellStyles() : 0];
+        this.columns = columns;
+        this.sheetName = sheetName;
+        this.rowHandler = rowHandler;
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) {
+        switch (localName) {
+            case "dimension" -> {
+                // e.g. ref="A1:V1001": the last row number minus the header row
+                String ref = attributes.getValue("ref");
+                int separator = ref != null ? ref.indexOf(':') : -1;
+                if (separator > 0) {
+                    rowHandler.sheetStarted(rowNumber(ref.substring(separator + 1)) - 1);
+                }
+            }
+            case "row" -> {
+                String ref = attributes.getValue("r");
+                rowIndex = ref != null ? Integer.parseInt(ref) - 1 : rowIndex + 1;
+                if (rowIndex > 0 && mapping == null) {
+                    // No header row at the top of the sheet: read it as the template
+                    mapping = columns.compile(List.of(), sheetName);
+                }
+                values = rowIndex > 0 ? new String[columns.columnCount()] : null;
+                column = -1;
+                rowFailed = false;
+            }
+            case "c" -> {
+                String ref = attributes.getValue("r");
+                column = ref != null ? columnIndex(ref) : column + 1;
+                wanted = column >= 0 && (rowIndex == 0 || column < mapping.length && mapping[column] >= 0);
+                if (!wanted) {
+                    return;
+                }
+                cellType = attributes.getValue("t");
+                String style = attributes.getValue("s");
+                styleIndex = style != null ? Integer.parseInt(style) : 0;
+                hasFormula = false;
+                hasValue = false;
+                text.setLength(0);
+            }
+            case "f" -> hasFormula = true;
+            case "v" -> {
+                inValue = wanted;
+                text.setLength(0);
+            }
+            case "is" -> inInlineString = true;
+            case "t" -> inValue = inInlineString && wanted;
+            default -> {
+            }
+        }
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) {
+        switch (localName) {
+            case "v", "t" -> {
+                if (inValue) {
+                    hasValue = true;
+                }
+                inValue = false;
+            }
+            case "is" -> inInlineString = false;
+            case "c" -> {
+                if (!wanted) {
+                    return;
+                }
+                if (rowIndex == 0) {
+                    if (column >= header.length) {
+                        header = Arrays.copyOf(header, column + 1);
+                    }
+                    header[column] = cellValue();
+                } else if (!rowFailed) {
+                    try {
+                        values[mapping[column]] = cellValue();
+                    } catch (RuntimeException e) {
+                        log.error(ERROR_PROCESSING_ROW, rowIndex + 1, e.getMessage(), e);
+                        rowFailed = true;
+                    }
+                }
+            }
+            case "row" -> {
+                // Row 0 is the header row, matching the DOM reader which starts at index 1
+                if (rowIndex == 0) {
+                    mapping = columns.compile(Arrays.asList(header), sheetName);
+                } else if (rowIndex > 0) {
+                    rowHandler.handleRow(rowIndex, rowFailed ? null : values);
+                }
+                values = null;
+            }
+            default -> {
+            }
+        }
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) {
+        if (inValue) {
+            text.append(ch, start, length);
+        }
+    }
+
+    private String cellValue() {
+        if (!hasValue) {
+            return "";
+        }
+        if (cellType == null || "n".equals(cellType)) {
+            boolean dateStyle = !hasFormula && isDateStyle();
+            if (!dateStyle && isWholeNumber(text)) {
+                return text.toString();
+            }
+            double numericValue = Double.parseDouble(text.toString());
+            if (dateStyle && DateUtil.isValidExcelDate(numericValue)) {
+                return DateUtil.getLocalDateTime(numericValue).format(CellValueFormatter.DATE_FORMATTER);
+            }
+            return CellValueFormatter.formatNumeric(numericValue);
+        }
+        return switch (cellType) {
+            case "s" -> sharedStrings.get(Integer.parseInt(text, 0, text.length(), 10));
+            case "inlineStr", "str" -> text.toString().trim();
+            case "b" -> String.valueOf(text.length() == 1 && text.charAt(0) == '1');
+            default -> "";
+        };
+    }
+
+    private boolean isDateStyle() {
+        if (styles == null) {
+            return false;
+        }
+        if (styleIndex < styleKinds.length && styleKinds[styleIndex] != 0) {
+            return styleKinds[styleIndex] == DATE_STYLE;
+        }
+        XSSFCellStyle style = styles.getStyleAt(styleIndex);
+        boolean date = style != null && DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString());
+        if (styleIndex < styleKinds.length) {
+            styleKinds[styleIndex] = date ? DATE_STYLE : OTHER_STYLE;
+        }
+        return date;
+    }
+
+    /**
+     * An optional minus and 1 to 15 digits without a leading zero: exact as a double, and written the same way
+     * by {@link CellValueFormatter#formatNumeric}.
+     */
+    static boolean isWholeNumber(CharSequence value) {
+        int start = value.length() > 0 && value.charAt(0) == '-' ? 1 : 0;
+        int digits = value.length() - start;
+        if (digits < 1 || digits > 15 || (value.charAt(start) == '0' && (digits > 1 || start == 1))) {
+            return false;
+        }
+        for (int i = start; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * One-based row number of an A1-style reference, e.g. {@code "C12"} -> 12.
+     */
+    static int rowNumber(String ref) {
+        int i = 0;
+        while (i < ref.length() && !Character.isDigit(ref.charAt(i))) {
+            i++;
+        }
+        return i < ref.length() ? Integer.parseInt(ref.substring(i)) : 0;
+    }
+
+    /**
+     * Column index of an A1-style reference, e.g. {@code "C12"} -> 2, without allocating a CellReference.
+     */
+    static int columnIndex(String ref) {
+        int col = 0;
+        for (int i = 0; i < ref.length(); i++) {
+            char c = ref.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                break;
+            }
+            col = col * 26 + (c - 'A' + 1);
+        }
+        return col - 1;
+    }
+}
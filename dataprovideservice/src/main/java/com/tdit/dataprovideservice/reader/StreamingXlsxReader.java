@@ -0,0 +1,191 @@
+package com.tdit.dataprovideservice.reader;
+
+import com.tdit.dataprovideservice.config.ExcelProcessingProperties;
+import com.tdit.dataprovideservice.config.UploadExecutorConfig;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reads .xlsx workbooks through POI's event model ({@link XSSFReader}). Only the shared strings
+ * and styles tables are held in memory; sheet XML is parsed with SAX one row at a time.
+ * <p>
+ * Sheets are independent, so up to {@code sheet-parallelism} of them are read at the same time on
+ * {@code uploadSheetExecutor}, each from its own stream of the package. Rows of one sheet are still
+ * delivered in order, on one thread.
+ * <p>
+ * Prefer {@link #read(File, ColumnMapping, SheetRowHandler.Factory)} when the workbook is on disk: a zip read from a
+ * stream has every entry inflated onto the heap first, and POI refuses entries over 100MB (a sheet of
+ * roughly 80k rows), while a file is read through its central directory one entry at a time.
+ */
+@Component
+public class StreamingXlsxReader {
+
+    private final AsyncTaskExecutor sheetExecutor;
+    private final ExcelProcessingProperties properties;
+
+    public StreamingXlsxReader(@Qualifier(UploadExecutorConfig.SHEET_EXECUTOR) AsyncTaskExecutor sheetExecutor,
+                               ExcelProcessingProperties properties) {
+        this.sheetExecutor = sheetExecutor;
+        this.properties = properties;
+    }
+
+    public void read(InputStream in, ColumnMapping columns, SheetRowHandler.Factory handlers) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(in)) {
+            read(pkg, columns, handlers);
+        } catch (OpenXML4JException e) {
+            throw new IOException("Unable to read workbook: " + e.getMessage(), e);
+        }
+    }
+
+    public void read(File file, ColumnMapping columns, SheetRowHandler.Factory handlers) throws IOException {
+        OPCPackage pkg = openReadOnly(file);
+        try {
+            read(pkg, columns, handlers);
+        } finally {
+            pkg.revert();
+        }
+    }
+
+    /**
+     * Release with {@link OPCPackage#revert()}: {@code close()} is meant for saving and warns on read-only packages.
+     */
+    public static OPCPackage openReadOnly(File file) throws IOException {
+        try {
+            return OPCPackage.open(file, PackageAccess.READ);
+        } catch (InvalidFormatException e) {
+            throw new IOException("Unable to read workbook: " + e.getMessage(), e);
+        }
+    }
+
+    private void read(OPCPackage pkg, ColumnMapping columns, SheetRowHandler.Factory handlers) throws IOException {
+        SharedStringCache sharedStrings;
+        StylesTable styles;
+        List<SheetPart> sheets = new ArrayList<>();
+        try {
+            XSSFReader reader = new XSSFReader(pkg);
+            sharedStrings = new SharedStringCache(new ReadOnlySharedStringsTable(pkg));
+            styles = reader.getStylesTable();
+
+            XSSFReader.SheetIterator iterator = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (iterator.hasNext()) {
+                // Only the part is kept; every sheet opens its own stream when it is read
+                iterator.next().close();
+                sheets.add(new SheetPart(sheets.size(), iterator.getSheetName(), iterator.getSheetPart()));
+            }
+        } catch (OpenXML4JException | SAXException e) {
+            throw new IOException("Unable to read workbook: " + e.getMessage(), e);
+        }
+
+        int parallelism = Math.min(Math.max(1, properties.getPipeline().getSheetParallelism()), sheets.size());
+        if (parallelism <= 1) {
+            for (SheetPart sheet : sheets) {
+                readSheet(sheet, sharedStrings, styles, columns, handlers);
+            }
+        } else {
+            readConcurrently(sheets, parallelism, sharedStrings, styles, columns, handlers);
+        }
+    }
+
+    private void readConcurrently(List<SheetPart> sheets, int parallelism, SharedStringCache sharedStrings,
+                                  StylesTable styles, ColumnMapping columns, SheetRowHandler.Factory handlers)
+            throws IOException {
+        Semaphore slots = new Semaphore(parallelism);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Future<?>> tasks = Collections.synchronizedList(new ArrayList<>(sheets.size()));
+
+        try {
+            for (SheetPart sheet : sheets) {
+                slots.acquire();
+                if (failure.get() != null) {
+                    break;
+                }
+                tasks.add(sheetExecutor.submit(() -> {
+                    try {
+                        readSheet(sheet, sharedStrings, styles, columns, handlers);
+                    } catch (Throwable e) {
+                        if (failure.compareAndSet(null, e)) {
+                            cancelAll(tasks);
+                        }
+                    } finally {
+                        slots.release();
+                    }
+                }));
+            }
+            for (Future<?> task : new ArrayList<>(tasks)) {
+                try {
+                    task.get();
+                } catch (CancellationException e) {
+                    // Cancelled because another sheet failed; that failure is reported below
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelAll(tasks);
+            throw new CancellationException("Workbook reading cancelled");
+        } catch (ExecutionException e) {
+            failure.compareAndSet(null, e.getCause());
+        }
+
+        Throwable error = failure.get();
+        if (error instanceof IOException ioException) {
+            throw ioException;
+        }
+        if (error instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (error instanceof Error fatal) {
+            throw fatal;
+        }
+        if (error != null) {
+            throw new IOException("Unable to read workbook: " + error.getMessage(), error);
+        }
+    }
+
+    private static void cancelAll(List<Future<?>> tasks) {
+        synchronized (tasks) {
+            tasks.forEach(task -> task.cancel(true));
+        }
+    }
+
+    private static void readSheet(SheetPart sheet, SharedStringCache sharedStrings, StylesTable styles,
+                                  ColumnMapping columns, SheetRowHandler.Factory handlers) throws IOException {
+        SheetRowHandler handler = handlers.forSheet(sheet.index(), sheet.name());
+        try (InputStream in = sheet.part().getInputStream()) {
+            XMLReader parser = XMLHelper.newXMLReader();
+            parser.setContentHandler(new StreamingSheetHandler(sharedStrings, styles, columns, sheet.name(), handler));
+            parser.parse(new InputSource(in));
+        } catch (SAXException | ParserConfigurationException e) {
+            throw new IOException("Unable to read sheet " + sheet.name() + ": " + e.getMessage(), e);
+        } finally {
+            handler.sheetFinished();
+        }
+    }
+
+    private record SheetPart(int index, String name, PackagePart part) {}
+}
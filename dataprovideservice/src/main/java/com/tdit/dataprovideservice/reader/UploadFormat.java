@@ -0,0 +1,66 @@
+package com.tdit.dataprovideservice.reader;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * File formats an upload can be sent in.
+ */
+public enum UploadFormat {
+
+    XLSX(List.of(".xlsx"), List.of("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet")),
+    CSV(List.of(".csv"), List.of("text/csv", "application/csv")),
+    NDJSON(List.of(".ndjson", ".jsonl"), List.of("application/x-ndjson", "application/jsonl"));
+
+    private final List<String> extensions;
+    private final List<String> contentTypes;
+
+    UploadFormat(List<String> extensions, List<String> contentTypes) {
+        this.extensions = extensions;
+        this.contentTypes = contentTypes;
+    }
+
+    /**
+     * The format called {@code name}, like {@code csv}, or null when there is none.
+     */
+    public static UploadFormat fromName(String name) {
+        for (UploadFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    /** The file extension exports in this format get, with the dot. */
+    public String extension() {
+        return extensions.get(0);
+    }
+
+    public String contentType() {
+        return contentTypes.get(0);
+    }
+
+    /**
+     * The format of an uploaded file by its extension, or by its content type when the extension is
+     * not a known one. Returns null for anything else.
+     */
+    public static UploadFormat detect(String fileName, String contentType) {
+        String name = fileName != null ? fileName.toLowerCase(Locale.ROOT) : "";
+        for (UploadFormat format : values()) {
+            if (format.extensions.stream().anyMatch(name::endsWith)) {
+                return format;
+            }
+        }
+
+        String type = contentType != null ? contentType.toLowerCase(Locale.ROOT) : "";
+        int parameters = type.indexOf(';');
+        String mediaType = (parameters >= 0 ? type.substring(0, parameters) : type).trim();
+        for (UploadFormat format : values()) {
+            if (format.contentTypes.contains(mediaType)) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
@@ -1,14 +1,125 @@
 package com.tdit.dataprovideservice.repository;
 
+import com.tdit.dataprovideservice.dto.PropertySummary;
+import com.tdit.dataprovideservice.entity.Constants;
 import com.tdit.dataprovideservice.entity.Property;
 import com.tdit.dataprovideservice.entity.Status;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static com.tdit.dataprovideservice.entity.Constants.EXPORT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface PropertyRepository extends JpaRepository<Property, Long> {
 
     List<Property> findByStatus(String status);
+
+    /**
+     * One page of a listing in id order, starting after the id {@code after}. Seeking past the last id
+     * instead of skipping an offset keeps deep pages as fast as the first. Null filters are ignored.
+     */
+    @Query("select new com.tdit.dataprovideservice.dto.PropertySummary(p.propertyId, p.propertyTitle, " +
+            "p.propertyType, p.city, p.state, p.country, p.pincode, p.hostId, p.hostName, p.basePrice, " +
+            "p.currency, p.status, p.updatedAt) from Property p where p.propertyId > :after " +
+            "and (:status is null or p.status = :status) " +
+            "and (:city is null or p.city = :city) " +
+            "and (:propertyType is null or p.propertyType = :propertyType) " +
+            "and (:hostId is null or p.hostId = :hostId) " +
+            "order by p.propertyId")
+    List<PropertySummary> findSummaries(@Param("after") long after,
+                                        @Param("status") String status,
+                                        @Param("city") String city,
+                                        @Param("propertyType") String propertyType,
+                                        @Param("hostId") Long hostId,
+                                        Limit limit);
+
+    /**
+     * The properties of an export in id order, fetched from a cursor {@value Constants#EXPORT_FETCH_SIZE} rows
+     * at a time and not tracked for changes. Null filters are ignored. Must be consumed inside a transaction.
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("select p from Property p where (:status is null or p.status = :status) " +
+            "and (:city is null or p.city = :city) " +
+            "and (:propertyType is null or p.propertyType = :propertyType) " +
+            "and (:hostId is null or p.hostId = :hostId) " +
+            "order by p.propertyId")
+    Stream<Property> streamProperties(@Param("status") String status,
+                                      @Param("city") String city,
+                                      @Param("propertyType") String propertyType,
+                                      @Param("hostId") Long hostId);
+
+    /**
+     * Ids of the properties a bulk status change would change, in id order after the id {@code after}.
+     * Null filters are ignored.
+     */
+    @Query("select p.propertyId from Property p where p.propertyId > :after " +
+            "and (p.status is null or p.status <> :status) " +
+            "and (:uploadId is null or p.uploadId = :uploadId) " +
+            "and (:city is null or p.city = :city) " +
+            "and (:hostId is null or p.hostId = :hostId) " +
+            "order by p.propertyId")
+    List<Long> findIdsForStatusChange(@Param("after") long after,
+                                      @Param("status") String status,
+                                      @Param("uploadId") UUID uploadId,
+                                      @Param("city") String city,
+                                      @Param("hostId") Long hostId,
+                                      Limit limit);
+
+    /**
+     * Locks the properties with the given ids, in id order so two lockers cannot deadlock, and returns the ids found.
+     */
+    @Query(value = "select property_id from properties where property_id in (:ids) order by property_id for update",
+            nativeQuery = true)
+    List<Long> lockIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Sets the status of the given properties, skipping the ones that already have it.
+     */
+    @Transactional
+    @Modifying
+    @Query("update Property p set p.status = :status, p.updatedAt = :updatedAt " +
+            "where p.propertyId in :ids and (p.status is null or p.status <> :status)")
+    int updateStatus(@Param("ids") Collection<Long> ids,
+                     @Param("status") String status,
+                     @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Just enough of the stored properties to tell whether an uploaded row changed them.
+     */
+    @Query("select new com.tdit.dataprovideservice.repository.PropertyRepository$Fingerprint(" +
+            "p.naturalKey, p.propertyId, p.contentHash) from Property p where p.naturalKey in :naturalKeys")
+    List<Fingerprint> findFingerprints(@Param("naturalKeys") Collection<String> naturalKeys);
+
+    record Fingerprint(String naturalKey, Long propertyId, String contentHash) {}
+
+    /**
+     * Properties with coordinates but no geohash yet, in id order after the id {@code after}.
+     */
+    @Query("select new com.tdit.dataprovideservice.repository.PropertyRepository$Coordinates(" +
+            "p.propertyId, p.latitude, p.longitude) from Property p where p.propertyId > :after " +
+            "and p.geohash is null and p.latitude is not null and p.longitude is not null " +
+            "order by p.propertyId")
+    List<Coordinates> findWithoutGeohash(@Param("after") long after, Limit limit);
+
+    @Modifying
+    @Query("update Property p set p.geohash = :geohash where p.propertyId = :id")
+    int updateGeohash(@Param("id") Long id, @Param("geohash") String geohash);
+
+    record Coordinates(Long propertyId, Double latitude, Double longitude) {}
 }
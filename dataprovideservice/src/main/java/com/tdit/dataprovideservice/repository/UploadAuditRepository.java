@@ -2,11 +2,48 @@ package com.tdit.dataprovideservice.repository;
 
 import com.tdit.dataprovideservice.entity.UploadAudit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface UploadAuditRepository extends JpaRepository<UploadAudit, UUID> {
 
+    /**
+     * Advances the checkpoint without loading the audit or rewriting its row results.
+     */
+    @Modifying
+    @Query("update UploadAudit a set a.committedRows = :committedRows, a.totalRows = :totalRows, " +
+            "a.successRows = :successRows, a.failedRows = :failedRows, a.warningRows = :warningRows, " +
+            "a.unchangedRows = :unchangedRows " +
+            "where a.uploadId = :uploadId")
+    int updateCheckpoint(@Param("uploadId") UUID uploadId,
+                         @Param("committedRows") int committedRows,
+                         @Param("totalRows") int totalRows,
+                         @Param("successRows") int successRows,
+                         @Param("failedRows") int failedRows,
+                         @Param("warningRows") int warningRows,
+                         @Param("unchangedRows") int unchangedRows);
+
+    /**
+     * The latest upload of {@code uploadedBy} other than {@code uploadId} that is in {@code status}.
+     */
+    Optional<UploadAudit> findFirstByUploadedByAndStatusAndUploadIdNotOrderByTimestampDesc(
+            String uploadedBy, UploadAudit.UploadStatus status, UUID uploadId);
+
+    /**
+     * Moves the upload from {@code expected} to {@code next} status. Returns 0 when the upload was not in
+     * {@code expected} state, which also stops two resume requests from running the same upload.
+     */
+    @Transactional
+    @Modifying
+    @Query("update UploadAudit a set a.status = :next where a.uploadId = :uploadId and a.status = :expected")
+    int compareAndSetStatus(@Param("uploadId") UUID uploadId,
+                            @Param("expected") UploadAudit.UploadStatus expected,
+                            @Param("next") UploadAudit.UploadStatus next);
 }
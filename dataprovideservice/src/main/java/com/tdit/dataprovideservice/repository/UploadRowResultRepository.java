@@ -0,0 +1,50 @@
+package com.tdit.dataprovideservice.repository;
+
+import com.tdit.dataprovideservice.entity.Constants;
+import com.tdit.dataprovideservice.entity.UploadRowResult;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static com.tdit.dataprovideservice.entity.Constants.EXPORT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+@Repository
+public interface UploadRowResultRepository extends JpaRepository<UploadRowResult, Long> {
+
+    /**
+     * Null filters are ignored. Returns a slice so no count query runs over large uploads.
+     */
+    @Query("select r from UploadRowResult r where r.uploadId = :uploadId " +
+            "and (:outcome is null or r.outcome = :outcome) " +
+            "and (:sheet is null or r.sheetName = :sheet) " +
+            "and (:fromRow is null or r.rowNumber >= :fromRow) " +
+            "and (:toRow is null or r.rowNumber <= :toRow)")
+    Slice<UploadRowResult> findRows(@Param("uploadId") UUID uploadId,
+                                    @Param("outcome") UploadRowResult.Outcome outcome,
+                                    @Param("sheet") String sheet,
+                                    @Param("fromRow") Integer fromRow,
+                                    @Param("toRow") Integer toRow,
+                                    Pageable pageable);
+
+    /**
+     * The rows of an upload's error report in sheet and row order, fetched from a cursor
+     * {@value Constants#EXPORT_FETCH_SIZE} rows at a time. Must be consumed inside a transaction.
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("select r from UploadRowResult r where r.uploadId = :uploadId and r.outcome in :outcomes " +
+            "order by r.sheetIndex, r.rowNumber")
+    Stream<UploadRowResult> streamReport(@Param("uploadId") UUID uploadId,
+                                         @Param("outcomes") Collection<UploadRowResult.Outcome> outcomes);
+}
@@ -0,0 +1,14 @@
+package com.tdit.dataprovideservice.repository;
+
+import com.tdit.dataprovideservice.entity.UploadSheetCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface UploadSheetCheckpointRepository extends JpaRepository<UploadSheetCheckpoint, UploadSheetCheckpoint.Key> {
+
+    List<UploadSheetCheckpoint> findByUploadId(UUID uploadId);
+}
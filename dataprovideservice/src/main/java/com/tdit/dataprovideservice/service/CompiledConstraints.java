@@ -0,0 +1,249 @@
+package com.tdit.dataprovideservice.service;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+
+/**
+ * The Bean Validation constraints of a class, turned into plain checks once instead of being
+ * looked up reflectively for every validated object.
+ * <p>
+ * Supports {@code @NotNull}, {@code @NotBlank}, {@code @Size}, {@code @Pattern} and {@code @Email}
+ * in the default group with literal messages. Anything else fails {@link #compile} so a new
+ * annotation on the DTO cannot be silently ignored. Violations are reported in field declaration order.
+ */
+final class CompiledConstraints<T> {
+
+    static final String MESSAGE_SEPARATOR = "; ";
+
+    private static final int MAX_EMAIL_LOCAL_PART = 64;
+    private static final int MAX_EMAIL_DOMAIN = 255;
+    private static final int MAX_DOMAIN_LABEL = 63;
+
+    private final FieldConstraints[] fields;
+
+    private CompiledConstraints(FieldConstraints[] fields) {
+        this.fields = fields;
+    }
+
+    static <T> CompiledConstraints<T> compile(Class<T> type) {
+        List<FieldConstraints> compiled = new ArrayList<>();
+        for (Field field : type.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            List<Rule> rules = new ArrayList<>();
+            for (Annotation annotation : field.getAnnotations()) {
+                if (isConstraint(annotation)) {
+                    rules.add(compileRule(field, annotation));
+                }
+            }
+            if (!rules.isEmpty()) {
+                field.setAccessible(true);
+                compiled.add(new FieldConstraints(field, rules.toArray(new Rule[0])));
+            }
+        }
+        return new CompiledConstraints<>(compiled.toArray(new FieldConstraints[0]));
+    }
+
+    /**
+     * Appends the message of every violated constraint to {@code errors}, which is created on the
+     * first violation; returns it unchanged (possibly null) when the object is valid.
+     */
+    StringBuilder validate(T bean, StringBuilder errors) {
+        for (FieldConstraints field : fields) {
+            Object value = field.read(bean);
+            for (Rule rule : field.rules()) {
+                if (!rule.check().test(value)) {
+                    errors = append(errors, rule.message());
+                }
+            }
+        }
+        return errors;
+    }
+
+    static StringBuilder append(StringBuilder messages, String message) {
+        if (messages == null) {
+            return new StringBuilder(message);
+        }
+        return messages.append(MESSAGE_SEPARATOR).append(message);
+    }
+
+    /**
+     * Same result as {@code value.toString().trim().isEmpty()} without creating the trimmed copy.
+     */
+    static boolean isBlank(CharSequence value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * True for ordinary ASCII addresses: dot-separated atoms of {@code [A-Za-z0-9_%+-]}, an {@code @}, and
+     * dot-separated letter/digit/hyphen labels. All of these pass {@code @Email}; anything else is left to it.
+     */
+    static boolean isPlainEmailAddress(CharSequence value) {
+        int length = value.length();
+        int at = -1;
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) == '@') {
+                if (at >= 0) {
+                    return false;
+                }
+                at = i;
+            }
+        }
+        if (at < 1 || at > MAX_EMAIL_LOCAL_PART || length - at - 1 > MAX_EMAIL_DOMAIN) {
+            return false;
+        }
+
+        boolean afterDot = true;
+        for (int i = 0; i < at; i++) {
+            char c = value.charAt(i);
+            if (c == '.') {
+                if (afterDot) {
+                    return false;
+                }
+                afterDot = true;
+            } else if (isAsciiLetterOrDigit(c) || c == '_' || c == '%' || c == '+' || c == '-') {
+                afterDot = false;
+            } else {
+                return false;
+            }
+        }
+        if (afterDot) {
+            return false;
+        }
+
+        int labelLength = 0;
+        char previous = '.';
+        for (int i = at + 1; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == '.') {
+                if (labelLength == 0 || previous == '-') {
+                    return false;
+                }
+                labelLength = 0;
+            } else if (isAsciiLetterOrDigit(c) || (c == '-' && labelLength > 0)) {
+                if (++labelLength > MAX_DOMAIN_LABEL) {
+                    return false;
+                }
+            } else {
+                return false;
+            }
+            previous = c;
+        }
+        return labelLength > 0 && previous != '-';
+    }
+
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+
+    private static boolean isConstraint(Annotation annotation) {
+        Class<? extends Annotation> annotationType = annotation.annotationType();
+        return annotationType.isAnnotationPresent(Constraint.class)
+                || annotationType.getName().startsWith("jakarta.validation.constraints.");
+    }
+
+    private static Rule compileRule(Field field, Annotation annotation) {
+        String message = attribute(annotation, "message", String.class);
+        if (message.contains("{")) {
+            throw unsupported(field, annotation, "message templates are not interpolated");
+        }
+        if (attribute(annotation, "groups", Class[].class).length > 0) {
+            throw unsupported(field, annotation, "validation groups are not supported");
+        }
+
+        if (annotation instanceof NotNull) {
+            return new Rule(value -> value != null, message);
+        }
+        if (!CharSequence.class.isAssignableFrom(field.getType())) {
+            throw unsupported(field, annotation, "only String fields are supported");
+        }
+        if (annotation instanceof NotBlank) {
+            return new Rule(value -> value != null && !isBlank((CharSequence) value), message);
+        }
+        if (annotation instanceof Size size) {
+            int min = size.min();
+            int max = size.max();
+            return new Rule(value -> value == null
+                    || (((CharSequence) value).length() >= min && ((CharSequence) value).length() <= max), message);
+        }
+        if (annotation instanceof Pattern pattern) {
+            int flags = 0;
+            for (Pattern.Flag flag : pattern.flags()) {
+                flags |= flag.getValue();
+            }
+            java.util.regex.Pattern regex = java.util.regex.Pattern.compile(pattern.regexp(), flags);
+            // One reusable matcher per worker thread instead of a new Matcher per value
+            ThreadLocal<Matcher> matcher = ThreadLocal.withInitial(() -> regex.matcher(""));
+            return new Rule(value -> value == null || matcher.get().reset((CharSequence) value).matches(), message);
+        }
+        if (annotation instanceof Email email) {
+            // The provider's own check of this field keeps the accepted addresses identical; it allocates
+            // heavily (substrings, IDN conversion), so ordinary addresses are accepted before reaching it
+            Validator validator = EmailFallback.VALIDATOR;
+            Class<?> type = field.getDeclaringClass();
+            String name = field.getName();
+            boolean defaultRegexp = ".*".equals(email.regexp());
+            return new Rule(value -> value == null
+                    || (defaultRegexp && isPlainEmailAddress((CharSequence) value))
+                    || validator.validateValue(type, name, value).stream()
+                            .noneMatch(violation -> violation.getConstraintDescriptor().getAnnotation() instanceof Email),
+                    message);
+        }
+        throw unsupported(field, annotation, "annotation is not supported");
+    }
+
+    private static <A> A attribute(Annotation annotation, String name, Class<A> type) {
+        try {
+            return type.cast(annotation.annotationType().getMethod(name).invoke(annotation));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Constraint @" + annotation.annotationType().getSimpleName()
+                    + " has no " + name + " attribute", e);
+        }
+    }
+
+    private static IllegalStateException unsupported(Field field, Annotation annotation, String reason) {
+        return new IllegalStateException("Cannot compile @" + annotation.annotationType().getSimpleName()
+                + " on " + field.getDeclaringClass().getSimpleName() + "." + field.getName() + ": " + reason);
+    }
+
+    private record Rule(Predicate<Object> check, String message) {}
+
+    /**
+     * Built on the first compiled {@code @Email}, and kept for the life of the application.
+     */
+    private static final class EmailFallback {
+
+        static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+    }
+
+    private record FieldConstraints(Field field, Rule[] rules) {
+
+        Object read(Object bean) {
+            try {
+                return field.get(bean);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
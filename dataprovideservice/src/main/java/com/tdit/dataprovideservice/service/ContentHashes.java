@@ -0,0 +1,131 @@
+package com.tdit.dataprovideservice.service;
+
+import com.tdit.dataprovideservice.entity.Property;
+import org.springframework.core.io.InputStreamSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 fingerprints of uploaded files and of the properties converted from their rows, as hex.
+ */
+public final class ContentHashes {
+
+    private static final char FIELD_SEPARATOR = '\u001F';
+    private static final char NULL_VALUE = '\u0000';
+
+    // Conversion workers hash every row; the digest, text and byte buffers are kept per thread and reused
+    private static final ThreadLocal<RowHasher> HASHERS = ThreadLocal.withInitial(RowHasher::new);
+
+    private ContentHashes() {}
+
+    /**
+     * Hashes the file in one pass over its stream, without holding it in memory.
+     */
+    public static String of(InputStreamSource source) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = source.getInputStream()) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Hashes what a row says about a property: every template field except the id and the timestamps,
+     * which differ between uploads of the same row.
+     */
+    public static String of(Property property) {
+        RowHasher hasher = HASHERS.get();
+        StringBuilder content = hasher.content;
+        content.setLength(0);
+        append(content, property.getPropertyTitle());
+        append(content, property.getDescription());
+        append(content, property.getPropertyType());
+        append(content, property.getAddressLine1());
+        append(content, property.getCity());
+        append(content, property.getState());
+        append(content, property.getCountry());
+        append(content, property.getPincode());
+        append(content, property.getLatitude());
+        append(content, property.getLongitude());
+        append(content, property.getHostId());
+        append(content, property.getHostName());
+        append(content, property.getHostContact());
+        append(content, property.getHostEmail());
+        append(content, property.getBasePrice());
+        append(content, property.getCurrency());
+        append(content, property.getAmenities());
+        append(content, property.getPropertyUrl());
+        append(content, property.getStatus());
+
+        return HexFormat.of().formatHex(hasher.digest());
+    }
+
+    private static void append(StringBuilder content, Object value) {
+        if (value == null) {
+            content.append(NULL_VALUE);
+        } else if (value instanceof Double number) {
+            // The same text as Double.toString, written straight into the buffer
+            content.append(number.doubleValue());
+        } else if (value instanceof Long number) {
+            content.append(number.longValue());
+        } else {
+            content.append(value);
+        }
+        content.append(FIELD_SEPARATOR);
+    }
+
+    /**
+     * Encodes the row text as UTF-8 into a reused buffer and digests it, where {@code toString().getBytes()}
+     * would copy it twice per row. Unpaired surrogates become {@code '?'}, as with {@code getBytes}.
+     */
+    private static final class RowHasher {
+
+        final StringBuilder content = new StringBuilder(256);
+        private final MessageDigest digest = newDigest();
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private final ByteBuffer bytes = ByteBuffer.allocate(4096);
+
+        byte[] digest() {
+            CharBuffer chars = CharBuffer.wrap(content);
+            encoder.reset();
+            while (encoder.encode(chars, bytes, true).isOverflow()) {
+                drain();
+            }
+            while (encoder.flush(bytes).isOverflow()) {
+                drain();
+            }
+            drain();
+            return digest.digest();
+        }
+
+        private void drain() {
+            bytes.flip();
+            digest.update(bytes);
+            bytes.clear();
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every JRE ships SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
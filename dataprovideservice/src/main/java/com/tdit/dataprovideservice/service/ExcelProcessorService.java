@@ -1,24 +1,38 @@
 package com.tdit.dataprovideservice.service;
 
+import com.tdit.dataprovideservice.config.ExcelProcessingProperties;
 import com.tdit.dataprovideservice.dto.ExcelRowData;
+import com.tdit.dataprovideservice.dto.UploadProgress;
       // Correct import for DTO enum
 import com.tdit.dataprovideservice.entity.Constants;
+import com.tdit.dataprovideservice.entity.CurrencyCodes;
 import com.tdit.dataprovideservice.entity.Property;
 
 import com.tdit.dataprovideservice.entity.Property_Type;
 import com.tdit.dataprovideservice.entity.Status;
+import com.tdit.dataprovideservice.reader.CellValueFormatter;
+import com.tdit.dataprovideservice.reader.ColumnMapping;
+import com.tdit.dataprovideservice.reader.RowSource;
+import com.tdit.dataprovideservice.reader.SheetRowHandler;
+import com.tdit.dataprovideservice.reader.StreamingXlsxReader;
+import com.tdit.dataprovideservice.reader.UploadFormat;
+import org.apache.poi.openxml4j.opc.OPCPackage;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static com.tdit.dataprovideservice.entity.Constants.*;
 
@@ -26,59 +40,190 @@ import static com.tdit.dataprovideservice.entity.Constants.*;
 public class ExcelProcessorService {
 
     private static final Logger log = LoggerFactory.getLogger(ExcelProcessorService.class);
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter DATE_FORMATTER = CellValueFormatter.DATE_FORMATTER;
+
+    // Indexed like EXCEL_COLUMNS: readers hand over values in template order, whatever the order in the file
+    private static final FieldSetter[] FIELD_SETTERS = fieldSetters(Map.ofEntries(
+            Map.entry("Property_ID", ExcelRowData::setPropertyId),
+            Map.entry("Property_Title", ExcelRowData::setPropertyTitle),
+            Map.entry("Description", ExcelRowData::setDescription),
+            Map.entry("Property_Type", (rowData, value) -> rowData.setPropertyType(convertToPropertyType(value))),
+            Map.entry("Address_Line1", ExcelRowData::setAddressLine1),
+            Map.entry("City", (rowData, value) -> rowData.setCity(StringPool.dedup(value))),
+            Map.entry("State", (rowData, value) -> rowData.setState(StringPool.dedup(value))),
+            Map.entry("Country", (rowData, value) -> rowData.setCountry(StringPool.dedup(value))),
+            Map.entry("Pincode", ExcelRowData::setPincode),
+            Map.entry("Latitude", ExcelRowData::setLatitude),
+            Map.entry("Longitude", ExcelRowData::setLongitude),
+            Map.entry("Host_ID", ExcelRowData::setHostId),
+            Map.entry("Host_Name", ExcelRowData::setHostName),
+            Map.entry("Host_Contact", ExcelRowData::setHostContact),
+            Map.entry("Host_Email", ExcelRowData::setHostEmail),
+            Map.entry("Base_Price", ExcelRowData::setBasePrice),
+            Map.entry("Currency", (rowData, value) -> rowData.setCurrency(canonicalCurrency(value))),
+            Map.entry("Amenities", ExcelRowData::setAmenities),
+            Map.entry("Property_URL", ExcelRowData::setPropertyUrl),
+            Map.entry("Status", (rowData, value) -> rowData.setStatus(convertToStatus(value))),
+            Map.entry("createdAt", ExcelRowData::setCreatedAt),
+            Map.entry("updatedAt", ExcelRowData::setUpdatedAt)));
+
+    private final ExcelProcessingProperties properties;
+    private final StreamingXlsxReader streamingXlsxReader;
+    private final List<RowSource> rowSources;
+    private final ColumnMapping templateColumns;
+
+    public ExcelProcessorService(ExcelProcessingProperties properties, StreamingXlsxReader streamingXlsxReader,
+                                 List<RowSource> rowSources) {
+        this.properties = properties;
+        this.streamingXlsxReader = streamingXlsxReader;
+        this.rowSources = rowSources;
+        this.templateColumns = new ColumnMapping(EXCEL_COLUMNS, properties.getColumns().getAliases(),
+                properties.getColumns().getOptional());
+    }
+
+    @FunctionalInterface
+    private interface FieldSetter {
+        void set(ExcelRowData rowData, String value);
+    }
+
+    private static FieldSetter[] fieldSetters(Map<String, FieldSetter> settersByColumn) {
+        FieldSetter[] setters = new FieldSetter[EXCEL_COLUMNS.size()];
+        for (int column = 0; column < setters.length; column++) {
+            setters[column] = settersByColumn.get(EXCEL_COLUMNS.get(column));
+            if (setters[column] == null) {
+                throw new IllegalStateException("No field for template column " + EXCEL_COLUMNS.get(column));
+            }
+        }
+        return setters;
+    }
+
+    /**
+     * Parses every data row of the file and hands it to the sink of its sheet as soon as it is read.
+     * Workbooks are read by their own readers: the streaming reader reads several sheets at once, the DOM
+     * reader one after the other. Other formats go through their {@link RowSource} as a single sheet.
+     * Rows whose cells cannot be read or extracted are logged and handed to the sink as {@code null}.
+     */
+    public void processExcelFile(InputStreamSource source, UploadFormat format, SheetRowSink.Factory sinks,
+                                 UploadProgress progress) throws IOException {
+        SheetRowHandler.Factory rowHandlers = (sheetIndex, sheetName) -> {
+            SheetRowSink sink = sinks.open(sheetIndex, sheetName);
+            return new SheetRowHandler() {
+                @Override
+                public void handleRow(int rowIndex, String[] values) {
+                    progress.rowParsed();
+                    int rowNumber = rowIndex + 1;
+                    sink.accept(rowNumber, values != null ? extractRowData(values, rowNumber) : null);
+                }
+
+                @Override
+                public void sheetStarted(int estimatedRows) {
+                    progress.addEstimatedRows(estimatedRows);
+                }
+
+                @Override
+                public void sheetFinished() {
+                    sink.sheetFinished();
+                }
+            };
+        };
+
+        if (format != UploadFormat.XLSX) {
+            rowSources.stream()
+                    .filter(rowSource -> rowSource.format() == format)
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException(ERROR_UNSUPPORTED_FORMAT))
+                    .read(source, templateColumns, rowHandlers);
+            return;
+        }
 
-    public List<ExcelRowData> processExcelFile(MultipartFile file) throws IOException {
-        List<ExcelRowData> rows = new ArrayList<>();
+        boolean streaming = properties.getReaderMode() == ExcelProcessingProperties.ReaderMode.STREAMING;
+        // Files on disk (spooled uploads) are opened directly instead of being inflated from a stream
+        if (source instanceof Resource resource && resource.isFile()) {
+            File file = resource.getFile();
+            if (streaming) {
+                streamingXlsxReader.read(file, templateColumns, rowHandlers);
+            } else {
+                OPCPackage pkg = StreamingXlsxReader.openReadOnly(file);
+                try {
+                    readWorkbook(new XSSFWorkbook(pkg), rowHandlers);
+                } finally {
+                    pkg.revert();
+                }
+            }
+            return;
+        }
 
-        try (Workbook workbook = new XSSFWorkbook(file.getInputStream())) {
-            int numberOfSheets = workbook.getNumberOfSheets();
+        try (InputStream in = source.getInputStream()) {
+            if (streaming) {
+                streamingXlsxReader.read(in, templateColumns, rowHandlers);
+            } else {
+                try (Workbook workbook = new XSSFWorkbook(in)) {
+                    readWorkbook(workbook, rowHandlers);
+                }
+            }
+        }
+    }
 
-            for (int sheetIndex = 0; sheetIndex < numberOfSheets; sheetIndex++) {
-                Sheet sheet = workbook.getSheetAt(sheetIndex);
-                if (sheet == null) continue;
+    private void readWorkbook(Workbook workbook, SheetRowHandler.Factory rowHandlers) {
+        int numberOfSheets = workbook.getNumberOfSheets();
+
+        for (int sheetIndex = 0; sheetIndex < numberOfSheets; sheetIndex++) {
+            Sheet sheet = workbook.getSheetAt(sheetIndex);
+            if (sheet == null) continue;
+            SheetRowHandler rowHandler = rowHandlers.forSheet(sheetIndex, sheet.getSheetName());
+            try {
+                rowHandler.sheetStarted(sheet.getLastRowNum());
+                int[] mapping = templateColumns.compile(headerOf(sheet.getRow(0)), sheet.getSheetName());
 
                 for (int i = 1; i <= sheet.getLastRowNum(); i++) {
                     Row row = sheet.getRow(i);
                     if (row != null) {
-                        ExcelRowData rowData = extractRowData(row, i);
-                        if (rowData != null) {
-                            rows.add(rowData);
+                        String[] values = new String[templateColumns.columnCount()];
+                        try {
+                            for (int column = 0; column < mapping.length; column++) {
+                                if (mapping[column] >= 0) {
+                                    values[mapping[column]] = getCellValue(row.getCell(column));
+                                }
+                            }
+                        } catch (Exception e) {
+                            log.error(ERROR_PROCESSING_ROW, i + 1, e.getMessage(), e);
+                            values = null;
                         }
+                        rowHandler.handleRow(i, values);
                     }
                 }
+            } finally {
+                rowHandler.sheetFinished();
+            }
+        }
+    }
+
+    private List<String> headerOf(Row headerRow) {
+        List<String> header = new ArrayList<>();
+        if (headerRow != null) {
+            for (int column = 0; column < headerRow.getLastCellNum(); column++) {
+                header.add(getCellValue(headerRow.getCell(column)));
             }
         }
-        return rows;
+        return header;
     }
 
-    private ExcelRowData extractRowData(Row row, int rowNumber) {
+    /**
+     * {@code values} are in template order; columns the file does not have are null and left unset.
+     */
+    // Package-private for the JMH benchmarks
+    ExcelRowData extractRowData(String[] values, int rowNumber) {
         ExcelRowData rowData = new ExcelRowData();
+        // Readers give every row its own array, so it is kept as it is
+        rowData.setSourceValues(values);
 
         try {
-            rowData.setPropertyId(getCellValue(row.getCell(0)));
-            rowData.setPropertyTitle(getCellValue(row.getCell(1)));
-            rowData.setDescription(getCellValue(row.getCell(2)));
-            rowData.setPropertyType(convertToPropertyType(getCellValue(row.getCell(3))));
-            rowData.setAddressLine1(getCellValue(row.getCell(4)));
-            rowData.setCity(getCellValue(row.getCell(5)));
-            rowData.setState(getCellValue(row.getCell(6)));
-            rowData.setCountry(getCellValue(row.getCell(7)));
-            rowData.setPincode(getCellValue(row.getCell(8)));
-            rowData.setLatitude(getCellValue(row.getCell(9)));
-            rowData.setLongitude(getCellValue(row.getCell(10)));
-            rowData.setHostId(getCellValue(row.getCell(11)));
-            rowData.setHostName(getCellValue(row.getCell(12)));
-            rowData.setHostContact(getCellValue(row.getCell(13)));
-            rowData.setHostEmail(getCellValue(row.getCell(14)));
-            rowData.setBasePrice(getCellValue(row.getCell(15)));
-            rowData.setCurrency(getCellValue(row.getCell(16)));
-            rowData.setAmenities(getCellValue(row.getCell(17)));
-            rowData.setPropertyUrl(getCellValue(row.getCell(18)));
-            rowData.setStatus(convertToStatus(getCellValue(row.getCell(19))));
-            rowData.setCreatedAt(getCellValue(row.getCell(20)));
-            rowData.setUpdatedAt(getCellValue(row.getCell(21)));
-
+            for (int column = 0; column < FIELD_SETTERS.length; column++) {
+                String value = values[column];
+                if (value != null) {
+                    FIELD_SETTERS[column].set(rowData, value);
+                }
+            }
             return rowData;
         } catch (Exception e) {
             log.error(ERROR_PROCESSING_ROW, rowNumber, e.getMessage(), e);
@@ -86,8 +231,16 @@ public class ExcelProcessorService {
         }
     }
 
-    private Status convertToStatus(String statusStr) {
-        if (statusStr == null || statusStr.trim().isEmpty()) {
+    /**
+     * The shared instance of an ISO code written in upper case; anything else is kept as it is for validation.
+     */
+    private static String canonicalCurrency(String value) {
+        String code = CurrencyCodes.canonical(value);
+        return code != null && code.equals(value) ? code : value;
+    }
+
+    private static Status convertToStatus(String statusStr) {
+        if (statusStr == null || CompiledConstraints.isBlank(statusStr)) {
             return null;
         }
         Status status = Status.fromString(statusStr);
@@ -98,8 +251,8 @@ public class ExcelProcessorService {
     }
 
 
-    private Property_Type convertToPropertyType(String typeStr) {
-        if (typeStr == null || typeStr.trim().isEmpty()) {
+    private static Property_Type convertToPropertyType(String typeStr) {
+        if (typeStr == null || CompiledConstraints.isBlank(typeStr)) {
             return null;
         }
         Property_Type type = Property_Type.fromString(typeStr);
@@ -110,7 +263,8 @@ public class ExcelProcessorService {
     }
 
 
-    private String getCellValue(Cell cell) {
+    // Package-private for the JMH benchmarks
+    String getCellValue(Cell cell) {
         if (cell == null) return null;
 
         switch (cell.getCellType()) {
@@ -120,23 +274,13 @@ public class ExcelProcessorService {
                 if (DateUtil.isCellDateFormatted(cell)) {
                     return cell.getLocalDateTimeCellValue().format(DATE_FORMATTER);
                 } else {
-                    double numericValue = cell.getNumericCellValue();
-                    if (numericValue == Math.floor(numericValue)) {
-                        return String.valueOf((long) numericValue);
-                    } else {
-                        return String.valueOf(numericValue);
-                    }
+                    return CellValueFormatter.formatNumeric(cell.getNumericCellValue());
                 }
             case BOOLEAN:
                 return String.valueOf(cell.getBooleanCellValue());
             case FORMULA:
                 try {
-                    double numericValue = cell.getNumericCellValue();
-                    if (numericValue == Math.floor(numericValue)) {
-                        return String.valueOf((long) numericValue);
-                    } else {
-                        return String.valueOf(numericValue);
-                    }
+                    return CellValueFormatter.formatNumeric(cell.getNumericCellValue());
                 } catch (Exception e) {
                     return cell.getStringCellValue().trim();
                 }
@@ -150,7 +294,7 @@ public class ExcelProcessorService {
     public Property convertToProperty(ExcelRowData rowData) {
         Property property = new Property();
 
-        if (rowData.getPropertyId() != null && !rowData.getPropertyId().trim().isEmpty()) {
+        if (rowData.getPropertyId() != null && !CompiledConstraints.isBlank(rowData.getPropertyId())) {
             try {
                 property.setPropertyId(Long.parseLong(rowData.getPropertyId()));
             } catch (NumberFormatException e) {
@@ -171,20 +315,33 @@ public class ExcelProcessorService {
         property.setCountry(rowData.getCountry());
         property.setPincode(rowData.getPincode());
 
-        try {
-            if (rowData.getLatitude() != null && !rowData.getLatitude().trim().isEmpty()) {
-                property.setLatitude(Double.parseDouble(rowData.getLatitude()));
+        // Validated rows carry the parsed numbers; parse here only for rows that skipped validation
+        if (!Double.isNaN(rowData.getParsedLatitude())) {
+            property.setLatitude(rowData.getParsedLatitude());
+        } else {
+            try {
+                if (rowData.getLatitude() != null && !CompiledConstraints.isBlank(rowData.getLatitude())) {
+                    property.setLatitude(Double.parseDouble(rowData.getLatitude()));
+                }
+            } catch (NumberFormatException e) {
+                log.warn(INVALID_LATITUDE, rowData.getLatitude());
             }
-        } catch (NumberFormatException e) {
-            log.warn(INVALID_LATITUDE, rowData.getLatitude());
         }
 
-        try {
-            if (rowData.getLongitude() != null && !rowData.getLongitude().trim().isEmpty()) {
-                property.setLongitude(Double.parseDouble(rowData.getLongitude()));
+        if (!Double.isNaN(rowData.getParsedLongitude())) {
+            property.setLongitude(rowData.getParsedLongitude());
+        } else {
+            try {
+                if (rowData.getLongitude() != null && !CompiledConstraints.isBlank(rowData.getLongitude())) {
+                    property.setLongitude(Double.parseDouble(rowData.getLongitude()));
+                }
+            } catch (NumberFormatException e) {
+                log.warn(INVALID_LONGITUDE, rowData.getLongitude());
             }
-        } catch (NumberFormatException e) {
-            log.warn(INVALID_LONGITUDE, rowData.getLongitude());
+        }
+
+        if (property.getLatitude() != null && property.getLongitude() != null) {
+            property.setGeohash(Geohash.encode(property.getLatitude(), property.getLongitude(), Geohash.PRECISION));
         }
 
         if (rowData.getHostId() != null) {
@@ -198,7 +355,9 @@ public class ExcelProcessorService {
         property.setHostContact(rowData.getHostContact());
         property.setHostEmail(rowData.getHostEmail());
 
-        if (rowData.getBasePrice() != null) {
+        if (!Double.isNaN(rowData.getParsedBasePrice())) {
+            property.setBasePrice(rowData.getParsedBasePrice());
+        } else if (rowData.getBasePrice() != null) {
             try {
                 property.setBasePrice(Double.parseDouble(rowData.getBasePrice()));
             } catch (NumberFormatException e) {
@@ -206,7 +365,8 @@ public class ExcelProcessorService {
             }
         }
         if (rowData.getCurrency() != null) {
-            property.setCurrency(rowData.getCurrency().toUpperCase());
+            String currency = CurrencyCodes.canonical(rowData.getCurrency());
+            property.setCurrency(currency != null ? currency : rowData.getCurrency().toUpperCase());
         }
 
         property.setAmenities(rowData.getAmenitiesList());
@@ -218,7 +378,7 @@ public class ExcelProcessorService {
 
         LocalDateTime now = LocalDateTime.now();
         try {
-            if (rowData.getCreatedAt() != null && !rowData.getCreatedAt().trim().isEmpty()) {
+            if (rowData.getCreatedAt() != null && !CompiledConstraints.isBlank(rowData.getCreatedAt())) {
                 property.setCreatedAt(LocalDateTime.parse(rowData.getCreatedAt(), DATE_FORMATTER));
             } else {
                 property.setCreatedAt(now);
@@ -227,6 +387,7 @@ public class ExcelProcessorService {
             property.setCreatedAt(now);
         }
         property.setUpdatedAt(now);
+        property.setContentHash(ContentHashes.of(property));
 
         return property;
     }
@@ -1,18 +1,34 @@
 package com.tdit.dataprovideservice.service;
 
 
-import com.tdit.dataprovideservice.dto.ExcelRowData;
+import com.tdit.dataprovideservice.config.ExcelProcessingProperties;
 import com.tdit.dataprovideservice.dto.ExcelUploadResponse;
+import com.tdit.dataprovideservice.dto.UploadProgress;
+import com.tdit.dataprovideservice.dto.UploadRowResultsResponse;
+import com.tdit.dataprovideservice.dto.UploadStatusResponse;
 import com.tdit.dataprovideservice.entity.Property;
 import com.tdit.dataprovideservice.entity.UploadAudit;
-import com.tdit.dataprovideservice.repository.PropertyRepository;
+import com.tdit.dataprovideservice.entity.UploadRowResult;
+import com.tdit.dataprovideservice.entity.UploadSheetCheckpoint;
+import com.tdit.dataprovideservice.reader.UploadFormat;
 import com.tdit.dataprovideservice.repository.UploadAuditRepository;
+import com.tdit.dataprovideservice.repository.UploadRowResultRepository;
+import com.tdit.dataprovideservice.repository.UploadSheetCheckpointRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -24,110 +40,319 @@ import static com.tdit.dataprovideservice.entity.Constants.*;
 public class ExcelUploadService {
 
     private final ExcelProcessorService excelProcessorService;
-    private final ExcelValidationService excelValidationService;
-    private final PropertyRepository propertyRepository;
+    private final UploadPipeline uploadPipeline;
+    private final UploadProgressRegistry uploadProgressRegistry;
+    private final UploadMetrics uploadMetrics;
+    private final UploadSpool uploadSpool;
+    private final UploadAdmission uploadAdmission;
+    private final PropertyBatchWriter propertyBatchWriter;
+    private final UploadRowResultWriter uploadRowResultWriter;
     private final UploadAuditRepository uploadAuditRepository;
+    private final UploadRowResultRepository uploadRowResultRepository;
+    private final UploadSheetCheckpointRepository uploadSheetCheckpointRepository;
+    private final ExcelProcessingProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final IngestTransactions ingestTransactions;
 
-    @Transactional
-    public ExcelUploadResponse processExcelUpload(MultipartFile file, String uploadedBy) {
+    /**
+     * Not transactional on purpose: every chunk commits on its own (see {@link #commitChunk}),
+     * so a failure keeps the rows before it and the upload can be resumed. A file identical to the one
+     * of the uploader's last completed upload is not processed again (see {@code excel.processing.skip-identical-files}).
+     * The upload has to be {@link UploadAdmission admitted}; the file is then {@link UploadSpool spooled} and read
+     * from disk.
+     *
+     * @throws UploadRejectedException when the upload is not admitted
+     */
+    public ExcelUploadResponse processExcelUpload(MultipartFile file, UploadFormat format, String uploadedBy)
+            throws IOException {
+        try (UploadAdmission.Permit permit = uploadAdmission.admit(uploadedBy, file.getSize(), format)) {
+            Path spooled = uploadSpool.spool(file);
+            try {
+                UploadAudit audit = createAudit(file.getOriginalFilename(), uploadedBy);
+                return process(audit, new FileSystemResource(spooled), format);
+            } finally {
+                uploadSpool.delete(spooled);
+            }
+        }
+    }
+
+    /**
+     * Processes an upload whose audit was already created by {@link #createAudit}
+     * or claimed by {@link #claimForResume}.
+     */
+    public ExcelUploadResponse processUpload(UUID uploadId, InputStreamSource source, UploadFormat format) {
+        return process(loadAudit(uploadId), source, format);
+    }
+
+    /**
+     * Re-runs a failed upload from its last committed chunk, each sheet from its own checkpoint.
+     * The file must be the one originally uploaded.
+     */
+    public ExcelUploadResponse resumeUpload(UUID uploadId, MultipartFile file, UploadFormat format) throws IOException {
+        String uploadedBy = loadAudit(uploadId).getUploadedBy();
+        try (UploadAdmission.Permit permit = uploadAdmission.admit(uploadedBy, file.getSize(), format)) {
+            Path spooled = uploadSpool.spool(file);
+            try {
+                FileSystemResource source = new FileSystemResource(spooled);
+                claimForResume(uploadId, file.getOriginalFilename(), source);
+                return processUpload(uploadId, source, format);
+            } finally {
+                uploadSpool.delete(spooled);
+            }
+        }
+    }
+
+    /**
+     * @throws IllegalStateException when the upload is not FAILED, or the file name or content does not match
+     */
+    public UploadAudit claimForResume(UUID uploadId, String fileName, InputStreamSource source) throws IOException {
+        UploadAudit audit = loadAudit(uploadId);
+        if (!Objects.equals(audit.getFileName(), fileName)) {
+            throw new IllegalStateException(ERROR_RESUME_FILE_MISMATCH + audit.getFileName());
+        }
+        // Another file of the same name would have its first rows skipped as if they were committed
+        if (audit.getContentHash() != null && !audit.getContentHash().equals(ContentHashes.of(source))) {
+            throw new IllegalStateException(ERROR_RESUME_CONTENT_MISMATCH + audit.getFileName());
+        }
+        // Committed before checkpoints were kept per sheet: there is no telling which rows to skip
+        if (audit.getCommittedRows() != null && audit.getCommittedRows() > 0 && loadCheckpoints(uploadId).isEmpty()) {
+            throw new IllegalStateException(ERROR_UPLOAD_NOT_RESUMABLE + uploadId);
+        }
+        if (uploadAuditRepository.compareAndSetStatus(uploadId,
+                UploadAudit.UploadStatus.FAILED, UploadAudit.UploadStatus.PROCESSING) == 0) {
+            throw new IllegalStateException(ERROR_UPLOAD_NOT_RESUMABLE + uploadId);
+        }
+        log.info("Resuming upload {} after {} committed rows", uploadId, audit.getCommittedRows());
+        return audit;
+    }
+
+    public UploadAudit createAudit(String fileName, String uploadedBy) {
         UploadAudit audit = UploadAudit.builder()
-                .fileName(file.getOriginalFilename())
+                .fileName(fileName)
                 .uploadedBy(uploadedBy)
                 .timestamp(LocalDateTime.now())
                 .status(UploadAudit.UploadStatus.PROCESSING)
-                .rowResults(new HashMap<>())
+                .committedRows(0)
                 .build();
 
-        audit = uploadAuditRepository.save(audit);
+        return uploadAuditRepository.save(audit);
+    }
+
+    public void markFailed(UUID uploadId) {
+        // Read-write, so the audit is read from the primary
+        transactionTemplate.executeWithoutResult(status -> uploadAuditRepository.findById(uploadId).ifPresent(audit -> {
+            audit.setStatus(UploadAudit.UploadStatus.FAILED);
+            uploadAuditRepository.save(audit);
+        }));
+    }
+
+    public void deleteAudit(UUID uploadId) {
+        uploadAuditRepository.deleteById(uploadId);
+    }
+
+    private ExcelUploadResponse process(UploadAudit audit, InputStreamSource source, UploadFormat format) {
         UUID uploadId = audit.getUploadId();
+        UploadProgress progress = uploadProgressRegistry.start(uploadId);
+        UploadMetrics.Upload metrics = uploadMetrics.start(sizeOf(source));
+        UploadPipeline.Result result = UploadPipeline.Result.resumeFrom(audit, loadCheckpoints(uploadId).stream()
+                .map(checkpoint -> new UploadPipeline.SheetCheckpoint(checkpoint.getSheetIndex(),
+                        checkpoint.getSheetName(), checkpoint.getCommittedRows()))
+                .toList());
 
         try {
-            List<ExcelRowData> rows = excelProcessorService.processExcelFile(file);
-
-            int totalRows = rows.size();
-            int successRows = 0;
-            int failedRows = 0;
-            int warningRows = 0;
-
-            Map<Integer, UploadAudit.RowResult> rowResults = new HashMap<>();
-            List<Property> validProperties = new ArrayList<>();
-
-            for (int i = 0; i < rows.size(); i++) {
-                ExcelRowData rowData = rows.get(i);
-                int rowNumber = i + 2;
-
-                if (rowData == null) {
-                    UploadAudit.RowResult result = UploadAudit.RowResult.builder()
-                            .success(false)
-                            .errorMessage(ERROR_ROW_EXTRACTION)
-                            .rowNumber(rowNumber)
-                            .build();
-                    rowResults.put(rowNumber, result);
-                    failedRows++;
-                    continue;
-                }
-
-                UploadAudit.RowResult validationResult = excelValidationService.validateRow(rowData, rowNumber);
-                rowResults.put(rowNumber, validationResult);
-
-                if (validationResult.isSuccess()) {
-                    try {
-                        Property property = excelProcessorService.convertToProperty(rowData);
-                        validProperties.add(property);
-                        successRows++;
-
-                        if (validationResult.getWarningMessage() != null) {
-                            warningRows++;
-                        }
-                    } catch (Exception e) {
-                        log.error(ERROR_PROPERTY_CONVERSION, rowNumber, e.getMessage());
-                        validationResult.setSuccess(false);
-                        validationResult.setErrorMessage(ERROR_PROPERTY_CONVERSION + e.getMessage());
-                        successRows--;
-                        failedRows++;
-                    }
-                } else {
-                    failedRows++;
-                }
+            audit.setContentHash(ContentHashes.of(source));
+            // Only the uploader's latest file: an older one may have been overwritten by the uploads since.
+            // A resumed upload is never answered that way, the rows it committed would no longer be counted.
+            // Read-write, so a replica that has not seen the latest completion cannot hide it
+            Optional<UploadAudit> identical = properties.isSkipIdenticalFiles() && result.getCommittedRows() == 0
+                    ? transactionTemplate.execute(status -> uploadAuditRepository
+                            .findFirstByUploadedByAndStatusAndUploadIdNotOrderByTimestampDesc(
+                                    audit.getUploadedBy(), UploadAudit.UploadStatus.COMPLETED, uploadId))
+                            .filter(previous -> audit.getContentHash().equals(previous.getContentHash()))
+                    : Optional.empty();
+            if (identical.isPresent()) {
+                return answerFrom(audit, identical.get());
             }
 
-            if (!validProperties.isEmpty()) {
-                propertyRepository.saveAll(validProperties);
-            }
+            uploadPipeline.run(
+                    sink -> excelProcessorService.processExcelFile(source, format, sink, progress),
+                    chunk -> commitChunk(uploadId, chunk),
+                    progress,
+                    metrics,
+                    result);
 
-            audit.setStatus(UploadAudit.UploadStatus.COMPLETED);
-            audit.setRowResults(rowResults);
-            audit.setTotalRows(totalRows);
-            audit.setSuccessRows(successRows);
-            audit.setFailedRows(failedRows);
-            audit.setWarningRows(warningRows);
+            int totalRows = result.getTotalRows();
+            int successRows = result.getSuccessRows();
+            int failedRows = result.getFailedRows();
+            int warningRows = result.getWarningRows();
+            int unchangedRows = result.getUnchangedRows();
 
+            audit.setStatus(UploadAudit.UploadStatus.COMPLETED);
+            applyResult(audit, result);
             uploadAuditRepository.save(audit);
 
             return ExcelUploadResponse.builder()
                     .uploadId(uploadId)
-                    .fileName(file.getOriginalFilename())
+                    .fileName(audit.getFileName())
                     .totalRows(totalRows)
                     .successRows(successRows)
                     .failedRows(failedRows)
                     .warningRows(warningRows)
+                    .unchangedRows(unchangedRows)
                     .status(STATUS_COMPLETED)
                     .message(String.format(MESSAGE_TEMPLATE,
-                            totalRows, successRows, failedRows, warningRows))
+                            totalRows, successRows, failedRows, warningRows, unchangedRows))
                     .build();
 
         } catch (Exception e) {
             log.error(ERROR_PROCESSING_EXCEL_FILE, e.getMessage(), e);
 
+            // Keep the totals of the committed chunks so a resume can carry on from there
             audit.setStatus(UploadAudit.UploadStatus.FAILED);
+            applyResult(audit, result);
             uploadAuditRepository.save(audit);
 
-            throw new RuntimeException(ERROR_PROCESSING_EXCEL_FILE + e.getMessage());
+            throw new UploadProcessingException(uploadId, ERROR_PROCESSING_EXCEL_FILE + e.getMessage());
+        } finally {
+            metrics.finish(audit.getStatus().name().toLowerCase(Locale.ROOT));
+            uploadProgressRegistry.finish(uploadId);
         }
     }
 
+    /**
+     * Completes {@code audit} with the figures of the earlier upload of the same file. Every row it
+     * committed counts as unchanged; its row results stay with that upload.
+     */
+    private ExcelUploadResponse answerFrom(UploadAudit audit, UploadAudit identical) {
+        UUID original = Optional.ofNullable(identical.getDuplicateOf()).orElse(identical.getUploadId());
+        log.info("Upload {} is identical to completed upload {}, skipping it", audit.getUploadId(), original);
+        audit.setStatus(UploadAudit.UploadStatus.COMPLETED);
+        audit.setDuplicateOf(original);
+        audit.setCommittedRows(identical.getCommittedRows());
+        audit.setTotalRows(identical.getTotalRows());
+        audit.setSuccessRows(identical.getSuccessRows());
+        audit.setFailedRows(identical.getFailedRows());
+        audit.setWarningRows(identical.getWarningRows());
+        audit.setUnchangedRows(identical.getSuccessRows());
+        uploadAuditRepository.save(audit);
+
+        return ExcelUploadResponse.builder()
+                .uploadId(audit.getUploadId())
+                .fileName(audit.getFileName())
+                .totalRows(audit.getTotalRows())
+                .successRows(audit.getSuccessRows())
+                .failedRows(audit.getFailedRows())
+                .warningRows(audit.getWarningRows())
+                .unchangedRows(audit.getUnchangedRows())
+                .duplicateOf(original)
+                .status(STATUS_COMPLETED)
+                .message(String.format(MESSAGE_DUPLICATE_UPLOAD, original))
+                .build();
+    }
+
+    private static long sizeOf(InputStreamSource source) {
+        try {
+            if (source instanceof MultipartFile file) {
+                return file.getSize();
+            }
+            if (source instanceof Resource resource) {
+                return resource.contentLength();
+            }
+        } catch (IOException e) {
+            log.debug("Could not determine upload size: {}", e.getMessage());
+        }
+        return -1;
+    }
+
+    /**
+     * Persists a chunk's properties (counting the ones upsert found unchanged) and row results in JDBC batches and advances the checkpoints,
+     * all in one transaction on the ingest pool.
+     */
+    private void commitChunk(UUID uploadId, UploadPipeline.Chunk chunk) {
+        int batchSize = Math.max(1, properties.getPipeline().getBatchSize());
+        ingestTransactions.executeWithoutResult(status -> {
+            List<Property> chunkProperties = chunk.getProperties();
+            for (int from = 0; from < chunkProperties.size(); from += batchSize) {
+                chunk.rowsUnchanged(propertyBatchWriter.write(uploadId,
+                        chunkProperties.subList(from, Math.min(from + batchSize, chunkProperties.size()))));
+            }
+            List<UploadAudit.RowResult> rowResults = chunk.getRowResults();
+            for (int from = 0; from < rowResults.size(); from += batchSize) {
+                uploadRowResultWriter.write(uploadId, rowResults.subList(from, Math.min(from + batchSize, rowResults.size())));
+            }
+            uploadSheetCheckpointRepository.saveAll(chunk.getSheetCheckpoints().stream()
+                    .map(checkpoint -> UploadSheetCheckpoint.builder()
+                            .uploadId(uploadId)
+                            .sheetIndex(checkpoint.sheetIndex())
+                            .sheetName(checkpoint.sheetName())
+                            .committedRows(checkpoint.committedRows())
+                            .build())
+                    .toList());
+            uploadAuditRepository.updateCheckpoint(uploadId, chunk.getCommittedRows(), chunk.getTotalRows(),
+                    chunk.getSuccessRows(), chunk.getFailedRows(), chunk.getWarningRows(), chunk.getUnchangedRows());
+        });
+    }
+
+    private void applyResult(UploadAudit audit, UploadPipeline.Result result) {
+        audit.setCommittedRows(result.getCommittedRows());
+        audit.setTotalRows(result.getTotalRows());
+        audit.setSuccessRows(result.getSuccessRows());
+        audit.setFailedRows(result.getFailedRows());
+        audit.setWarningRows(result.getWarningRows());
+        audit.setUnchangedRows(result.getUnchangedRows());
+    }
+
+    /**
+     * Read-only, so served by the replica when there is one.
+     */
     public UploadAudit getUploadStatus(UUID uploadId) {
         return uploadAuditRepository.findById(uploadId)
-                .orElseThrow(() -> new RuntimeException(UPLOAD_NOT_FOUND + uploadId));
+                .orElseThrow(() -> new UploadNotFoundException(uploadId));
+    }
+
+    /**
+     * The audit as the primary has it, for an upload about to be processed: a replica may not have the
+     * insert or the status change just made yet.
+     */
+    private UploadAudit loadAudit(UUID uploadId) {
+        return transactionTemplate.execute(status -> getUploadStatus(uploadId));
+    }
+
+    /**
+     * The committed rows per sheet, from the primary like {@link #loadAudit}: a lagging replica would make a
+     * resume skip too few rows and insert committed ones again.
+     */
+    private List<UploadSheetCheckpoint> loadCheckpoints(UUID uploadId) {
+        return transactionTemplate.execute(status -> uploadSheetCheckpointRepository.findByUploadId(uploadId));
+    }
+
+    public UploadStatusResponse getUploadStatusWithProgress(UUID uploadId) {
+        return UploadStatusResponse.builder()
+                .audit(getUploadStatus(uploadId))
+                .progress(uploadProgressRegistry.get(uploadId).orElse(null))
+                .build();
+    }
+
+    /**
+     * One page of row results in sheet and row order. {@code outcome}, {@code sheet}, {@code fromRow} and
+     * {@code toRow} are optional; the row range applies within each sheet.
+     */
+    @Transactional(readOnly = true)
+    public UploadRowResultsResponse getRowResults(UUID uploadId, UploadRowResult.Outcome outcome, String sheet,
+                                                  Integer fromRow, Integer toRow, int page, int size) {
+        if (!uploadAuditRepository.existsById(uploadId)) {
+            throw new UploadNotFoundException(uploadId);
+        }
+        int pageSize = Math.min(Math.max(size, 1), MAX_ROW_RESULTS_PAGE_SIZE);
+        Slice<UploadRowResult> slice = uploadRowResultRepository.findRows(uploadId, outcome, sheet, fromRow, toRow,
+                PageRequest.of(Math.max(page, 0), pageSize, Sort.by("sheetIndex", "rowNumber")));
+
+        return UploadRowResultsResponse.builder()
+                .uploadId(uploadId)
+                .rows(slice.map(UploadRowResult::toRowResult).getContent())
+                .page(slice.getNumber())
+                .size(slice.getSize())
+                .hasNext(slice.hasNext())
+                .build();
     }
 }
@@ -2,101 +2,148 @@ package com.tdit.dataprovideservice.service;
 
 import com.tdit.dataprovideservice.dto.ExcelRowData;
 import com.tdit.dataprovideservice.entity.UploadAudit;
-import jakarta.validation.ConstraintViolation;
-import jakarta.validation.Validator;
-import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Set;
-
+import static com.tdit.dataprovideservice.entity.Constants.*;
+import static com.tdit.dataprovideservice.service.CompiledConstraints.append;
+import static com.tdit.dataprovideservice.service.CompiledConstraints.isBlank;
+
+/**
+ * Validates one row against the constraints declared on {@link ExcelRowData} plus the business rules.
+ * <p>
+ * The constraints are compiled once when the service is created, and messages are only collected
+ * once a row actually has one, so a clean row costs no more than its {@code RowResult}. Latitude,
+ * longitude and base price are parsed here and left on the row for
+ * {@link ExcelProcessorService#convertToProperty}.
+ */
 @Service
-@RequiredArgsConstructor
 public class ExcelValidationService {
 
-    private final Validator validator;
-
-    public UploadAudit.RowResult validateRow(ExcelRowData rowData, int rowNumber) {
-        List<String> errors = new ArrayList<>();
-        List<String> warnings = new ArrayList<>();
-
-
-        Set<ConstraintViolation<ExcelRowData>> violations = validator.validate(rowData);
-        
-        for (ConstraintViolation<ExcelRowData> violation : violations) {
-            errors.add(violation.getMessage());
-        }
+    private static final CompiledConstraints<ExcelRowData> CONSTRAINTS = CompiledConstraints.compile(ExcelRowData.class);
 
+    private static final int MAX_EXACT_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
 
-        addBusinessValidations(rowData, errors, warnings);
+    public UploadAudit.RowResult validateRow(ExcelRowData rowData, int rowNumber) {
+        StringBuilder errors = CONSTRAINTS.validate(rowData, null);
+        errors = addNumericValidations(rowData, errors);
+        StringBuilder warnings = addWarnings(rowData, null);
 
-        boolean success = errors.isEmpty();
-        
         return UploadAudit.RowResult.builder()
-                .success(success)
-                .errorMessage(errors.isEmpty() ? null : String.join("; ", errors))
-                .warningMessage(warnings.isEmpty() ? null : String.join("; ", warnings))
+                .success(errors == null)
+                .errorMessage(errors == null ? null : errors.toString())
+                .warningMessage(warnings == null ? null : warnings.toString())
                 .rowNumber(rowNumber)
                 .build();
     }
 
-    private void addBusinessValidations(ExcelRowData rowData, List<String> errors, List<String> warnings) {
-
-        if (rowData.getCurrency() != null) {
-            List<String> preferredCurrencies = List.of("INR", "USD", "EUR", "GBP", "CAD", "AUD");
-            if (!preferredCurrencies.contains(rowData.getCurrency().toUpperCase())) {
-                warnings.add("Currency " + rowData.getCurrency() + " is not in preferred list");
-            }
-        }
-
-
-        if (rowData.getLatitude() != null && !rowData.getLatitude().trim().isEmpty()) {
+    private StringBuilder addNumericValidations(ExcelRowData rowData, StringBuilder errors) {
+        String latitude = rowData.getLatitude();
+        if (latitude != null && !isBlank(latitude)) {
             try {
-                double lat = Double.parseDouble(rowData.getLatitude());
-                if (lat < -90 || lat > 90) {
-                    errors.add("Latitude must be between -90 and 90");
+                double lat = parseDouble(latitude);
+                if (lat < LAT_MIN || lat > LAT_MAX) {
+                    errors = append(errors, ERROR_LAT_RANGE);
+                } else {
+                    rowData.setParsedLatitude(lat);
                 }
             } catch (NumberFormatException e) {
-                errors.add("Latitude must be a valid number");
+                errors = append(errors, ERROR_LAT_NUMBER);
             }
         }
 
-        if (rowData.getLongitude() != null && !rowData.getLongitude().trim().isEmpty()) {
+        String longitude = rowData.getLongitude();
+        if (longitude != null && !isBlank(longitude)) {
             try {
-                double lng = Double.parseDouble(rowData.getLongitude());
-                if (lng < -180 || lng > 180) {
-                    errors.add("Longitude must be between -180 and 180");
+                double lng = parseDouble(longitude);
+                if (lng < LNG_MIN || lng > LNG_MAX) {
+                    errors = append(errors, ERROR_LNG_RANGE);
+                } else {
+                    rowData.setParsedLongitude(lng);
                 }
             } catch (NumberFormatException e) {
-                errors.add("Longitude must be a valid number");
+                errors = append(errors, ERROR_LNG_NUMBER);
             }
         }
 
-
-        if (rowData.getBasePrice() != null && !rowData.getBasePrice().trim().isEmpty()) {
+        String basePrice = rowData.getBasePrice();
+        if (basePrice != null && !isBlank(basePrice)) {
             try {
-                double price = Double.parseDouble(rowData.getBasePrice());
-                if (price <= 0) {
-                    errors.add("Base price must be greater than 0");
+                double price = parseDouble(basePrice);
+                if (price <= BASE_PRICE_MIN) {
+                    errors = append(errors, ERROR_BASE_PRICE_RANGE);
+                } else {
+                    rowData.setParsedBasePrice(price);
                 }
             } catch (NumberFormatException e) {
-                errors.add("Base price must be a valid number");
+                errors = append(errors, ERROR_BASE_PRICE_NUMBER);
             }
         }
+        return errors;
+    }
+
+    private StringBuilder addWarnings(ExcelRowData rowData, StringBuilder warnings) {
+        String currency = rowData.getCurrency();
+        if (currency != null && !isPreferredCurrency(currency)) {
+            warnings = append(warnings, WARN_CURRENCY_NOT_PREFERRED.formatted(currency));
+        }
+
+        String url = rowData.getPropertyUrl();
+        if (url != null && !isBlank(url)
+                && !url.regionMatches(true, 0, "http://", 0, 7)
+                && !url.regionMatches(true, 0, "https://", 0, 8)) {
+            warnings = append(warnings, WARN_PROPERTY_URL);
+        }
 
+        if (rowData.getHostId() != null && rowData.getHostName() != null
+                && isBlank(rowData.getHostId()) && !isBlank(rowData.getHostName())) {
+            warnings = append(warnings, WARN_HOST_ID_EMPTY);
+        }
+        return warnings;
+    }
 
-        if (rowData.getPropertyUrl() != null && !rowData.getPropertyUrl().trim().isEmpty()) {
-            String url = rowData.getPropertyUrl().toLowerCase();
-            if (!url.startsWith("http://") && !url.startsWith("https://")) {
-                warnings.add("Property URL should start with http:// or https://");
+    /**
+     * {@link Double#parseDouble} without its temporary buffers for the common {@code -?digits[.digits]} form
+     * with at most 15 digits: the digits and the power of ten are then exact doubles, so one division
+     * gives the same correctly rounded result. Everything else goes to {@code Double.parseDouble}.
+     */
+    static double parseDouble(String value) {
+        int length = value.length();
+        int start = length > 0 && value.charAt(0) == '-' ? 1 : 0;
+        long digits = 0;
+        int digitCount = 0;
+        int fractionDigits = -1;
+        for (int i = start; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digitCount > MAX_EXACT_DIGITS) {
+                    return Double.parseDouble(value);
+                }
+                digits = digits * 10 + (c - '0');
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            } else if (c == '.' && fractionDigits < 0 && i > start && i < length - 1) {
+                fractionDigits = 0;
+            } else {
+                return Double.parseDouble(value);
             }
         }
+        if (digitCount == 0) {
+            return Double.parseDouble(value);
+        }
+        double result = fractionDigits > 0 ? digits / POWERS_OF_TEN[fractionDigits] : digits;
+        return start == 1 ? -result : result;
+    }
 
-        if (rowData.getHostId() != null && rowData.getHostName() != null) {
-            if (rowData.getHostId().trim().isEmpty() && !rowData.getHostName().trim().isEmpty()) {
-                warnings.add("Host ID is empty but Host Name is provided");
+    private static boolean isPreferredCurrency(String currency) {
+        for (String preferred : PREFERRED_CURRENCIES) {
+            if (preferred.equalsIgnoreCase(currency)) {
+                return true;
             }
         }
+        return false;
     }
 }
@@ -0,0 +1,118 @@
+package com.tdit.dataprovideservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tdit.dataprovideservice.config.ExcelProcessingProperties;
+import com.tdit.dataprovideservice.dto.PropertyFilter;
+import com.tdit.dataprovideservice.entity.Property;
+import com.tdit.dataprovideservice.entity.UploadRowResult;
+import com.tdit.dataprovideservice.reader.UploadFormat;
+import com.tdit.dataprovideservice.repository.PropertyRepository;
+import com.tdit.dataprovideservice.repository.UploadAuditRepository;
+import com.tdit.dataprovideservice.repository.UploadRowResultRepository;
+import com.tdit.dataprovideservice.writer.TableWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static com.tdit.dataprovideservice.entity.Constants.ERROR_REPORT_COLUMNS;
+import static com.tdit.dataprovideservice.entity.Constants.EXCEL_COLUMNS;
+
+/**
+ * Writes properties, and the rejected rows of an upload, as files in the upload template's columns, so they can
+ * be edited and uploaded again. Rows are read from a database cursor and written as they arrive; each entity is
+ * detached once written, so memory stays flat however many rows an export has.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExportService {
+
+    private static final List<String> ERROR_REPORT_HEADER = concat(EXCEL_COLUMNS, ERROR_REPORT_COLUMNS);
+
+    private final PropertyRepository propertyRepository;
+    private final UploadRowResultRepository uploadRowResultRepository;
+    private final UploadAuditRepository uploadAuditRepository;
+    private final ExcelProcessingProperties properties;
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * @return how many properties were written
+     */
+    @Transactional(readOnly = true)
+    public long exportProperties(PropertyFilter filter, UploadFormat format, OutputStream out) throws IOException {
+        long written = 0;
+        try (Stream<Property> rows = propertyRepository.streamProperties(filter.status(), filter.city(),
+                filter.propertyType(), filter.hostId());
+             TableWriter writer = TableWriter.open(format, EXCEL_COLUMNS, "Properties", out,
+                     properties.getCsv().getDelimiter(), objectMapper)) {
+            Object[] cells = new Object[EXCEL_COLUMNS.size()];
+            for (Iterator<Property> it = rows.iterator(); it.hasNext(); written++) {
+                Property property = it.next();
+                for (int column = 0; column < cells.length; column++) {
+                    cells[column] = PropertyBatchWriter.TEMPLATE_FIELDS.get(column).apply(property);
+                }
+                writer.writeRow(cells);
+                entityManager.detach(property);
+            }
+            writer.finish();
+        }
+        return written;
+    }
+
+    public boolean uploadExists(UUID uploadId) {
+        return uploadAuditRepository.existsById(uploadId);
+    }
+
+    /**
+     * The error report of an upload: every row with one of {@code outcomes}, in sheet and row order, as it was
+     * read, followed by its error, warning, sheet name and row number. Rows rejected before their values were
+     * kept have only those last columns.
+     *
+     * @return how many rows were written
+     */
+    @Transactional(readOnly = true)
+    public long exportErrorReport(UUID uploadId, Collection<UploadRowResult.Outcome> outcomes, UploadFormat format,
+                                  OutputStream out) throws IOException {
+        long written = 0;
+        int templateColumns = EXCEL_COLUMNS.size();
+        try (Stream<UploadRowResult> rows = uploadRowResultRepository.streamReport(uploadId, outcomes);
+             TableWriter writer = TableWriter.open(format, ERROR_REPORT_HEADER, "Errors", out,
+                     properties.getCsv().getDelimiter(), objectMapper)) {
+            Object[] cells = new Object[ERROR_REPORT_HEADER.size()];
+            for (Iterator<UploadRowResult> it = rows.iterator(); it.hasNext(); written++) {
+                UploadRowResult row = it.next();
+                List<String> values = row.getRowValues();
+                for (int column = 0; column < templateColumns; column++) {
+                    cells[column] = values != null && column < values.size() ? values.get(column) : null;
+                }
+                cells[templateColumns] = row.getErrorMessage();
+                cells[templateColumns + 1] = row.getWarningMessage();
+                cells[templateColumns + 2] = row.getSheetName();
+                cells[templateColumns + 3] = row.getRowNumber();
+                writer.writeRow(cells);
+                entityManager.detach(row);
+            }
+            writer.finish();
+        }
+        return written;
+    }
+
+    private static List<String> concat(List<String> first, List<String> second) {
+        List<String> joined = new ArrayList<>(first);
+        joined.addAll(second);
+        return List.copyOf(joined);
+    }
+}
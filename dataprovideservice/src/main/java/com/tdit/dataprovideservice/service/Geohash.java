@@ -0,0 +1,114 @@
+package com.tdit.dataprovideservice.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Geohashes: a point's cell in a grid that halves longitude and latitude in turn, written in base 32. The hashes of
+ * points in the same cell share that cell's hash as a prefix, so the points of a cell are one range of an index.
+ */
+public final class Geohash {
+
+    /** Length of the stored hashes; a cell is then about 4 by 2 cm. */
+    public static final int PRECISION = 12;
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+    private static final char LAST = BASE32[BASE32.length - 1];
+
+    private Geohash() {}
+
+    /**
+     * @return the hash of {@code precision} characters, or null when the point is not a valid coordinate
+     */
+    public static String encode(double latitude, double longitude, int precision) {
+        if (!(latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180)) {
+            return null;
+        }
+        double minLat = -90, maxLat = 90, minLng = -180, maxLng = 180;
+        char[] hash = new char[precision];
+        boolean longitudeBit = true;
+        int bits = 0, value = 0;
+        for (int i = 0; i < precision; ) {
+            if (longitudeBit) {
+                double mid = (minLng + maxLng) / 2;
+                value <<= 1;
+                if (longitude >= mid) {
+                    value |= 1;
+                    minLng = mid;
+                } else {
+                    maxLng = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                value <<= 1;
+                if (latitude >= mid) {
+                    value |= 1;
+                    minLat = mid;
+                } else {
+                    maxLat = mid;
+                }
+            }
+            longitudeBit = !longitudeBit;
+            if (++bits == 5) {
+                hash[i++] = BASE32[value];
+                bits = 0;
+                value = 0;
+            }
+        }
+        return new String(hash);
+    }
+
+    /**
+     * The cells that together cover the box. They are the largest cells still at least as wide and as high as the
+     * box, so the box overlaps no more than two of them each way; the corners find them. No cell is larger than a
+     * one-character cell (45 degrees either way), so a box wider or higher than that, as a radius near a pole
+     * gives, gets every one-character cell it touches instead: up to all 32.
+     */
+    public static List<String> cover(double minLat, double minLng, double maxLat, double maxLng) {
+        if (maxLng - minLng > cellWidth(1) || maxLat - minLat > cellHeight(1)) {
+            return topLevelCells(minLat, minLng, maxLat, maxLng);
+        }
+        int precision = 1;
+        while (precision < PRECISION && cellWidth(precision + 1) >= maxLng - minLng
+                && cellHeight(precision + 1) >= maxLat - minLat) {
+            precision++;
+        }
+        List<String> cells = new ArrayList<>(4);
+        for (String cell : new String[]{encode(minLat, minLng, precision), encode(minLat, maxLng, precision),
+                encode(maxLat, minLng, precision), encode(maxLat, maxLng, precision)}) {
+            if (cell != null && !cells.contains(cell)) {
+                cells.add(cell);
+            }
+        }
+        return cells;
+    }
+
+    private static List<String> topLevelCells(double minLat, double minLng, double maxLat, double maxLng) {
+        double width = cellWidth(1);
+        double height = cellHeight(1);
+        List<String> cells = new ArrayList<>();
+        for (double south = -90; south < 90; south += height) {
+            for (double west = -180; west < 180; west += width) {
+                if (minLat <= south + height && maxLat >= south && minLng <= west + width && maxLng >= west) {
+                    cells.add(encode(south + height / 2, west + width / 2, 1));
+                }
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * The greatest stored hash in the cell, so {@code hash between cell and last(cell)} selects the cell's points.
+     */
+    public static String last(String cell) {
+        return cell + String.valueOf(LAST).repeat(PRECISION - cell.length());
+    }
+
+    static double cellWidth(int precision) {
+        return 360.0 / (1L << ((5 * precision + 1) / 2));
+    }
+
+    static double cellHeight(int precision) {
+        return 180.0 / (1L << (5 * precision / 2));
+    }
+}
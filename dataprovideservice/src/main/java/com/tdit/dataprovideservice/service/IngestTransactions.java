@@ -0,0 +1,29 @@
+package com.tdit.dataprovideservice.service;
+
+import com.tdit.dataprovideservice.config.DataSourceConfig;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Consumer;
+
+/**
+ * Read-write transactions on the ingest connection pool, for the bulk writes of uploads.
+ * <p>
+ * Not a {@code TransactionTemplate} bean itself: that would replace the default one the other services use.
+ */
+@Component
+public class IngestTransactions {
+
+    private final TransactionTemplate transactionTemplate;
+
+    public IngestTransactions(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setName(DataSourceConfig.INGEST_TRANSACTION);
+    }
+
+    public void executeWithoutResult(Consumer<TransactionStatus> action) {
+        transactionTemplate.executeWithoutResult(action);
+    }
+}
@@ -0,0 +1,196 @@
+package com.tdit.dataprovideservice.service;
+
+import com.tdit.dataprovideservice.config.ExcelProcessingProperties;
+import com.tdit.dataprovideservice.entity.Property;
+import com.tdit.dataprovideservice.reader.ColumnMapping;
+import com.tdit.dataprovideservice.repository.PropertyRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static com.tdit.dataprovideservice.config.PropertyCacheConfig.PROPERTIES;
+import static com.tdit.dataprovideservice.config.PropertyCacheConfig.PROPERTY_LISTINGS;
+import static com.tdit.dataprovideservice.entity.Constants.ERROR_UNKNOWN_KEY_COLUMN;
+import static com.tdit.dataprovideservice.entity.Constants.EXCEL_COLUMNS;
+
+/**
+ * Persists one pipeline batch. The batch is flushed as JDBC batched inserts
+ * ({@code hibernate.jdbc.batch_size}) and the persistence context is cleared afterwards,
+ * so memory stays flat no matter how many rows the upload has.
+ * <p>
+ * Without upsert a row whose Property_ID is stored overwrites that property; the batch's stored ids are
+ * loaded in one query. Every other row is inserted with a new id from the sequence, whatever its Property_ID.
+ * <p>
+ * With {@code excel.processing.upsert.enabled} every row gets a natural key built from the configured
+ * template columns. The id and content hash of the stored properties with the batch's keys are loaded in
+ * one query; rows without a match are inserted, rows whose {@link ContentHashes content hash} differs
+ * update the match, and rows with the same hash are not written at all.
+ * <p>
+ * Written properties are evicted from the property caches once the transaction commits.
+ * Must be called inside a transaction.
+ */
+@Component
+public class PropertyBatchWriter {
+
+    // Template order, see EXCEL_COLUMNS; exports write properties with them too
+    static final List<Function<Property, Object>> TEMPLATE_FIELDS = List.of(
+            Property::getPropertyId, Property::getPropertyTitle, Property::getDescription, Property::getPropertyType,
+            Property::getAddressLine1, Property::getCity, Property::getState, Property::getCountry,
+            Property::getPincode, Property::getLatitude, Property::getLongitude, Property::getHostId,
+            Property::getHostName, Property::getHostContact, Property::getHostEmail, Property::getBasePrice,
+            Property::getCurrency, Property::getAmenities, Property::getPropertyUrl, Property::getStatus,
+            Property::getCreatedAt, Property::getUpdatedAt);
+
+    private static final char KEY_SEPARATOR = '\u001F';
+
+    private final PropertyRepository propertyRepository;
+    private final boolean upsert;
+    private final List<Function<Property, Object>> keyFields = new ArrayList<>();
+    private final Cache propertyCache;
+    private final Cache listingCache;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * @throws IllegalStateException when the natural key names a column that is not in the template
+     */
+    public PropertyBatchWriter(PropertyRepository propertyRepository, ExcelProcessingProperties properties,
+                               CacheManager cacheManager) {
+        this.propertyRepository = propertyRepository;
+        this.propertyCache = cacheManager.getCache(PROPERTIES);
+        this.listingCache = cacheManager.getCache(PROPERTY_LISTINGS);
+        this.upsert = properties.getUpsert().isEnabled();
+        ColumnMapping template = new ColumnMapping(EXCEL_COLUMNS, Map.of(), List.of());
+        for (String column : properties.getUpsert().getNaturalKey()) {
+            int index = template.indexOf(column);
+            if (index < 0) {
+                throw new IllegalStateException(ERROR_UNKNOWN_KEY_COLUMN + column);
+            }
+            keyFields.add(TEMPLATE_FIELDS.get(index));
+        }
+    }
+
+    /**
+     * @return how many properties of the batch were already stored unchanged; those keep the upload that wrote them
+     */
+    public int write(UUID uploadId, List<Property> batch) {
+        batch.forEach(property -> property.setUploadId(uploadId));
+        List<Long> updatedIds = new ArrayList<>();
+        int unchanged = upsert ? upsert(batch, updatedIds) : insert(batch, updatedIds);
+        entityManager.flush();
+        entityManager.clear();
+
+        updatedIds.forEach(propertyCache::evict);
+        if (unchanged < batch.size()) {
+            listingCache.clear();
+        }
+        return unchanged;
+    }
+
+    private int insert(List<Property> batch, List<Long> updatedIds) {
+        Set<Long> ids = new HashSet<>();
+        for (Property property : batch) {
+            if (property.getPropertyId() != null) {
+                ids.add(property.getPropertyId());
+            }
+        }
+        // Loading the stored ones in one query also leaves them managed, so merging them needs no select per row
+        Set<Long> stored = new HashSet<>();
+        if (!ids.isEmpty()) {
+            propertyRepository.findAllById(ids).forEach(property -> stored.add(property.getPropertyId()));
+        }
+
+        for (Property property : batch) {
+            if (property.getPropertyId() != null && stored.contains(property.getPropertyId())) {
+                entityManager.merge(property);
+                updatedIds.add(property.getPropertyId());
+            } else {
+                property.setPropertyId(null);
+                entityManager.persist(property);
+            }
+        }
+        return 0;
+    }
+
+    private int upsert(List<Property> batch, List<Long> updatedIds) {
+        Set<String> keys = new HashSet<>();
+        for (Property property : batch) {
+            property.setNaturalKey(naturalKey(property));
+            // The sheet's Property_ID may be part of the key, but the stored id is the sequence's
+            property.setPropertyId(null);
+            if (property.getNaturalKey() != null) {
+                keys.add(property.getNaturalKey());
+            }
+        }
+
+        Map<String, PropertyRepository.Fingerprint> stored = new HashMap<>();
+        if (!keys.isEmpty()) {
+            propertyRepository.findFingerprints(keys).forEach(fingerprint -> stored.put(fingerprint.naturalKey(), fingerprint));
+        }
+
+        int unchanged = 0;
+        List<Property> changed = new ArrayList<>();
+        for (Property property : batch) {
+            String key = property.getNaturalKey();
+            PropertyRepository.Fingerprint match = key != null ? stored.get(key) : null;
+            if (match == null) {
+                entityManager.persist(property);
+            } else if (property.getContentHash() != null && property.getContentHash().equals(match.contentHash())) {
+                unchanged++;
+                continue;
+            } else {
+                property.setPropertyId(match.propertyId());
+                changed.add(property);
+            }
+            if (key != null) {
+                // A later row of the batch with the same key is compared with this one
+                stored.put(key, new PropertyRepository.Fingerprint(key, property.getPropertyId(), property.getContentHash()));
+            }
+        }
+
+        if (!changed.isEmpty()) {
+            // Only the changed rows are loaded in full, in one query, so merging them needs no select per row
+            Map<Long, LocalDateTime> createdAt = new HashMap<>();
+            propertyRepository.findAllById(changed.stream().map(Property::getPropertyId).toList())
+                    .forEach(property -> createdAt.put(property.getPropertyId(), property.getCreatedAt()));
+            for (Property property : changed) {
+                property.setCreatedAt(createdAt.get(property.getPropertyId()));
+                entityManager.merge(property);
+                updatedIds.add(property.getPropertyId());
+            }
+        }
+        return unchanged;
+    }
+
+    /**
+     * The key columns' values joined, or null when all of them are empty.
+     */
+    private String naturalKey(Property property) {
+        StringBuilder key = new StringBuilder();
+        boolean empty = true;
+        for (int i = 0; i < keyFields.size(); i++) {
+            if (i > 0) {
+                key.append(KEY_SEPARATOR);
+            }
+            Object value = keyFields.get(i).apply(property);
+            if (value != null) {
+                key.append(value);
+                empty = false;
+            }
+        }
+        return empty ? null : key.toString();
+    }
+}
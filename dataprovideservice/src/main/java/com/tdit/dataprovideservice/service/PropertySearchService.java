@@ -0,0 +1,367 @@
+package com.tdit.dataprovideservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tdit.dataprovideservice.dto.NearbyProperty;
+import com.tdit.dataprovideservice.dto.NearbyPropertyPageResponse;
+import com.tdit.dataprovideservice.dto.PropertyFilter;
+import com.tdit.dataprovideservice.dto.PropertySearchCriteria;
+import com.tdit.dataprovideservice.dto.PropertySearchResponse;
+import com.tdit.dataprovideservice.dto.PropertySummary;
+import com.tdit.dataprovideservice.entity.Constants;
+import com.tdit.dataprovideservice.repository.PropertyRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.tdit.dataprovideservice.config.PropertyCacheConfig.PROPERTIES;
+import static com.tdit.dataprovideservice.config.PropertyCacheConfig.PROPERTY_LISTINGS;
+import static com.tdit.dataprovideservice.entity.Constants.*;
+
+/**
+ * Searches properties by text and facets, and by location.
+ * <p>
+ * Text searches run on PostgreSQL's full-text search: the generated {@code search_vector} column (title, city,
+ * amenities, description, in that order of weight) and its GIN index, created by {@code schema-postgresql.sql}.
+ * Amenities are matched by jsonb containment on their own GIN index. A search answers with one page of the
+ * best matches and, from a second query over the same matches, the total, the facet counts and a price
+ * histogram. Searches are cached with the listings.
+ * <p>
+ * A location search turns into a latitude/longitude box, the box into the (at most four)
+ * geohash cells covering it, and each cell into one range of the geohash index; only the rows in those ranges are
+ * read, then narrowed to the box and the radius and ordered by distance in the database.
+ * <p>
+ * Distances are equirectangular: exact enough at the radii searched (well under 1% off within
+ * {@value Constants#MAX_SEARCH_RADIUS_KM} km), and plain arithmetic the database can filter and sort by.
+ * Boxes do not wrap around the 180th meridian.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PropertySearchService {
+
+    private static final double KM_PER_DEGREE = 6371.0088 * Math.PI / 180;
+
+    private static final String DISTANCE = "(:kmPerDegree * sqrt((p.latitude - :lat) * (p.latitude - :lat) + " +
+            "(p.longitude - :lng) * (p.longitude - :lng) * :lngScale))";
+    private static final String NEARBY_SELECT = "select new com.tdit.dataprovideservice.dto.NearbyProperty(" +
+            "p.propertyId, p.propertyTitle, p.propertyType, p.city, p.pincode, p.latitude, p.longitude, p.hostId, " +
+            "p.hostName, p.basePrice, p.currency, p.status, " + DISTANCE + ") from Property p where (";
+    private static final String NEARBY_WHERE = ") and p.latitude between :minLat and :maxLat " +
+            "and p.longitude between :minLng and :maxLng " +
+            "and " + DISTANCE + " <= :maxDistance " +
+            "and (" + DISTANCE + " > :afterDistance or (" + DISTANCE + " = :afterDistance and p.propertyId > :afterId)) " +
+            "and (:status is null or p.status = :status) " +
+            "and (:city is null or p.city = :city) " +
+            "and (:propertyType is null or p.propertyType = :propertyType) " +
+            "and (:hostId is null or p.hostId = :hostId) " +
+            "order by " + DISTANCE + ", p.propertyId";
+
+    private static final String TEXT_QUERY = "websearch_to_tsquery('english', :text)";
+    private static final String SEARCH_SELECT = "select p.property_id, p.property_title, p.property_type, p.city, " +
+            "p.state, p.country, p.pincode, p.host_id, p.host_name, p.base_price, p.currency, p.status, p.updated_at " +
+            "from properties p";
+    // One pass over the matches for the total, every facet and the histogram
+    private static final String FACETS_SELECT = "with matched as materialized (select p.property_type, p.currency, " +
+            "p.amenities, floor(p.base_price / :priceBucketWidth) as price_bucket from properties p%s) " +
+            "select 'total' as facet, null as value, count(*) as hits from matched " +
+            "union all select 'propertyType', property_type, count(*) from matched group by property_type " +
+            "union all select 'currency', currency, count(*) from matched group by currency " +
+            "union all select 'amenities', amenity, count(*) from matched " +
+            "cross join lateral jsonb_array_elements_text(amenities) as a(amenity) group by amenity " +
+            "union all select 'price', cast(price_bucket as text), count(*) from matched " +
+            "where price_bucket is not null group by price_bucket";
+    private static final List<String> FACETS = List.of("propertyType", "currency", "amenities");
+
+    private final PropertyRepository propertyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile Boolean postgres;
+
+    /**
+     * One page of the properties matching {@code criteria}, with the total, the facet counts (at most
+     * {@value Constants#MAX_FACET_VALUES} values each) and the price histogram of all matches.
+     *
+     * @throws IllegalArgumentException      for a page past result {@value Constants#MAX_SEARCH_RESULTS} or a
+     *                                       bucket width that is not positive
+     * @throws UnsupportedOperationException when the database is not PostgreSQL
+     */
+    // Read-write so it reads the primary, like the listings sharing the cache, see PropertyServiceAdmin
+    @Cacheable(cacheNames = PROPERTY_LISTINGS, key = "{'search', #criteria, #page, #size, #priceBucketWidth}")
+    @Transactional
+    public PropertySearchResponse search(PropertySearchCriteria criteria, int page, int size, double priceBucketWidth) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PROPERTY_PAGE_SIZE);
+        long offset = (long) Math.max(page, 0) * pageSize;
+        if (offset + pageSize > MAX_SEARCH_RESULTS) {
+            throw new IllegalArgumentException(String.format(ERROR_SEARCH_DEPTH, MAX_SEARCH_RESULTS));
+        }
+        if (!(priceBucketWidth > 0)) {
+            throw new IllegalArgumentException(ERROR_PRICE_BUCKET);
+        }
+        if (!isPostgres()) {
+            throw new UnsupportedOperationException(ERROR_SEARCH_UNSUPPORTED);
+        }
+
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+        String where = searchWhere(criteria, parameters);
+        boolean ranked = parameters.hasValue("text");
+        parameters.addValue("limit", pageSize + 1).addValue("offset", offset);
+        // One row past the page tells whether there is a next one
+        List<PropertySummary> rows = jdbcTemplate.query(SEARCH_SELECT + where
+                + (ranked ? " order by ts_rank_cd(p.search_vector, " + TEXT_QUERY + ") desc, p.property_id"
+                : " order by p.property_id")
+                + " limit :limit offset :offset", parameters, (rs, rowNum) -> new PropertySummary(
+                rs.getLong("property_id"), rs.getString("property_title"), rs.getString("property_type"),
+                rs.getString("city"), rs.getString("state"), rs.getString("country"), rs.getString("pincode"),
+                rs.getObject("host_id", Long.class), rs.getString("host_name"),
+                rs.getObject("base_price", Double.class), rs.getString("currency"), rs.getString("status"),
+                rs.getObject("updated_at", LocalDateTime.class)));
+        boolean hasNext = rows.size() > pageSize;
+        List<PropertySummary> properties = hasNext ? rows.subList(0, pageSize) : rows;
+
+        long[] total = new long[1];
+        Map<String, List<PropertySearchResponse.FacetCount>> facets = new LinkedHashMap<>();
+        FACETS.forEach(facet -> facets.put(facet, new ArrayList<>()));
+        List<PropertySearchResponse.PriceBucket> histogram = new ArrayList<>();
+        parameters.addValue("priceBucketWidth", priceBucketWidth);
+        jdbcTemplate.query(String.format(FACETS_SELECT, where), parameters, rs -> {
+            String facet = rs.getString("facet");
+            String value = rs.getString("value");
+            long hits = rs.getLong("hits");
+            if (facet.equals("total")) {
+                total[0] = hits;
+            } else if (facet.equals("price")) {
+                double from = Double.parseDouble(value) * priceBucketWidth;
+                histogram.add(new PropertySearchResponse.PriceBucket(from, from + priceBucketWidth, hits));
+            } else if (value != null) {
+                facets.get(facet).add(new PropertySearchResponse.FacetCount(value, hits));
+            }
+        });
+        facets.replaceAll((facet, counts) -> counts.stream()
+                .sorted(Comparator.comparingLong(PropertySearchResponse.FacetCount::count).reversed()
+                        .thenComparing(PropertySearchResponse.FacetCount::value))
+                .limit(MAX_FACET_VALUES)
+                .toList());
+        histogram.sort(Comparator.comparingDouble(PropertySearchResponse.PriceBucket::from));
+
+        return PropertySearchResponse.builder()
+                .properties(properties)
+                .page(Math.max(page, 0))
+                .size(properties.size())
+                .hasNext(hasNext)
+                .total(total[0])
+                .facets(facets)
+                .priceHistogram(histogram)
+                .build();
+    }
+
+    /**
+     * The where clause of a search, with only the conditions the criteria use, so the planner sees plain
+     * predicates it can match to the indexes.
+     */
+    private String searchWhere(PropertySearchCriteria criteria, MapSqlParameterSource parameters) {
+        StringBuilder where = new StringBuilder(" where true");
+        if (criteria.text() != null && !criteria.text().isBlank()) {
+            where.append(" and p.search_vector @@ ").append(TEXT_QUERY);
+            parameters.addValue("text", criteria.text());
+        }
+        if (criteria.status() != null) {
+            where.append(" and p.status = :status");
+            parameters.addValue("status", criteria.status());
+        }
+        if (criteria.city() != null) {
+            where.append(" and p.city = :city");
+            parameters.addValue("city", criteria.city());
+        }
+        if (criteria.propertyTypes() != null && !criteria.propertyTypes().isEmpty()) {
+            where.append(" and p.property_type in (:propertyTypes)");
+            parameters.addValue("propertyTypes", criteria.propertyTypes());
+        }
+        if (criteria.currencies() != null && !criteria.currencies().isEmpty()) {
+            where.append(" and p.currency in (:currencies)");
+            parameters.addValue("currencies", criteria.currencies());
+        }
+        if (criteria.minPrice() != null) {
+            where.append(" and p.base_price >= :minPrice");
+            parameters.addValue("minPrice", criteria.minPrice());
+        }
+        if (criteria.maxPrice() != null) {
+            where.append(" and p.base_price <= :maxPrice");
+            parameters.addValue("maxPrice", criteria.maxPrice());
+        }
+        if (criteria.amenities() != null && !criteria.amenities().isEmpty()) {
+            where.append(" and p.amenities @> cast(:amenities as jsonb)");
+            try {
+                parameters.addValue("amenities", objectMapper.writeValueAsString(criteria.amenities()));
+            } catch (JsonProcessingException e) {
+                // A list of strings always serializes
+                throw new IllegalStateException(e);
+            }
+        }
+        return where.toString();
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = jdbcTemplate.getJdbcTemplate().execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName()));
+        }
+        return postgres;
+    }
+
+    /**
+     * One page of the properties within {@code radiusKm} of the point, nearest first. Pass the previous page's
+     * {@code nextAfterDistance} and {@code nextAfterId} as {@code afterDistance} and {@code afterId} (both null
+     * for the first page).
+     *
+     * @throws IllegalArgumentException for an invalid point or a radius outside (0, {@value Constants#MAX_SEARCH_RADIUS_KM}]
+     */
+    @Transactional(readOnly = true)
+    public NearbyPropertyPageResponse findNearby(double latitude, double longitude, double radiusKm,
+                                                 PropertyFilter filter, Double afterDistance, Long afterId, int size) {
+        if (!isCoordinate(latitude, longitude)) {
+            throw new IllegalArgumentException(ERROR_INVALID_COORDINATES);
+        }
+        if (!(radiusKm > 0 && radiusKm <= MAX_SEARCH_RADIUS_KM)) {
+            throw new IllegalArgumentException(String.format(ERROR_SEARCH_RADIUS, MAX_SEARCH_RADIUS_KM));
+        }
+        double latitudeSpan = radiusKm / KM_PER_DEGREE;
+        double longitudeSpan = latitudeSpan / Math.max(Math.cos(Math.toRadians(latitude)), 1e-9);
+        return search(latitude, longitude, Math.max(latitude - latitudeSpan, -90), Math.max(longitude - longitudeSpan, -180),
+                Math.min(latitude + latitudeSpan, 90), Math.min(longitude + longitudeSpan, 180), radiusKm,
+                filter, afterDistance, afterId, size);
+    }
+
+    /**
+     * One page of the properties inside the box, nearest to its center first; paged like {@link #findNearby}.
+     *
+     * @throws IllegalArgumentException for invalid corners or a box over {@value Constants#MAX_SEARCH_BOX_DEGREES}
+     *                                  degrees either way
+     */
+    @Transactional(readOnly = true)
+    public NearbyPropertyPageResponse findWithin(double minLatitude, double minLongitude, double maxLatitude,
+                                                 double maxLongitude, PropertyFilter filter, Double afterDistance,
+                                                 Long afterId, int size) {
+        if (!isCoordinate(minLatitude, minLongitude) || !isCoordinate(maxLatitude, maxLongitude)) {
+            throw new IllegalArgumentException(ERROR_INVALID_COORDINATES);
+        }
+        if (!(minLatitude < maxLatitude && minLongitude < maxLongitude
+                && maxLatitude - minLatitude <= MAX_SEARCH_BOX_DEGREES
+                && maxLongitude - minLongitude <= MAX_SEARCH_BOX_DEGREES)) {
+            throw new IllegalArgumentException(String.format(ERROR_SEARCH_BOX, MAX_SEARCH_BOX_DEGREES));
+        }
+        return search((minLatitude + maxLatitude) / 2, (minLongitude + maxLongitude) / 2,
+                minLatitude, minLongitude, maxLatitude, maxLongitude, Double.MAX_VALUE,
+                filter, afterDistance, afterId, size);
+    }
+
+    private NearbyPropertyPageResponse search(double latitude, double longitude, double minLat, double minLng,
+                                              double maxLat, double maxLng, double maxDistance, PropertyFilter filter,
+                                              Double afterDistance, Long afterId, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PROPERTY_PAGE_SIZE);
+        List<String> cells = Geohash.cover(minLat, minLng, maxLat, maxLng);
+        StringBuilder ranges = new StringBuilder();
+        for (int i = 0; i < cells.size(); i++) {
+            ranges.append(i > 0 ? " or " : "").append("p.geohash between :cell").append(i).append(" and :cellEnd").append(i);
+        }
+
+        double cosLatitude = Math.cos(Math.toRadians(latitude));
+        TypedQuery<NearbyProperty> query = entityManager.createQuery(NEARBY_SELECT + ranges + NEARBY_WHERE, NearbyProperty.class)
+                .setParameter("kmPerDegree", KM_PER_DEGREE)
+                .setParameter("lat", latitude)
+                .setParameter("lng", longitude)
+                .setParameter("lngScale", cosLatitude * cosLatitude)
+                .setParameter("minLat", minLat)
+                .setParameter("maxLat", maxLat)
+                .setParameter("minLng", minLng)
+                .setParameter("maxLng", maxLng)
+                .setParameter("maxDistance", maxDistance)
+                .setParameter("afterDistance", afterDistance != null ? afterDistance : -1.0)
+                .setParameter("afterId", afterId != null ? afterId : Long.MIN_VALUE)
+                .setParameter("status", filter.status())
+                .setParameter("city", filter.city())
+                .setParameter("propertyType", filter.propertyType())
+                .setParameter("hostId", filter.hostId())
+                // One row past the page tells whether there is a next one without counting
+                .setMaxResults(pageSize + 1);
+        for (int i = 0; i < cells.size(); i++) {
+            query.setParameter("cell" + i, cells.get(i)).setParameter("cellEnd" + i, Geohash.last(cells.get(i)));
+        }
+
+        List<NearbyProperty> rows = query.getResultList();
+        boolean hasNext = rows.size() > pageSize;
+        List<NearbyProperty> page = hasNext ? rows.subList(0, pageSize) : rows;
+        NearbyProperty last = hasNext ? page.get(page.size() - 1) : null;
+        return NearbyPropertyPageResponse.builder()
+                .properties(page)
+                .size(page.size())
+                .nextAfterDistance(last != null ? last.distanceKm() : null)
+                .nextAfterId(last != null ? last.propertyId() : null)
+                .hasNext(hasNext)
+                .build();
+    }
+
+    private static boolean isCoordinate(double latitude, double longitude) {
+        return latitude >= LAT_MIN && latitude <= LAT_MAX && longitude >= LNG_MIN && longitude <= LNG_MAX;
+    }
+
+    /**
+     * Gives the properties stored before geohashes were kept theirs, {@value Constants#GEOHASH_BACKFILL_BATCH_SIZE}
+     * per transaction. Rows with coordinates out of range keep none. Runs once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillGeohashes() {
+        long after = Long.MIN_VALUE;
+        int filled = 0;
+        List<PropertyRepository.Coordinates> batch;
+        do {
+            batch = propertyRepository.findWithoutGeohash(after, Limit.of(GEOHASH_BACKFILL_BATCH_SIZE));
+            if (batch.isEmpty()) {
+                break;
+            }
+            List<PropertyRepository.Coordinates> rows = batch;
+            filled += transactionTemplate.execute(transaction -> {
+                int updated = 0;
+                for (PropertyRepository.Coordinates row : rows) {
+                    String geohash = Geohash.encode(row.latitude(), row.longitude(), Geohash.PRECISION);
+                    if (geohash != null) {
+                        updated += propertyRepository.updateGeohash(row.propertyId(), geohash);
+                    }
+                }
+                return updated;
+            });
+            after = batch.get(batch.size() - 1).propertyId();
+        } while (batch.size() == GEOHASH_BACKFILL_BATCH_SIZE);
+
+        if (filled > 0) {
+            cacheManager.getCache(PROPERTIES).clear();
+            log.info("Backfilled the geohash of {} properties", filled);
+        }
+    }
+}
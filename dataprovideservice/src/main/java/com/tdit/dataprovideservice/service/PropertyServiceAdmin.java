@@ -1,26 +1,153 @@
 package com.tdit.dataprovideservice.service;
 
+import com.tdit.dataprovideservice.dto.BulkStatusRequest;
+import com.tdit.dataprovideservice.dto.BulkStatusResponse;
+import com.tdit.dataprovideservice.dto.PropertyFilter;
+import com.tdit.dataprovideservice.dto.PropertyPageResponse;
+import com.tdit.dataprovideservice.dto.PropertySummary;
+import com.tdit.dataprovideservice.entity.Constants;
 import com.tdit.dataprovideservice.entity.Property;
-import com.tdit.dataprovideservice.entity.Status;
 import com.tdit.dataprovideservice.repository.PropertyRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
+import static com.tdit.dataprovideservice.config.PropertyCacheConfig.PROPERTIES;
+import static com.tdit.dataprovideservice.config.PropertyCacheConfig.PROPERTY_LISTINGS;
+import static com.tdit.dataprovideservice.entity.Constants.*;
+
+/**
+ * Property reads go through the caches of {@link com.tdit.dataprovideservice.config.PropertyCacheConfig};
+ * status changes here and upload commits ({@link PropertyBatchWriter}) evict what they touch.
+ * <p>
+ * The reads that fill the caches run read-write, on the primary: an eviction follows the primary's commit, and a
+ * lagging replica could put the old row straight back for the whole expiry.
+ */
 @Service
 @RequiredArgsConstructor
 public class PropertyServiceAdmin {
 
     private final PropertyRepository propertyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = PROPERTIES, key = "#id"),
+            @CacheEvict(cacheNames = PROPERTY_LISTINGS, allEntries = true)})
     public void updatePropertyStatus(Long id, String status) {
-        Property property = propertyRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Property not found"));
-        property.setStatus(status);
-        propertyRepository.save(property);
+        if (propertyRepository.updateStatus(List.of(id), status, LocalDateTime.now()) == 0
+                && !propertyRepository.existsById(id)) {
+            throw new RuntimeException("Property not found");
+        }
+    }
+
+    /**
+     * Sets {@code request.status} on the selected properties, {@value Constants#BULK_STATUS_BATCH_SIZE} at a
+     * time, each batch in its own short transaction. A batch locks its rows in id order before updating them,
+     * the order an upload's batched updates take too, so it waits for a concurrent upload rather than
+     * deadlocking with it. A failure keeps the batches before it.
+     *
+     * @throws IllegalArgumentException when the request selects neither ids nor a filter
+     */
+    public BulkStatusResponse updateStatuses(BulkStatusRequest request) {
+        boolean byIds = request.getIds() != null && !request.getIds().isEmpty();
+        if (!byIds && request.getUploadId() == null && request.getCity() == null && request.getHostId() == null) {
+            throw new IllegalArgumentException(ERROR_BULK_STATUS_SELECTION);
+        }
+        String status = request.getStatus();
+        int[] matchedAndUpdated = new int[2];
+        List<Long> notFound = new ArrayList<>();
+
+        if (byIds) {
+            List<Long> ids = request.getIds().stream().distinct().sorted().toList();
+            for (int from = 0; from < ids.size(); from += BULK_STATUS_BATCH_SIZE) {
+                List<Long> batch = ids.subList(from, Math.min(from + BULK_STATUS_BATCH_SIZE, ids.size()));
+                List<Long> found = updateBatch(batch, status, matchedAndUpdated);
+                if (found.size() < batch.size()) {
+                    Set<Long> foundIds = new HashSet<>(found);
+                    batch.stream().filter(id -> !foundIds.contains(id)).forEach(notFound::add);
+                }
+            }
+        } else {
+            long after = Long.MIN_VALUE;
+            List<Long> batch;
+            do {
+                // Seek past the last batch whatever became of its rows, so none is selected twice
+                batch = propertyRepository.findIdsForStatusChange(after, status, request.getUploadId(),
+                        request.getCity(), request.getHostId(), Limit.of(BULK_STATUS_BATCH_SIZE));
+                if (!batch.isEmpty()) {
+                    updateBatch(batch, status, matchedAndUpdated);
+                    after = batch.get(batch.size() - 1);
+                }
+            } while (batch.size() == BULK_STATUS_BATCH_SIZE);
+        }
+
+        return BulkStatusResponse.builder()
+                .status(status)
+                .matchedRows(matchedAndUpdated[0])
+                .updatedRows(matchedAndUpdated[1])
+                .notFound(notFound)
+                .message(String.format(MESSAGE_BULK_STATUS, matchedAndUpdated[1], status))
+                .build();
     }
-    public List<Property> getRejectedProperties() {
-        return propertyRepository.findByStatus(Status.REJECTED.name());
+
+    /**
+     * @return the ids of {@code ids} that exist
+     */
+    private List<Long> updateBatch(List<Long> ids, String status, int[] matchedAndUpdated) {
+        return transactionTemplate.execute(transaction -> {
+            List<Long> found = propertyRepository.lockIds(ids);
+            if (!found.isEmpty()) {
+                matchedAndUpdated[0] += found.size();
+                matchedAndUpdated[1] += propertyRepository.updateStatus(found, status, LocalDateTime.now());
+                // Evictions are deferred to the commit
+                Cache propertyCache = cacheManager.getCache(PROPERTIES);
+                found.forEach(propertyCache::evict);
+                cacheManager.getCache(PROPERTY_LISTINGS).clear();
+            }
+            return found;
+        });
+    }
+
+    // Misses are not cached: the id may be inserted by the next upload
+    @Cacheable(cacheNames = PROPERTIES, unless = "#result == null")
+    public Optional<Property> getProperty(Long id) {
+        return transactionTemplate.execute(status -> propertyRepository.findById(id));
+    }
+
+    /**
+     * One page of properties matching {@code filter}, in id order, after the id {@code after}
+     * (null for the first page). {@code size} is capped at {@link Constants#MAX_PROPERTY_PAGE_SIZE}.
+     */
+    @Cacheable(cacheNames = PROPERTY_LISTINGS, key = "{#filter, #after, #size}")
+    @Transactional
+    public PropertyPageResponse findProperties(PropertyFilter filter, Long after, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PROPERTY_PAGE_SIZE);
+        // One row past the page tells whether there is a next one without counting
+        List<PropertySummary> rows = propertyRepository.findSummaries(after != null ? after : Long.MIN_VALUE,
+                filter.status(), filter.city(), filter.propertyType(), filter.hostId(), Limit.of(pageSize + 1));
+        boolean hasNext = rows.size() > pageSize;
+        List<PropertySummary> page = hasNext ? rows.subList(0, pageSize) : rows;
+
+        return PropertyPageResponse.builder()
+                .properties(List.copyOf(page))
+                .size(pageSize)
+                .nextAfter(hasNext ? page.get(page.size() - 1).propertyId() : null)
+                .hasNext(hasNext)
+                .build();
     }
 }
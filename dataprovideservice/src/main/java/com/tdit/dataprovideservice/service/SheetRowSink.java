@@ -0,0 +1,30 @@
+package com.tdit.dataprovideservice.service;
+
+import com.tdit.dataprovideservice.dto.ExcelRowData;
+
+/**
+ * Receives the extracted rows of one sheet, in sheet order, on the thread reading that sheet.
+ * Sinks of different sheets may be called concurrently.
+ */
+public interface SheetRowSink {
+
+    /**
+     * @param rowNumber the row number as Excel shows it (the header is row 1)
+     * @param rowData    {@code null} when the row could not be extracted
+     */
+    void accept(int rowNumber, ExcelRowData rowData);
+
+    /**
+     * Called after the last row of the sheet, also when reading it failed.
+     */
+    default void sheetFinished() {
+    }
+
+    /**
+     * Opens the sink of each sheet, on the thread that is about to read it.
+     */
+    @FunctionalInterface
+    interface Factory {
+        SheetRowSink open(int sheetIndex, String sheetName);
+    }
+}
@@ -0,0 +1,34 @@
+package com.tdit.dataprovideservice.service;
+
+/**
+ * Deduplicates the values of highly repetitive columns (city, state, country), so the properties of an upload
+ * share one String per distinct value instead of holding a copy per row.
+ * <p>
+ * A direct-mapped table: a value replaces whatever other value had its slot. It stays bounded however many
+ * distinct values an upload has and frequent values stay in it. Shared by all upload threads without locking;
+ * Strings are immutable, so a racing write at worst costs a later caller a miss.
+ */
+final class StringPool {
+
+    private static final int SLOTS = 4096;
+    // Longer values are free text rather than categories and would only evict the useful ones
+    private static final int MAX_LENGTH = 64;
+
+    private static final String[] TABLE = new String[SLOTS];
+
+    private StringPool() {}
+
+    static String dedup(String value) {
+        if (value == null || value.length() > MAX_LENGTH) {
+            return value;
+        }
+        int hash = value.hashCode();
+        int slot = (hash ^ (hash >>> 16)) & (SLOTS - 1);
+        String pooled = TABLE[slot];
+        if (value.equals(pooled)) {
+            return pooled;
+        }
+        TABLE[slot] = value;
+        return value;
+    }
+}
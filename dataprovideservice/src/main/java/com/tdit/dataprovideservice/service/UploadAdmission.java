@@ -0,0 +1,273 @@
+package com.tdit.dataprovideservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.tdit.dataprovideservice.config.ExcelProcessingProperties;
+import com.tdit.dataprovideservice.reader.UploadFormat;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.tdit.dataprovideservice.entity.Constants.ERROR_UPLOAD_OVER_BUDGET;
+import static com.tdit.dataprovideservice.entity.Constants.ERROR_UPLOAD_USER_CONCURRENCY;
+import static com.tdit.dataprovideservice.entity.Constants.ERROR_UPLOAD_USER_RATE;
+
+/**
+ * Admission control for uploads, configured under {@code excel.processing.admission}.
+ * <p>
+ * Every upload reserves its estimated heap, its file size times an expansion factor, from a budget shared by all
+ * uploads before it is read. When the budget is taken it waits up to {@code max-wait} in a fair queue of at most
+ * {@code max-queued} uploads. Each uploader is also held to a number of concurrent uploads and a rate per minute
+ * (a token bucket). Uploads that cannot be admitted get an {@link UploadRejectedException} saying when to retry.
+ * <p>
+ * The reservation is held by the returned {@link Permit} until the upload, or its async job, ends.
+ */
+@Slf4j
+@Component
+public class UploadAdmission {
+
+    static final String ADMITTED = "excel.upload.admission.admitted";
+    static final String REJECTED = "excel.upload.admission.rejected";
+    static final String QUEUED = "excel.upload.admission.queued";
+    static final String RESERVED = "excel.upload.admission.reserved";
+
+    static final String REASON_QUEUE = "queue";
+    static final String REASON_BUDGET = "budget";
+    static final String REASON_USER_CONCURRENCY = "user-concurrency";
+    static final String REASON_USER_RATE = "user-rate";
+
+    // The budget is counted in KiB, so a semaphore's int permits cover any heap
+    private static final long UNIT = 1024;
+    // Idle uploaders are forgotten; their bucket would be full again by then anyway
+    private static final long IDLE_EXPIRY_NANOS = Duration.ofHours(1).toNanos();
+
+    private final ExcelProcessingProperties.Admission config;
+    private final boolean domReader;
+    private final int budgetUnits;
+    private final Semaphore budget;
+    private final AtomicInteger queued = new AtomicInteger();
+    // Only changed through compute, which also reschedules the uploader's expiry (see Uploader)
+    final Cache<String, Uploader> uploaders = Caffeine.newBuilder()
+            .expireAfter(new Expiry<String, Uploader>() {
+                @Override
+                public long expireAfterCreate(String uploadedBy, Uploader uploader, long currentTime) {
+                    return uploader.expiresAfterNanos();
+                }
+
+                @Override
+                public long expireAfterUpdate(String uploadedBy, Uploader uploader, long currentTime,
+                                              long currentDuration) {
+                    return uploader.expiresAfterNanos();
+                }
+
+                @Override
+                public long expireAfterRead(String uploadedBy, Uploader uploader, long currentTime,
+                                            long currentDuration) {
+                    return uploader.expiresAfterNanos();
+                }
+            })
+            .build();
+    private final Counter admitted;
+    private final Map<String, Counter> rejected;
+
+    public UploadAdmission(ExcelProcessingProperties properties, MeterRegistry registry) {
+        this.config = properties.getAdmission();
+        this.domReader = properties.getReaderMode() == ExcelProcessingProperties.ReaderMode.DOM;
+        long budgetBytes = config.getMemoryBudget() != null
+                ? config.getMemoryBudget().toBytes()
+                : Runtime.getRuntime().maxMemory() / 2;
+        this.budgetUnits = (int) Math.max(1, Math.min(Integer.MAX_VALUE, budgetBytes / UNIT));
+        this.budget = new Semaphore(budgetUnits, true);
+
+        Gauge.builder(QUEUED, queued, AtomicInteger::get)
+                .description("Uploads waiting for memory budget")
+                .register(registry);
+        Gauge.builder(RESERVED, budget, semaphore -> (double) (budgetUnits - semaphore.availablePermits()) * UNIT)
+                .description("Heap reserved by admitted uploads, by their estimates")
+                .baseUnit("bytes")
+                .register(registry);
+        admitted = Counter.builder(ADMITTED)
+                .description("Uploads admitted")
+                .register(registry);
+        rejected = Map.of(
+                REASON_QUEUE, rejectedCounter(registry, REASON_QUEUE),
+                REASON_BUDGET, rejectedCounter(registry, REASON_BUDGET),
+                REASON_USER_CONCURRENCY, rejectedCounter(registry, REASON_USER_CONCURRENCY),
+                REASON_USER_RATE, rejectedCounter(registry, REASON_USER_RATE));
+    }
+
+    private static Counter rejectedCounter(MeterRegistry registry, String reason) {
+        return Counter.builder(REJECTED)
+                .description("Uploads rejected by admission control, by reason")
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    /**
+     * Admits an upload or rejects it. Blocks while it waits for budget.
+     *
+     * @throws UploadRejectedException when the uploader is over a limit, too many uploads wait already, or no
+     *                                 budget came free within {@code max-wait}
+     */
+    public Permit admit(String uploadedBy, long fileSizeBytes, UploadFormat format) {
+        if (!config.isEnabled()) {
+            return new Permit(null, 0);
+        }
+        String key = Objects.toString(uploadedBy, "");
+        Rejection[] rejection = new Rejection[1];
+        uploaders.asMap().compute(key, (user, uploader) -> {
+            Uploader counted = uploader != null ? uploader : new Uploader();
+            rejection[0] = counted.take();
+            return counted;
+        });
+        if (rejection[0] != null) {
+            throw reject(rejection[0].reason(), rejection[0].message(), rejection[0].retryAfter());
+        }
+
+        int units = estimateUnits(fileSizeBytes, format);
+        try {
+            reserve(units);
+        } catch (UploadRejectedException e) {
+            release(key, true);
+            throw e;
+        }
+        admitted.increment();
+        return new Permit(key, units);
+    }
+
+    /**
+     * @param refund gives the rate token back, for an upload that was turned away after all
+     */
+    private void release(String uploadedBy, boolean refund) {
+        uploaders.asMap().computeIfPresent(uploadedBy, (user, uploader) -> {
+            uploader.release(refund);
+            return uploader;
+        });
+    }
+
+    /**
+     * Capped at the whole budget, so a file larger than the estimate allows still runs, on its own.
+     */
+    private int estimateUnits(long fileSizeBytes, UploadFormat format) {
+        double factor = domReader && format == UploadFormat.XLSX
+                ? config.getDomExpansionFactor()
+                : config.getExpansionFactor();
+        double units = Math.ceil(Math.max(0, fileSizeBytes) * factor / UNIT);
+        return (int) Math.max(1, Math.min(budgetUnits, units));
+    }
+
+    private void reserve(int units) {
+        try {
+            // A zero timeout still honours the queue: an upload does not jump ahead of the waiting ones
+            if (budget.tryAcquire(units, 0, TimeUnit.NANOSECONDS)) {
+                return;
+            }
+            if (queued.incrementAndGet() > config.getMaxQueued()) {
+                queued.decrementAndGet();
+                throw reject(REASON_QUEUE, ERROR_UPLOAD_OVER_BUDGET, config.getRetryAfter());
+            }
+            try {
+                if (budget.tryAcquire(units, config.getMaxWait().toNanos(), TimeUnit.NANOSECONDS)) {
+                    return;
+                }
+            } finally {
+                queued.decrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        throw reject(REASON_BUDGET, ERROR_UPLOAD_OVER_BUDGET, config.getRetryAfter());
+    }
+
+    private UploadRejectedException reject(String reason, String message, Duration retryAfter) {
+        rejected.get(reason).increment();
+        log.warn("Rejected upload ({}), retry after {}s", reason, retryAfter.toSeconds());
+        return new UploadRejectedException(message, retryAfter);
+    }
+
+    /**
+     * An admitted upload's share of the budget and of its uploader's limits. Closing it more than once is harmless.
+     */
+    public final class Permit implements AutoCloseable {
+
+        private final String uploadedBy;
+        private final int units;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(String uploadedBy, int units) {
+            this.uploadedBy = uploadedBy;
+            this.units = units;
+        }
+
+        @Override
+        public void close() {
+            if (uploadedBy != null && released.compareAndSet(false, true)) {
+                budget.release(units);
+                release(uploadedBy, false);
+            }
+        }
+    }
+
+    private record Rejection(String reason, String message, Duration retryAfter) {}
+
+    /**
+     * Running uploads and rate tokens of one uploader. A limit of 0 or less is no limit.
+     * <p>
+     * Only changed inside a compute of {@link #uploaders}, which serializes the changes of one uploader and then
+     * reschedules its expiry: it never expires while it has uploads running, so its limits hold however long they
+     * take. Rejections are thrown once the compute has returned, so nothing logs while the map's lock is held (on a
+     * virtual thread that would pin the carrier).
+     */
+    final class Uploader {
+
+        private int running;
+        private double tokens = config.getPerUserPerMinute();
+        private long refilledAt = System.nanoTime();
+
+        /**
+         * @return why the upload is turned away, or null when it is counted as running
+         */
+        private Rejection take() {
+            int concurrency = config.getPerUserConcurrency();
+            if (concurrency > 0 && running >= concurrency) {
+                return new Rejection(REASON_USER_CONCURRENCY, ERROR_UPLOAD_USER_CONCURRENCY, config.getRetryAfter());
+            }
+            int perMinute = config.getPerUserPerMinute();
+            if (perMinute > 0) {
+                double nanosPerToken = TimeUnit.MINUTES.toNanos(1) / (double) perMinute;
+                long now = System.nanoTime();
+                tokens = Math.min(perMinute, tokens + (now - refilledAt) / nanosPerToken);
+                refilledAt = now;
+                if (tokens < 1) {
+                    Duration retryAfter = Duration.ofNanos((long) Math.ceil((1 - tokens) * nanosPerToken));
+                    return new Rejection(REASON_USER_RATE, ERROR_UPLOAD_USER_RATE, retryAfter);
+                }
+                tokens--;
+            }
+            running++;
+            return null;
+        }
+
+        private void release(boolean refund) {
+            running--;
+            if (refund && config.getPerUserPerMinute() > 0) {
+                tokens = Math.min(config.getPerUserPerMinute(), tokens + 1);
+            }
+        }
+
+        long expiresAfterNanos() {
+            return running > 0 ? Long.MAX_VALUE : IDLE_EXPIRY_NANOS;
+        }
+    }
+}
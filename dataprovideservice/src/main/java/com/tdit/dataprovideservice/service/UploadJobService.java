@@ -0,0 +1,156 @@
+package com.tdit.dataprovideservice.service;
+
+import com.tdit.dataprovideservice.config.UploadExecutorConfig;
+import com.tdit.dataprovideservice.dto.ExcelUploadResponse;
+import com.tdit.dataprovideservice.entity.UploadAudit;
+import com.tdit.dataprovideservice.reader.UploadFormat;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static com.tdit.dataprovideservice.entity.Constants.*;
+
+/**
+ * Accepts uploads for background processing. The file is {@link UploadSpool spooled} to disk so the request
+ * can return straight away, and the job runs on the bounded {@code uploadJobExecutor}.
+ */
+@Slf4j
+@Service
+public class UploadJobService {
+
+    private final ExcelUploadService excelUploadService;
+    private final UploadProgressRegistry uploadProgressRegistry;
+    private final UploadSpool uploadSpool;
+    private final UploadAdmission uploadAdmission;
+    private final AsyncTaskExecutor jobExecutor;
+
+    public UploadJobService(ExcelUploadService excelUploadService,
+                            UploadProgressRegistry uploadProgressRegistry,
+                            UploadSpool uploadSpool,
+                            UploadAdmission uploadAdmission,
+                            @Qualifier(UploadExecutorConfig.JOB_EXECUTOR) AsyncTaskExecutor jobExecutor) {
+        this.excelUploadService = excelUploadService;
+        this.uploadProgressRegistry = uploadProgressRegistry;
+        this.uploadSpool = uploadSpool;
+        this.uploadAdmission = uploadAdmission;
+        this.jobExecutor = jobExecutor;
+    }
+
+    /**
+     * The upload is {@link UploadAdmission admitted} before it is queued and keeps its reservation until the job ends.
+     *
+     * @throws UploadRejectedException when the upload is not admitted
+     * @throws TaskRejectedException   when the job queue is full
+     */
+    public ExcelUploadResponse submit(MultipartFile file, UploadFormat format, String uploadedBy) throws IOException {
+        UploadAdmission.Permit permit = uploadAdmission.admit(uploadedBy, file.getSize(), format);
+        try {
+            return submit(file, format, uploadedBy, permit);
+        } catch (IOException | RuntimeException e) {
+            permit.close();
+            throw e;
+        }
+    }
+
+    private ExcelUploadResponse submit(MultipartFile file, UploadFormat format, String uploadedBy,
+                                       UploadAdmission.Permit permit) throws IOException {
+        Path spooled = uploadSpool.spool(file);
+        UploadAudit audit;
+        try {
+            audit = excelUploadService.createAudit(file.getOriginalFilename(), uploadedBy);
+        } catch (RuntimeException e) {
+            uploadSpool.delete(spooled);
+            throw e;
+        }
+
+        UUID uploadId = audit.getUploadId();
+        try {
+            enqueue(uploadId, spooled, format, permit);
+        } catch (TaskRejectedException e) {
+            excelUploadService.deleteAudit(uploadId);
+            throw e;
+        }
+
+        log.info("Queued upload {} ({}) for user {}", uploadId, file.getOriginalFilename(), uploadedBy);
+        return accepted(uploadId, file);
+    }
+
+    /**
+     * Queues a failed upload to continue from its last committed chunk.
+     *
+     * @throws UploadRejectedException when the upload is not admitted
+     * @throws TaskRejectedException   when the job queue is full; the upload stays FAILED
+     */
+    public ExcelUploadResponse resume(UUID uploadId, MultipartFile file, UploadFormat format) throws IOException {
+        String uploadedBy = excelUploadService.getUploadStatus(uploadId).getUploadedBy();
+        UploadAdmission.Permit permit = uploadAdmission.admit(uploadedBy, file.getSize(), format);
+        try {
+            return resume(uploadId, file, format, permit);
+        } catch (IOException | RuntimeException e) {
+            permit.close();
+            throw e;
+        }
+    }
+
+    private ExcelUploadResponse resume(UUID uploadId, MultipartFile file, UploadFormat format,
+                                       UploadAdmission.Permit permit) throws IOException {
+        Path spooled = uploadSpool.spool(file);
+        try {
+            excelUploadService.claimForResume(uploadId, file.getOriginalFilename(), new FileSystemResource(spooled));
+        } catch (IOException | RuntimeException e) {
+            uploadSpool.delete(spooled);
+            throw e;
+        }
+
+        try {
+            enqueue(uploadId, spooled, format, permit);
+        } catch (TaskRejectedException e) {
+            excelUploadService.markFailed(uploadId);
+            throw e;
+        }
+
+        log.info("Queued resume of upload {} ({})", uploadId, file.getOriginalFilename());
+        return accepted(uploadId, file);
+    }
+
+    private void enqueue(UUID uploadId, Path spooled, UploadFormat format, UploadAdmission.Permit permit) {
+        uploadProgressRegistry.queue(uploadId);
+        try {
+            jobExecutor.execute(() -> runJob(uploadId, spooled, format, permit));
+        } catch (TaskRejectedException e) {
+            uploadProgressRegistry.finish(uploadId);
+            uploadSpool.delete(spooled);
+            throw e;
+        }
+    }
+
+    private ExcelUploadResponse accepted(UUID uploadId, MultipartFile file) {
+        return ExcelUploadResponse.builder()
+                .uploadId(uploadId)
+                .fileName(file.getOriginalFilename())
+                .status(STATUS_PROCESSING)
+                .message(MESSAGE_UPLOAD_ACCEPTED)
+                .build();
+    }
+
+    private void runJob(UUID uploadId, Path spooled, UploadFormat format, UploadAdmission.Permit permit) {
+        try {
+            excelUploadService.processUpload(uploadId, new FileSystemResource(spooled), format);
+        } catch (Exception e) {
+            // Already marked FAILED unless the failure happened outside the pipeline, e.g. loading the audit
+            excelUploadService.markFailed(uploadId);
+        } finally {
+            uploadProgressRegistry.finish(uploadId);
+            uploadSpool.delete(spooled);
+            permit.close();
+        }
+    }
+}
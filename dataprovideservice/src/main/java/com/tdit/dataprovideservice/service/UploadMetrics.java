@@ -0,0 +1,222 @@
+package com.tdit.dataprovideservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Upload metrics, published through Actuator ({@code /actuator/metrics}, {@code /actuator/prometheus}).
+ * <p>
+ * Per-upload figures (duration, time per stage, throughput, file size, allocated bytes) are collected
+ * in an {@link Upload} while it runs and recorded once it finishes, tagged with its outcome. Row
+ * counters are updated as chunks commit, rejected rows as they are validated.
+ */
+@Component
+public class UploadMetrics {
+
+    static final String UPLOADS_ACTIVE = "excel.upload.active";
+    static final String UPLOAD_DURATION = "excel.upload.duration";
+    static final String STAGE_DURATION = "excel.upload.stage.duration";
+    static final String THROUGHPUT = "excel.upload.throughput";
+    static final String FILE_SIZE = "excel.upload.file.size";
+    static final String ALLOCATED = "excel.upload.allocated";
+    static final String ROWS = "excel.upload.rows";
+    static final String ROWS_REJECTED = "excel.upload.rows.rejected";
+
+    static final String STAGE_PARSE = "parse";
+    static final String STAGE_VALIDATE = "validate";
+    static final String STAGE_CONVERT = "convert";
+    static final String STAGE_PERSIST = "persist";
+
+    static final String REASON_EXTRACTION = "Row could not be extracted";
+    static final String REASON_CONVERSION = "Conversion to property failed";
+    private static final String REASON_OTHER = "other";
+    // Reasons are the fixed validation messages; the cap only guards against a message that embeds row data
+    private static final int MAX_REJECT_REASONS = 100;
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final boolean ALLOCATION_TRACKING = THREADS instanceof com.sun.management.ThreadMXBean threads
+            && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled();
+
+    private final MeterRegistry registry;
+    private final AtomicInteger activeUploads = new AtomicInteger();
+    private final Counter successRows;
+    private final Counter warningRows;
+    private final Counter failedRows;
+    private final Counter unchangedRows;
+    private final Map<String, Counter> rejectedRows = new ConcurrentHashMap<>();
+
+    public UploadMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        Gauge.builder(UPLOADS_ACTIVE, activeUploads, AtomicInteger::get)
+                .description("Uploads currently being processed")
+                .register(registry);
+        successRows = rowCounter("success");
+        warningRows = rowCounter("warning");
+        failedRows = rowCounter("failed");
+        unchangedRows = rowCounter("unchanged");
+    }
+
+    public Upload start(long fileSizeBytes) {
+        activeUploads.incrementAndGet();
+        return new Upload(fileSizeBytes);
+    }
+
+    private Counter rowCounter(String result) {
+        return Counter.builder(ROWS)
+                .description("Committed rows by result; warning and unchanged rows are also counted as success")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private Counter rejectedCounter(String reason) {
+        Counter counter = rejectedRows.get(reason);
+        if (counter != null) {
+            return counter;
+        }
+        String tag = rejectedRows.size() < MAX_REJECT_REASONS ? reason : REASON_OTHER;
+        return rejectedRows.computeIfAbsent(tag, key -> Counter.builder(ROWS_REJECTED)
+                .description("Rejected rows by reason; a row failing several rules counts once per rule")
+                .tag("reason", key)
+                .register(registry));
+    }
+
+    /**
+     * Bytes allocated so far by the current thread, or -1 when the JVM does not track it.
+     */
+    static long currentThreadAllocatedBytes() {
+        return ALLOCATION_TRACKING ? ((com.sun.management.ThreadMXBean) THREADS).getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    /**
+     * Figures of one running upload. Thread-safe: the pipeline stages report into it concurrently.
+     */
+    public class Upload {
+
+        private final long startedNanos = System.nanoTime();
+        private final long fileSizeBytes;
+        private final LongAdder parseNanos = new LongAdder();
+        private final LongAdder validateNanos = new LongAdder();
+        private final LongAdder convertNanos = new LongAdder();
+        private final LongAdder persistNanos = new LongAdder();
+        private final LongAdder allocatedBytes = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+
+        private Upload(long fileSizeBytes) {
+            this.fileSizeBytes = fileSizeBytes;
+        }
+
+        public void parsed(long nanos) {
+            parseNanos.add(nanos);
+        }
+
+        public void validated(long nanos) {
+            validateNanos.add(nanos);
+        }
+
+        public void converted(long nanos) {
+            convertNanos.add(nanos);
+        }
+
+        public void persisted(long nanos) {
+            persistNanos.add(nanos);
+        }
+
+        /**
+         * Adds what the current thread allocated since {@code mark}, a value of {@link #currentThreadAllocatedBytes()}.
+         */
+        public void allocatedSince(long mark) {
+            if (mark >= 0) {
+                allocatedBytes.add(currentThreadAllocatedBytes() - mark);
+            }
+        }
+
+        public void rowsCommitted(int success, int warning, int failed, int unchanged) {
+            successRows.increment(success);
+            warningRows.increment(warning);
+            failedRows.increment(failed);
+            unchangedRows.increment(unchanged);
+            rows.add(success + failed);
+        }
+
+        public void rowRejected(String reason) {
+            rejectedCounter(reason).increment();
+        }
+
+        /**
+         * Counts every message of a combined validation error separately.
+         */
+        public void validationFailed(String errorMessage) {
+            int from = 0;
+            int separator;
+            while ((separator = errorMessage.indexOf(CompiledConstraints.MESSAGE_SEPARATOR, from)) >= 0) {
+                rowRejected(errorMessage.substring(from, separator));
+                from = separator + CompiledConstraints.MESSAGE_SEPARATOR.length();
+            }
+            rowRejected(errorMessage.substring(from));
+        }
+
+        public void finish(String outcome) {
+            activeUploads.decrementAndGet();
+            long elapsedNanos = System.nanoTime() - startedNanos;
+
+            Timer.builder(UPLOAD_DURATION)
+                    .description("Wall time of an upload")
+                    .tag("outcome", outcome)
+                    .register(registry)
+                    .record(elapsedNanos, TimeUnit.NANOSECONDS);
+            recordStage(STAGE_PARSE, parseNanos, outcome);
+            recordStage(STAGE_VALIDATE, validateNanos, outcome);
+            recordStage(STAGE_CONVERT, convertNanos, outcome);
+            recordStage(STAGE_PERSIST, persistNanos, outcome);
+
+            if (elapsedNanos > 0) {
+                DistributionSummary.builder(THROUGHPUT)
+                        .description("Rows committed per second of upload wall time")
+                        .baseUnit("rows.per.second")
+                        .tag("outcome", outcome)
+                        .register(registry)
+                        .record(rows.sum() / (elapsedNanos / 1e9));
+            }
+            if (fileSizeBytes >= 0) {
+                DistributionSummary.builder(FILE_SIZE)
+                        .description("Size of the uploaded workbook")
+                        .baseUnit("bytes")
+                        .tag("outcome", outcome)
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(1024d)
+                        .maximumExpectedValue(512d * 1024 * 1024)
+                        .register(registry)
+                        .record(fileSizeBytes);
+            }
+            if (ALLOCATION_TRACKING) {
+                DistributionSummary.builder(ALLOCATED)
+                        .description("Heap allocated by the parser, workers and writer of an upload")
+                        .baseUnit("bytes")
+                        .tag("outcome", outcome)
+                        .register(registry)
+                        .record(allocatedBytes.sum());
+            }
+        }
+
+        private void recordStage(String stage, LongAdder nanos, String outcome) {
+            Timer.builder(STAGE_DURATION)
+                    .description("Time an upload spent per stage; validate and convert are summed over all workers")
+                    .tag("stage", stage)
+                    .tag("outcome", outcome)
+                    .register(registry)
+                    .record(nanos.sum(), TimeUnit.NANOSECONDS);
+        }
+    }
+}
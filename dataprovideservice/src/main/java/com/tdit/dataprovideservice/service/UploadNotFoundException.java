@@ -0,0 +1,21 @@
+package com.tdit.dataprovideservice.service;
+
+import lombok.Getter;
+
+import java.util.UUID;
+
+import static com.tdit.dataprovideservice.entity.Constants.UPLOAD_NOT_FOUND;
+
+/**
+ * No upload audit exists for {@link #getUploadId()}.
+ */
+@Getter
+public class UploadNotFoundException extends RuntimeException {
+
+    private final UUID uploadId;
+
+    public UploadNotFoundException(UUID uploadId) {
+        super(UPLOAD_NOT_FOUND + uploadId);
+        this.uploadId = uploadId;
+    }
+}
@@ -0,0 +1,446 @@
+package com.tdit.dataprovideservice.service;
+
+import com.tdit.dataprovideservice.config.ExcelProcessingProperties;
+import com.tdit.dataprovideservice.config.UploadExecutorConfig;
+import com.tdit.dataprovideservice.dto.ExcelRowData;
+import com.tdit.dataprovideservice.dto.UploadProgress;
+import com.tdit.dataprovideservice.entity.Property;
+import com.tdit.dataprovideservice.entity.UploadAudit;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.tdit.dataprovideservice.entity.Constants.*;
+
+/**
+ * Runs an upload as parse -> validate/convert -> persist stages connected by bounded queues.
+ * <p>
+ * The parser runs on {@code uploadParserExecutor} (reading several sheets at once, see
+ * {@link ExcelProcessorService#processExcelFile}), validation and conversion on a pool of workers,
+ * and the writer on the calling thread. Every sheet numbers its own rows; the writer puts the rows of
+ * each sheet back into order and hands them to a {@link ChunkWriter} in chunks of {@code chunk-size}
+ * rows. A chunk may mix sheets, but for every sheet it continues exactly where the last one stopped,
+ * so the {@link SheetCheckpoint}s of the committed chunks are a valid point to resume from.
+ * <p>
+ * Every stage reports its time and allocations to the upload's {@link UploadMetrics.Upload}. Parse time
+ * leaves out the time a sheet is blocked on a full queue, so it shows the reader's own cost.
+ */
+@Slf4j
+@Component
+public class UploadPipeline {
+
+    private static final ParsedRow END_OF_INPUT = new ParsedRow(-1, null, -1, -1, null);
+    private static final ProcessedRow END_OF_RESULTS = new ProcessedRow(-1, -1, null, null);
+
+    private final ExcelProcessorService excelProcessorService;
+    private final ExcelValidationService excelValidationService;
+    private final ExcelProcessingProperties properties;
+    private final AsyncTaskExecutor parserExecutor;
+    private final AsyncTaskExecutor workerExecutor;
+
+    public UploadPipeline(ExcelProcessorService excelProcessorService,
+                          ExcelValidationService excelValidationService,
+                          ExcelProcessingProperties properties,
+                          @Qualifier(UploadExecutorConfig.PARSER_EXECUTOR) AsyncTaskExecutor parserExecutor,
+                          @Qualifier(UploadExecutorConfig.WORKER_EXECUTOR) AsyncTaskExecutor workerExecutor) {
+        this.excelProcessorService = excelProcessorService;
+        this.excelValidationService = excelValidationService;
+        this.properties = properties;
+        this.parserExecutor = parserExecutor;
+        this.workerExecutor = workerExecutor;
+    }
+
+    /**
+     * Runs the upload, skipping the rows of each sheet that {@code result} already counts as committed.
+     * {@code result} is updated after every committed chunk, so on failure it still
+     * describes exactly what was persisted.
+     */
+    public void run(RowProducer producer, ChunkWriter chunkWriter, UploadProgress progress,
+                    UploadMetrics.Upload metrics, Result result) throws Exception {
+        ExcelProcessingProperties.Pipeline config = properties.getPipeline();
+        int workers = Math.max(1, config.getWorkers());
+        BlockingQueue<ParsedRow> parsedRows = new ArrayBlockingQueue<>(config.getQueueCapacity());
+        BlockingQueue<ProcessedRow> processedRows = new ArrayBlockingQueue<>(config.getQueueCapacity());
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Future<?>> tasks = new ArrayList<>(workers + 1);
+
+        try {
+            // The writer moves result's checkpoints on while the sheets are still being opened
+            Map<Integer, SheetCheckpoint> resumePoints = Map.copyOf(result.sheetCheckpoints);
+            tasks.add(parserExecutor.submit(() -> parse(producer, parsedRows, workers, resumePoints, metrics, failure)));
+            for (int i = 0; i < workers; i++) {
+                tasks.add(workerExecutor.submit(() -> process(parsedRows, processedRows, progress, metrics, failure)));
+            }
+
+            long allocationMark = UploadMetrics.currentThreadAllocatedBytes();
+            try {
+                write(processedRows, workers, chunkWriter, Math.max(1, config.getChunkSize()), progress, metrics,
+                        result, resumePoints, failure);
+            } finally {
+                metrics.allocatedSince(allocationMark);
+            }
+
+            Throwable error = failure.get();
+            if (error != null) {
+                throw error instanceof Exception exception ? exception : new IllegalStateException(error);
+            }
+        } finally {
+            // No-op for finished stages; unblocks the others if the writer bailed out early
+            tasks.forEach(task -> task.cancel(true));
+        }
+    }
+
+    private void parse(RowProducer producer, BlockingQueue<ParsedRow> parsedRows, int workers,
+                       Map<Integer, SheetCheckpoint> resumePoints, UploadMetrics.Upload metrics,
+                       AtomicReference<Throwable> failure) {
+        Thread parserThread = Thread.currentThread();
+        long startedNanos = System.nanoTime();
+        AtomicLong openedNanos = new AtomicLong();
+        long allocationMark = UploadMetrics.currentThreadAllocatedBytes();
+        try {
+            producer.produce((sheetIndex, sheetName) -> {
+                openedNanos.compareAndSet(0, System.nanoTime());
+                return new SheetParser(sheetIndex, sheetName, resumePoints.get(sheetIndex), parsedRows,
+                        parserThread, metrics);
+            });
+        } catch (CancellationException e) {
+            return;
+        } catch (Throwable e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            // Opening the workbook; the sheets report their own reading time
+            long opened = openedNanos.get();
+            metrics.parsed((opened != 0 ? opened : System.nanoTime()) - startedNanos);
+            metrics.allocatedSince(allocationMark);
+        }
+        for (int i = 0; i < workers; i++) {
+            put(parsedRows, END_OF_INPUT);
+        }
+    }
+
+    private void process(BlockingQueue<ParsedRow> parsedRows, BlockingQueue<ProcessedRow> processedRows,
+                         UploadProgress progress, UploadMetrics.Upload metrics, AtomicReference<Throwable> failure) {
+        long allocationMark = UploadMetrics.currentThreadAllocatedBytes();
+        try {
+            ParsedRow row;
+            while ((row = parsedRows.take()) != END_OF_INPUT && failure.get() == null) {
+                ProcessedRow processed = processRow(row, metrics);
+                progress.rowValidated();
+                processedRows.put(processed);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Throwable e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            metrics.allocatedSince(allocationMark);
+        }
+        put(processedRows, END_OF_RESULTS);
+    }
+
+    private ProcessedRow processRow(ParsedRow row, UploadMetrics.Upload metrics) {
+        ExcelRowData rowData = row.rowData();
+        if (rowData == null) {
+            metrics.rowRejected(UploadMetrics.REASON_EXTRACTION);
+            return new ProcessedRow(row.sheetIndex(), row.sequence(), UploadAudit.RowResult.builder()
+                    .success(false)
+                    .errorMessage(ERROR_ROW_EXTRACTION)
+                    .sheetIndex(row.sheetIndex())
+                    .sheetName(row.sheetName())
+                    .rowNumber(row.rowNumber())
+                    .build(), null);
+        }
+
+        long startedNanos = System.nanoTime();
+        UploadAudit.RowResult validationResult = excelValidationService.validateRow(rowData, row.rowNumber());
+        long validatedNanos = System.nanoTime();
+        metrics.validated(validatedNanos - startedNanos);
+        validationResult.setSheetIndex(row.sheetIndex());
+        validationResult.setSheetName(row.sheetName());
+        if (!validationResult.isSuccess() || validationResult.getWarningMessage() != null) {
+            validationResult.setValues(sourceValues(rowData));
+        }
+        if (!validationResult.isSuccess()) {
+            metrics.validationFailed(validationResult.getErrorMessage());
+            return new ProcessedRow(row.sheetIndex(), row.sequence(), validationResult, null);
+        }
+
+        try {
+            Property property = excelProcessorService.convertToProperty(rowData);
+            metrics.converted(System.nanoTime() - validatedNanos);
+            return new ProcessedRow(row.sheetIndex(), row.sequence(), validationResult, property);
+        } catch (Exception e) {
+            metrics.rowRejected(UploadMetrics.REASON_CONVERSION);
+            log.error(ERROR_PROPERTY_CONVERSION, row.rowNumber(), e.getMessage());
+            validationResult.setSuccess(false);
+            validationResult.setErrorMessage(ERROR_PROPERTY_CONVERSION + e.getMessage());
+            validationResult.setValues(sourceValues(rowData));
+            return new ProcessedRow(row.sheetIndex(), row.sequence(), validationResult, null);
+        }
+    }
+
+    private static List<String> sourceValues(ExcelRowData rowData) {
+        return rowData.getSourceValues() != null ? Arrays.asList(rowData.getSourceValues()) : null;
+    }
+
+    private void write(BlockingQueue<ProcessedRow> processedRows, int workers, ChunkWriter chunkWriter,
+                       int chunkSize, UploadProgress progress, UploadMetrics.Upload metrics, Result result,
+                       Map<Integer, SheetCheckpoint> resumePoints, AtomicReference<Throwable> failure)
+            throws InterruptedException {
+        // Workers finish rows out of order; a row waits here until every earlier row of its sheet has arrived
+        Map<Integer, SheetCursor> sheets = new HashMap<>();
+        Chunk chunk = new Chunk(result, chunkSize);
+        int finishedWorkers = 0;
+
+        while (finishedWorkers < workers && failure.get() == null) {
+            ProcessedRow row = processedRows.take();
+            if (row == END_OF_RESULTS) {
+                finishedWorkers++;
+                continue;
+            }
+            SheetCursor sheet = sheets.computeIfAbsent(row.sheetIndex(), index -> new SheetCursor(
+                    Optional.ofNullable(resumePoints.get(index)).map(SheetCheckpoint::committedRows).orElse(0)));
+            sheet.pending.put(row.sequence(), row);
+            ProcessedRow next;
+            while ((next = sheet.pending.remove(sheet.nextSequence)) != null) {
+                sheet.nextSequence++;
+                chunk.add(next.result(), next.property(), sheet.nextSequence);
+                if (chunk.getRowResults().size() >= chunkSize) {
+                    commit(chunk, chunkWriter, progress, metrics, result);
+                    chunk = new Chunk(result, chunkSize);
+                }
+            }
+        }
+
+        if (failure.get() == null && !chunk.getRowResults().isEmpty()) {
+            commit(chunk, chunkWriter, progress, metrics, result);
+        }
+    }
+
+    private void commit(Chunk chunk, ChunkWriter chunkWriter, UploadProgress progress, UploadMetrics.Upload metrics,
+                        Result result) {
+        long startedNanos = System.nanoTime();
+        chunkWriter.write(chunk);
+        metrics.persisted(System.nanoTime() - startedNanos);
+        metrics.rowsCommitted(chunk.getSuccessRows() - result.getSuccessRows(),
+                chunk.getWarningRows() - result.getWarningRows(),
+                chunk.getFailedRows() - result.getFailedRows(),
+                chunk.getUnchangedRows() - result.getUnchangedRows());
+        result.merge(chunk);
+        progress.rowsPersisted(chunk.getProperties().size());
+    }
+
+    /**
+     * @return how long the caller was blocked on a full queue, in nanoseconds
+     */
+    private static <T> long put(BlockingQueue<T> queue, T item) {
+        // offer() ignores interrupts; without this check a cancelled sheet would keep reading until the queue fills
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Upload pipeline cancelled");
+        }
+        if (queue.offer(item)) {
+            return 0;
+        }
+        long startedNanos = System.nanoTime();
+        try {
+            queue.put(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Upload pipeline cancelled");
+        }
+        return System.nanoTime() - startedNanos;
+    }
+
+    @FunctionalInterface
+    public interface RowProducer {
+        void produce(SheetRowSink.Factory sinks) throws IOException;
+    }
+
+    /**
+     * Persists one chunk in its own transaction. Throwing fails the upload; earlier chunks stay committed.
+     */
+    @FunctionalInterface
+    public interface ChunkWriter {
+        void write(Chunk chunk);
+    }
+
+    /**
+     * Hands the rows of one sheet to the workers, numbering them from 0 and skipping the ones already
+     * committed. Runs on the thread reading the sheet.
+     */
+    private static final class SheetParser implements SheetRowSink {
+        private final int sheetIndex;
+        private final String sheetName;
+        private final int skipRows;
+        private final BlockingQueue<ParsedRow> parsedRows;
+        private final UploadMetrics.Upload metrics;
+        private final long startedNanos = System.nanoTime();
+        private final long allocationMark;
+        private int nextSequence;
+        private long blockedNanos;
+
+        private SheetParser(int sheetIndex, String sheetName, SheetCheckpoint resumePoint,
+                            BlockingQueue<ParsedRow> parsedRows, Thread parserThread, UploadMetrics.Upload metrics) {
+            if (resumePoint != null && !resumePoint.sheetName().equals(sheetName)) {
+                throw new IllegalStateException(ERROR_RESUME_SHEET_MISMATCH.formatted(
+                        sheetIndex + 1, sheetName, resumePoint.sheetName()));
+            }
+            this.sheetIndex = sheetIndex;
+            this.sheetName = sheetName;
+            this.skipRows = resumePoint != null ? resumePoint.committedRows() : 0;
+            this.parsedRows = parsedRows;
+            this.metrics = metrics;
+            // The parser thread's own allocations are already counted by parse()
+            this.allocationMark = Thread.currentThread() != parserThread ? UploadMetrics.currentThreadAllocatedBytes() : -1;
+        }
+
+        @Override
+        public void accept(int rowNumber, ExcelRowData rowData) {
+            int sequence = nextSequence++;
+            if (sequence >= skipRows) {
+                blockedNanos += put(parsedRows, new ParsedRow(sheetIndex, sheetName, sequence, rowNumber, rowData));
+            }
+        }
+
+        @Override
+        public void sheetFinished() {
+            metrics.parsed(System.nanoTime() - startedNanos - blockedNanos);
+            metrics.allocatedSince(allocationMark);
+        }
+    }
+
+    private static final class SheetCursor {
+        private final Map<Integer, ProcessedRow> pending = new HashMap<>();
+        private int nextSequence;
+
+        private SheetCursor(int committedRows) {
+            this.nextSequence = committedRows;
+        }
+    }
+
+    private record ParsedRow(int sheetIndex, String sheetName, int sequence, int rowNumber, ExcelRowData rowData) {}
+
+    private record ProcessedRow(int sheetIndex, int sequence, UploadAudit.RowResult result, Property property) {}
+
+    /**
+     * How far an upload got in one sheet: its first {@code committedRows} data rows are persisted.
+     */
+    public record SheetCheckpoint(int sheetIndex, String sheetName, int committedRows) {}
+
+    /**
+     * Running totals of an upload over all sheets, and how far each sheet got.
+     */
+    @Getter
+    public abstract static class Tally {
+        protected int committedRows;
+        protected int totalRows;
+        protected int successRows;
+        protected int failedRows;
+        protected int warningRows;
+        protected int unchangedRows;
+        protected final Map<Integer, SheetCheckpoint> sheetCheckpoints = new HashMap<>();
+
+        public Collection<SheetCheckpoint> getSheetCheckpoints() {
+            return sheetCheckpoints.values();
+        }
+
+        protected void count(UploadAudit.RowResult rowResult) {
+            committedRows++;
+            totalRows++;
+            if (rowResult.isSuccess()) {
+                successRows++;
+                if (rowResult.getWarningMessage() != null) {
+                    warningRows++;
+                }
+            } else {
+                failedRows++;
+            }
+        }
+
+        protected void copyCounters(Tally other) {
+            committedRows = other.committedRows;
+            totalRows = other.totalRows;
+            successRows = other.successRows;
+            failedRows = other.failedRows;
+            warningRows = other.warningRows;
+            unchangedRows = other.unchangedRows;
+        }
+    }
+
+    /**
+     * The rows of one chunk. Its counters and checkpoints are the upload's as they will be once the chunk
+     * commits; only the checkpoints of sheets with rows in this chunk are carried.
+     */
+    @Getter
+    public static class Chunk extends Tally {
+        private final List<UploadAudit.RowResult> rowResults;
+        private final List<Property> properties;
+
+        private Chunk(Result committed, int chunkSize) {
+            copyCounters(committed);
+            rowResults = new ArrayList<>(chunkSize);
+            properties = new ArrayList<>(chunkSize);
+        }
+
+        private void add(UploadAudit.RowResult rowResult, Property property, int committedInSheet) {
+            count(rowResult);
+            sheetCheckpoints.put(rowResult.getSheetIndex(),
+                    new SheetCheckpoint(rowResult.getSheetIndex(), rowResult.getSheetName(), committedInSheet));
+            rowResults.add(rowResult);
+            if (property != null) {
+                properties.add(property);
+            }
+        }
+
+        /**
+         * Counts properties the writer found already stored as they are; called while the chunk commits.
+         */
+        public void rowsUnchanged(int rows) {
+            unchangedRows += rows;
+        }
+    }
+
+    /**
+     * Totals of everything committed so far. Row results are not kept here, the chunk writer persists them.
+     */
+    public static class Result extends Tally {
+
+        /**
+         * Starts from the checkpoints left by an earlier run of the same upload.
+         */
+        public static Result resumeFrom(UploadAudit audit, Collection<SheetCheckpoint> checkpoints) {
+            Result result = new Result();
+            checkpoints.forEach(checkpoint -> result.sheetCheckpoints.put(checkpoint.sheetIndex(), checkpoint));
+            result.committedRows = Optional.ofNullable(audit.getCommittedRows()).orElse(0);
+            result.totalRows = Optional.ofNullable(audit.getTotalRows()).orElse(0);
+            result.successRows = Optional.ofNullable(audit.getSuccessRows()).orElse(0);
+            result.failedRows = Optional.ofNullable(audit.getFailedRows()).orElse(0);
+            result.warningRows = Optional.ofNullable(audit.getWarningRows()).orElse(0);
+            result.unchangedRows = Optional.ofNullable(audit.getUnchangedRows()).orElse(0);
+            return result;
+        }
+
+        private void merge(Chunk chunk) {
+            copyCounters(chunk);
+            sheetCheckpoints.putAll(chunk.sheetCheckpoints);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.tdit.dataprovideservice.service;
+
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * An upload failed after its audit was created; the id lets the client check its status or resume it.
+ */
+@Getter
+public class UploadProcessingException extends RuntimeException {
+
+    private final UUID uploadId;
+
+    public UploadProcessingException(UUID uploadId, String message) {
+        super(message);
+        this.uploadId = uploadId;
+    }
+}
@@ -0,0 +1,43 @@
+package com.tdit.dataprovideservice.service;
+
+import com.tdit.dataprovideservice.dto.UploadProgress;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory progress of the uploads running on this instance. Finished uploads are
+ * removed; their final counters live on the UploadAudit.
+ */
+@Component
+public class UploadProgressRegistry {
+
+    private final Map<UUID, UploadProgress> running = new ConcurrentHashMap<>();
+
+    /**
+     * Registers an upload whose job is queued, so status polls see it before it starts.
+     */
+    public UploadProgress queue(UUID uploadId) {
+        return running.computeIfAbsent(uploadId, id -> UploadProgress.queued());
+    }
+
+    /**
+     * The progress of an upload that starts running now, queued before or not.
+     */
+    public UploadProgress start(UUID uploadId) {
+        UploadProgress progress = running.computeIfAbsent(uploadId, id -> new UploadProgress());
+        progress.start();
+        return progress;
+    }
+
+    public Optional<UploadProgress> get(UUID uploadId) {
+        return Optional.ofNullable(running.get(uploadId));
+    }
+
+    public void finish(UUID uploadId) {
+        running.remove(uploadId);
+    }
+}
@@ -0,0 +1,20 @@
+package com.tdit.dataprovideservice.service;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * An upload was not admitted (see {@link UploadAdmission}); nothing was recorded for it and it may be sent again
+ * after {@link #getRetryAfter()}.
+ */
+@Getter
+public class UploadRejectedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public UploadRejectedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,37 @@
+package com.tdit.dataprovideservice.service;
+
+import com.tdit.dataprovideservice.entity.UploadAudit;
+import com.tdit.dataprovideservice.entity.UploadRowResult;
+import com.tdit.dataprovideservice.repository.UploadRowResultRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Persists one batch of row results the same way {@link PropertyBatchWriter} persists properties.
+ * Must be called inside a transaction.
+ */
+@Component
+@RequiredArgsConstructor
+public class UploadRowResultWriter {
+
+    private final UploadRowResultRepository uploadRowResultRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public void write(UUID uploadId, List<UploadAudit.RowResult> batch) {
+        List<UploadRowResult> entities = new ArrayList<>(batch.size());
+        for (UploadAudit.RowResult rowResult : batch) {
+            entities.add(UploadRowResult.from(uploadId, rowResult));
+        }
+        uploadRowResultRepository.saveAll(entities);
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
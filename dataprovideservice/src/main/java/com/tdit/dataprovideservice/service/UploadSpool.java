@@ -0,0 +1,53 @@
+package com.tdit.dataprovideservice.service;
+
+import com.tdit.dataprovideservice.config.ExcelProcessingProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Puts uploaded files on disk, so the readers open them as files: a workbook is then read through its zip central
+ * directory one entry at a time instead of being inflated onto the heap from a stream.
+ * <p>
+ * Parts above {@code spring.servlet.multipart.file-size-threshold} are already on disk when the request arrives;
+ * {@link MultipartFile#transferTo(java.io.File)} renames the container's file into the spool directory, which is
+ * a move without copying when both are on the same file system ({@code spring.servlet.multipart.location}).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UploadSpool {
+
+    private final ExcelProcessingProperties properties;
+
+    /**
+     * @return the spooled file; the caller deletes it with {@link #delete} once it is processed
+     */
+    public Path spool(MultipartFile file) throws IOException {
+        String directory = properties.getSpoolDirectory();
+        Path target = StringUtils.hasText(directory)
+                ? Files.createTempFile(Files.createDirectories(Path.of(directory)), "upload-", ".tmp")
+                : Files.createTempFile("upload-", ".tmp");
+        try {
+            file.transferTo(target.toAbsolutePath().toFile());
+        } catch (IOException | RuntimeException e) {
+            delete(target);
+            throw e;
+        }
+        return target;
+    }
+
+    public void delete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete spooled upload {}: {}", path, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.tdit.dataprovideservice.writer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * RFC 4180 CSV in UTF-8 with a byte order mark, so Excel opens it with the right encoding. Fields are quoted
+ * only when they hold the delimiter, a quote or a line break.
+ */
+final class CsvTableWriter implements TableWriter {
+
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+    private final Writer writer;
+    private final char delimiter;
+
+    CsvTableWriter(OutputStream out, List<String> header, char delimiter) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        this.delimiter = delimiter;
+        writer.write(BYTE_ORDER_MARK);
+        writeRow(header.toArray());
+    }
+
+    @Override
+    public void writeRow(Object[] cells) throws IOException {
+        for (int i = 0; i < cells.length; i++) {
+            if (i > 0) {
+                writer.write(delimiter);
+            }
+            String text = TableWriter.text(cells[i]);
+            if (text != null) {
+                writeField(text);
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private void writeField(String text) throws IOException {
+        boolean quoted = false;
+        for (int i = 0; i < text.length() && !quoted; i++) {
+            char c = text.charAt(i);
+            quoted = c == delimiter || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quoted) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    @Override
+    public void finish() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() {
+    }
+}
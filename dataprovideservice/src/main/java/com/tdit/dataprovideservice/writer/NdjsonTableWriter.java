@@ -0,0 +1,60 @@
+package com.tdit.dataprovideservice.writer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * One JSON object per line, keyed by the header names. Empty cells are left out, collections become arrays.
+ */
+final class NdjsonTableWriter implements TableWriter {
+
+    private final JsonGenerator generator;
+    private final String[] keys;
+
+    NdjsonTableWriter(OutputStream out, List<String> header, ObjectMapper objectMapper) throws IOException {
+        this.generator = objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .setRootValueSeparator(null);
+        this.keys = header.toArray(String[]::new);
+    }
+
+    @Override
+    public void writeRow(Object[] cells) throws IOException {
+        generator.writeStartObject();
+        for (int i = 0; i < cells.length; i++) {
+            Object cell = cells[i];
+            if (cell == null || cell instanceof Collection<?> collection && collection.isEmpty()) {
+                continue;
+            }
+            generator.writeFieldName(keys[i]);
+            if (cell instanceof Number number) {
+                generator.writeNumber(number.toString());
+            } else if (cell instanceof Collection<?> collection) {
+                generator.writeStartArray();
+                for (Object element : collection) {
+                    generator.writeString(String.valueOf(element));
+                }
+                generator.writeEndArray();
+            } else {
+                generator.writeString(TableWriter.text(cell));
+            }
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    public void finish() throws IOException {
+        generator.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
@@ -0,0 +1,67 @@
+package com.tdit.dataprovideservice.writer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tdit.dataprovideservice.reader.CellValueFormatter;
+import com.tdit.dataprovideservice.reader.UploadFormat;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Writes an export one row at a time in one of the upload formats, under a header row (NDJSON: keys) of column
+ * names, so the file can be read back by the matching {@link com.tdit.dataprovideservice.reader.RowSource}.
+ * Cells may be null, numbers, dates, collections (joined with commas, like amenities) or anything else (its text).
+ * <p>
+ * Neither {@link #finish()} nor {@link #close()} closes the output stream.
+ */
+public interface TableWriter extends Closeable {
+
+    void writeRow(Object[] cells) throws IOException;
+
+    /**
+     * Writes out what is still buffered after the last row. An XLSX export that fails before this is never written.
+     */
+    void finish() throws IOException;
+
+    /**
+     * Releases what the writer holds, like the temp file of an XLSX export.
+     */
+    @Override
+    void close() throws IOException;
+
+    /**
+     * @param sheetName  name of the XLSX sheet; ignored by the other formats
+     * @param csvDelimiter field separator of CSV exports
+     */
+    static TableWriter open(UploadFormat format, List<String> header, String sheetName, OutputStream out,
+                            char csvDelimiter, ObjectMapper objectMapper) throws IOException {
+        return switch (format) {
+            case CSV -> new CsvTableWriter(out, header, csvDelimiter);
+            case XLSX -> new XlsxTableWriter(out, header, sheetName);
+            case NDJSON -> new NdjsonTableWriter(out, header, objectMapper);
+        };
+    }
+
+    /**
+     * A cell as text the way the readers produce it, e.g. 1500.0 as "1500". Null for an empty cell.
+     */
+    static String text(Object cell) {
+        if (cell == null) {
+            return null;
+        }
+        if (cell instanceof Double || cell instanceof Float) {
+            return CellValueFormatter.formatNumeric(((Number) cell).doubleValue());
+        }
+        if (cell instanceof LocalDateTime dateTime) {
+            return CellValueFormatter.DATE_FORMATTER.format(dateTime);
+        }
+        if (cell instanceof Collection<?> collection) {
+            return collection.isEmpty() ? null : String.join(", ", collection.stream().map(String::valueOf).toList());
+        }
+        return cell.toString();
+    }
+}
@@ -0,0 +1,74 @@
+package com.tdit.dataprovideservice.writer;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * A workbook written with POI's streaming SXSSF API: only the last {@value #ROW_WINDOW} rows stay in memory,
+ * earlier ones go to a compressed temp file until {@link #finish()} writes the workbook out. Numbers become
+ * numeric cells, everything else text. Rows beyond what a sheet can take continue on a new sheet under the
+ * same header, which uploads read like any other sheet.
+ */
+final class XlsxTableWriter implements TableWriter {
+
+    private static final int ROW_WINDOW = 100;
+    private static final int MAX_ROWS = SpreadsheetVersion.EXCEL2007.getMaxRows();
+
+    private final OutputStream out;
+    private final List<String> header;
+    private final String sheetName;
+    private final SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW);
+    private Sheet sheet;
+    private int nextRow;
+
+    XlsxTableWriter(OutputStream out, List<String> header, String sheetName) {
+        this.out = out;
+        this.header = header;
+        this.sheetName = sheetName;
+        workbook.setCompressTempFiles(true);
+        newSheet();
+    }
+
+    private void newSheet() {
+        int number = workbook.getNumberOfSheets() + 1;
+        sheet = workbook.createSheet(number == 1 ? sheetName : sheetName + " " + number);
+        nextRow = 0;
+        writeRow(header.toArray());
+    }
+
+    @Override
+    public void writeRow(Object[] cells) {
+        if (nextRow == MAX_ROWS) {
+            newSheet();
+        }
+        Row row = sheet.createRow(nextRow++);
+        for (int i = 0; i < cells.length; i++) {
+            Object cell = cells[i];
+            if (cell instanceof Number number) {
+                row.createCell(i).setCellValue(number.doubleValue());
+            } else {
+                String text = TableWriter.text(cell);
+                if (text != null) {
+                    row.createCell(i).setCellValue(text);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        workbook.write(out);
+    }
+
+    @Override
+    public void close() throws IOException {
+        workbook.dispose();
+        workbook.close();
+    }
+}
@@ -0,0 +1,14 @@
+-- Full-text search over properties, see PropertySearchService. Runs after Hibernate has created the tables
+-- (spring.jpa.defer-datasource-initialization) on every start, so every statement has to be repeatable.
+
+-- Kept up to date by PostgreSQL itself on every insert and update, so uploads need not know about it
+ALTER TABLE properties ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('english', coalesce(property_title, '')), 'A') ||
+    setweight(to_tsvector('english', coalesce(city, '')), 'B') ||
+    setweight(to_tsvector('english', coalesce(amenities, '[]'::jsonb)), 'B') ||
+    setweight(to_tsvector('english', coalesce(description, '')), 'C')) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_properties_search_vector ON properties USING gin (search_vector);
+
+-- Serves amenities @> '["WiFi"]'
+CREATE INDEX IF NOT EXISTS idx_properties_amenities ON properties USING gin (amenities jsonb_path_ops);
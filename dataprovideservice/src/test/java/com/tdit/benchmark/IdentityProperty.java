@@ -0,0 +1,79 @@
+package com.tdit.benchmark;
+
+import com.tdit.dataprovideservice.entity.Property;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The Property mapping as it was before the switch to a pooled sequence, for
+ * {@code PropertyBatchInsertBenchmarkTest}. Kept outside the application's packages so only that test's
+ * context maps it and creates its table.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "properties_identity_baseline")
+public class IdentityProperty {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long propertyId;
+
+    private String propertyTitle;
+    private String description;
+    private String propertyType;
+    private String addressLine1;
+    private String city;
+    private String state;
+    private String country;
+    private String pincode;
+    private Double latitude;
+    private Double longitude;
+    private Long hostId;
+    private String hostName;
+    private String hostContact;
+    private String hostEmail;
+    private Double basePrice;
+    private String currency;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
+    private List<String> amenities;
+
+    private String propertyUrl;
+    private String status;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public static IdentityProperty from(Property property) {
+        IdentityProperty copy = new IdentityProperty();
+        copy.setPropertyTitle(property.getPropertyTitle());
+        copy.setDescription(property.getDescription());
+        copy.setPropertyType(property.getPropertyType());
+        copy.setAddressLine1(property.getAddressLine1());
+        copy.setCity(property.getCity());
+        copy.setState(property.getState());
+        copy.setCountry(property.getCountry());
+        copy.setPincode(property.getPincode());
+        copy.setLatitude(property.getLatitude());
+        copy.setLongitude(property.getLongitude());
+        copy.setHostId(property.getHostId());
+        copy.setHostName(property.getHostName());
+        copy.setHostContact(property.getHostContact());
+        copy.setHostEmail(property.getHostEmail());
+        copy.setBasePrice(property.getBasePrice());
+        copy.setCurrency(property.getCurrency());
+        copy.setAmenities(property.getAmenities());
+        copy.setPropertyUrl(property.getPropertyUrl());
+        copy.setStatus(property.getStatus());
+        copy.setCreatedAt(property.getCreatedAt());
+        copy.setUpdatedAt(property.getUpdatedAt());
+        return copy;
+    }
+}
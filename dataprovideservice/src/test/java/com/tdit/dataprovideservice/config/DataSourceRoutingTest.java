@@ -0,0 +1,222 @@
+package com.tdit.dataprovideservice.config;
+
+import com.tdit.dataprovideservice.dto.ExcelUploadResponse;
+import com.tdit.dataprovideservice.dto.PropertyFilter;
+import com.tdit.dataprovideservice.entity.Property;
+import com.tdit.dataprovideservice.entity.UploadAudit;
+import com.tdit.dataprovideservice.entity.UploadSheetCheckpoint;
+import com.tdit.dataprovideservice.reader.UploadFormat;
+import com.tdit.dataprovideservice.repository.PropertyRepository;
+import com.tdit.dataprovideservice.repository.UploadAuditRepository;
+import com.tdit.dataprovideservice.repository.UploadSheetCheckpointRepository;
+import com.tdit.dataprovideservice.service.ContentHashes;
+import com.tdit.dataprovideservice.service.ExcelUploadService;
+import com.tdit.dataprovideservice.service.IngestTransactions;
+import com.tdit.dataprovideservice.service.PropertyServiceAdmin;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Routing between the pools, with two embedded databases standing in for the primary and the replica. Nothing
+ * replicates between them, so where a row is found tells which database served the read.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;INIT=CREATE DOMAIN IF NOT EXISTS JSONB AS JSON",
+        // Gets the primary's schema, jsonb domain included, before the tests
+        "datasource-routing.replica.url=jdbc:h2:mem:routing-replica;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "excel.processing.admission.enabled=false",
+        // The ingest pool takes these too, but keeps its own size
+        "spring.datasource.hikari.max-lifetime=600000",
+        "spring.datasource.hikari.maximum-pool-size=7"})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class DataSourceRoutingTest {
+
+    @Autowired
+    private UploadAuditRepository uploadAuditRepository;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private UploadSheetCheckpointRepository uploadSheetCheckpointRepository;
+
+    @Autowired
+    private ExcelUploadService excelUploadService;
+
+    @Autowired
+    private PropertyServiceAdmin propertyServiceAdmin;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private IngestTransactions ingestTransactions;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    @Qualifier(DataSourceConfig.PRIMARY_DATA_SOURCE)
+    private DataSource primary;
+
+    @Autowired
+    @Qualifier(DataSourceConfig.REPLICA_DATA_SOURCE)
+    private DataSource replica;
+
+    @Autowired
+    @Qualifier(DataSourceConfig.INGEST_DATA_SOURCE)
+    private HikariDataSource ingest;
+
+    @BeforeAll
+    void copySchemaToReplica() throws Exception {
+        Path script = Files.createTempFile("routing-schema-", ".sql");
+        try {
+            new JdbcTemplate(primary).execute("SCRIPT NODATA TO '" + script + "'");
+            new JdbcTemplate(replica).execute("RUNSCRIPT FROM '" + script + "'");
+        } finally {
+            Files.deleteIfExists(script);
+        }
+    }
+
+    @Test
+    void readOnlyTransactionsReadTheReplica() {
+        UploadAudit audit = uploadAuditRepository.save(audit("primary.csv"));
+
+        // findById runs read-only
+        assertFalse(uploadAuditRepository.findById(audit.getUploadId()).isPresent());
+        Boolean onPrimary = transactionTemplate.execute(status -> uploadAuditRepository.existsById(audit.getUploadId()));
+        assertEquals(Boolean.TRUE, onPrimary);
+
+        UUID replicated = UUID.randomUUID();
+        new JdbcTemplate(replica).update("insert into upload_audit (upload_id, file_name, status, timestamp) "
+                + "values (?, 'replica.csv', 'COMPLETED', ?)", replicated, LocalDateTime.now());
+        assertTrue(uploadAuditRepository.findById(replicated).isPresent());
+    }
+
+    @Test
+    void ingestTransactionsUseTheIngestPool() {
+        long before = connectionsUsed("ingest");
+        ingestTransactions.executeWithoutResult(status -> uploadAuditRepository.save(audit("ingest.csv")));
+
+        assertEquals(before + 1, connectionsUsed("ingest"));
+        assertEquals(1, new JdbcTemplate(primary).queryForObject(
+                "select count(*) from upload_audit where file_name = 'ingest.csv'", Integer.class));
+    }
+
+    @Test
+    void ingestPoolTakesThePrimarysHikariSettings() {
+        assertEquals(600_000, ingest.getMaxLifetime());
+        assertEquals(4, ingest.getMaximumPoolSize());
+        assertEquals("ingest", ingest.getPoolName());
+    }
+
+    /**
+     * Whatever the cache keeps comes from the primary, which the replica has not caught up with here.
+     */
+    @Test
+    void cachedPropertyReadsUseThePrimary() {
+        LocalDateTime now = LocalDateTime.now();
+        Property stored = propertyRepository.save(Property.builder()
+                .propertyTitle("Primary only")
+                .city("Routing City")
+                .status("APPROVED")
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+
+        assertTrue(propertyServiceAdmin.getProperty(stored.getPropertyId()).isPresent());
+        assertEquals(1, propertyServiceAdmin.findProperties(new PropertyFilter(null, "Routing City", null, null),
+                null, 10).getProperties().size());
+    }
+
+    /**
+     * The replica has neither the failed upload nor its checkpoint, as if it lagged behind: the resume still skips
+     * the two committed rows.
+     */
+    @Test
+    void resumeReadsCheckpointsFromThePrimary() throws Exception {
+        String csv = csv("resume", 5);
+        UploadAudit failed = audit("resume.csv");
+        failed.setStatus(UploadAudit.UploadStatus.FAILED);
+        failed.setCommittedRows(2);
+        failed.setContentHash(ContentHashes.of(new ByteArrayResource(csv.getBytes(StandardCharsets.UTF_8))));
+        UUID uploadId = uploadAuditRepository.save(failed).getUploadId();
+        uploadSheetCheckpointRepository.save(new UploadSheetCheckpoint(uploadId, 0, UploadFormat.CSV.name(), 2));
+
+        excelUploadService.resumeUpload(uploadId, file("resume.csv", csv), UploadFormat.CSV);
+
+        assertEquals(3, new JdbcTemplate(primary).queryForObject(
+                "select count(*) from properties where upload_id = ?", Integer.class, uploadId));
+    }
+
+    @Test
+    void identicalUploadIsFoundOnThePrimary() throws Exception {
+        String csv = csv("identical", 2);
+        ExcelUploadResponse first = excelUploadService.processExcelUpload(file("identical.csv", csv), UploadFormat.CSV,
+                "routing-identical");
+        ExcelUploadResponse second = excelUploadService.processExcelUpload(file("identical.csv", csv), UploadFormat.CSV,
+                "routing-identical");
+
+        UUID duplicateOf = transactionTemplate.execute(status ->
+                uploadAuditRepository.findById(second.getUploadId()).orElseThrow().getDuplicateOf());
+        assertEquals(first.getUploadId(), duplicateOf);
+    }
+
+    /**
+     * A pool registers its meters once it has started, on its first connection.
+     */
+    private long connectionsUsed(String pool) {
+        Timer usage = meterRegistry.find("hikaricp.connections.usage").tag("pool", pool).timer();
+        return usage != null ? usage.count() : 0;
+    }
+
+    private static MockMultipartFile file(String fileName, String csv) {
+        return new MockMultipartFile("file", fileName, "text/csv", csv.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String csv(String name, int rows) {
+        StringBuilder csv = new StringBuilder("Property_Title,Description,Property_Type,Address_Line1,City,State,"
+                + "Country,Pincode,Latitude,Longitude,Host_ID,Host_Name,Host_Contact,Host_Email,Base_Price,Currency,"
+                + "Amenities,Property_URL,Status\r\n");
+        String batch = UUID.randomUUID().toString();
+        for (int i = 0; i < rows; i++) {
+            csv.append("Routing ").append(name).append(' ').append(batch).append(' ').append(i)
+                    .append(",Two bedroom apartment,Apartment,").append(i).append(" MG Road,Pune,Maharashtra,India,")
+                    .append("411001,18.52,73.85,1000,Host,9876543210,host@example.com,2500,INR,WiFi,")
+                    .append("https://example.com/routing/").append(batch).append('/').append(i).append(",APPROVED\r\n");
+        }
+        return csv.toString();
+    }
+
+    private static UploadAudit audit(String fileName) {
+        return UploadAudit.builder()
+                .fileName(fileName)
+                .uploadedBy("routing-test")
+                .timestamp(LocalDateTime.now())
+                .status(UploadAudit.UploadStatus.PROCESSING)
+                .committedRows(0)
+                .build();
+    }
+}
@@ -0,0 +1,175 @@
+package com.tdit.dataprovideservice.controller;
+
+import com.tdit.dataprovideservice.dto.ExcelUploadResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Throughput and latency of upload status polls while synchronous uploads hold request threads, on the embedded
+ * database. Run once per threading model and compare:
+ * <pre>
+ * mvn test -Dtest=StatusPollLoadBenchmarkTest -Dbenchmark=true
+ * mvn test -Dtest=StatusPollLoadBenchmarkTest -Dbenchmark=true -Dspring.threads.virtual.enabled=true  (Java 21)
+ * </pre>
+ * {@code -Dbenchmark.uploads}, {@code -Dbenchmark.pollers}, {@code -Dbenchmark.rows} and {@code -Dbenchmark.seconds}
+ * set the load. Tomcat gets fewer platform threads than there are uploaders, as a busy server would have.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "server.tomcat.threads.max=${benchmark.tomcat-threads:16}",
+        "spring.servlet.multipart.max-file-size=64MB",
+        "spring.servlet.multipart.max-request-size=64MB",
+        "excel.processing.admission.enabled=false",
+        "logging.level.com.tdit=INFO"})
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class StatusPollLoadBenchmarkTest {
+
+    private static final int UPLOADERS = Integer.getInteger("benchmark.uploads", 24);
+    private static final int POLLERS = Integer.getInteger("benchmark.pollers", 8);
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 5_000);
+    private static final int SECONDS = Integer.getInteger("benchmark.seconds", 20);
+
+    private static final String HEADER = "Property_Title,Description,Property_Type,Address_Line1,City,State,Country,"
+            + "Pincode,Latitude,Longitude,Host_ID,Host_Name,Host_Contact,Host_Email,Base_Price,Currency,Amenities,"
+            + "Property_URL,Status";
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private Environment environment;
+
+    @Test
+    void pollStatusDuringUploads() throws Exception {
+        UUID polled = upload("warm-up", 100).getBody().getUploadId();
+        assertNotNull(polled);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger uploads = new AtomicInteger();
+        AtomicInteger failedUploads = new AtomicInteger();
+        ExecutorService clients = Executors.newFixedThreadPool(UPLOADERS + POLLERS);
+        List<Future<long[]>> pollers = new ArrayList<>(POLLERS);
+        try {
+            for (int i = 0; i < UPLOADERS; i++) {
+                String uploader = "uploader-" + i;
+                clients.submit(() -> {
+                    while (running.get()) {
+                        boolean ok = upload(uploader, ROWS).getStatusCode().is2xxSuccessful();
+                        (ok ? uploads : failedUploads).incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            // Let the uploads take the request threads before measuring
+            Thread.sleep(2_000);
+            for (int i = 0; i < POLLERS; i++) {
+                pollers.add(clients.submit(() -> poll(polled, running)));
+            }
+            Thread.sleep(TimeUnit.SECONDS.toMillis(SECONDS));
+        } finally {
+            running.set(false);
+        }
+
+        long[] latencies = pollers.stream().map(StatusPollLoadBenchmarkTest::join).flatMapToLong(Arrays::stream)
+                .sorted().toArray();
+        clients.shutdown();
+        clients.awaitTermination(5, TimeUnit.MINUTES);
+
+        System.out.printf("Threads        : %s%n", Threading.VIRTUAL.isActive(environment) ? "virtual" : "platform");
+        System.out.printf("Uploads        : %,d completed by %d uploaders (%,d rows each)%n", uploads.get(),
+                UPLOADERS, ROWS);
+        System.out.printf("Status polls   : %,10.0f polls/sec%n", latencies.length / (double) SECONDS);
+        System.out.printf("Poll latency   : p50 %,.1f ms, p99 %,.1f ms, max %,.1f ms%n",
+                percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 1.0));
+        assertEquals(0, failedUploads.get());
+        assertTrue(latencies.length > 0);
+    }
+
+    private long[] poll(UUID uploadId, AtomicBoolean running) {
+        long[] latencies = new long[1024];
+        int count = 0;
+        while (running.get()) {
+            long start = System.nanoTime();
+            restTemplate.getForEntity("/api/excel/status/{uploadId}", String.class, uploadId);
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = System.nanoTime() - start;
+        }
+        return Arrays.copyOf(latencies, count);
+    }
+
+    private ResponseEntity<ExcelUploadResponse> upload(String uploadedBy, int rows) {
+        HttpHeaders partHeaders = new HttpHeaders();
+        partHeaders.setContentType(MediaType.parseMediaType("text/csv"));
+        ByteArrayResource file = new ByteArrayResource(csv(rows)) {
+            @Override
+            public String getFilename() {
+                return "load.csv";
+            }
+        };
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("file", new HttpEntity<>(file, partHeaders));
+        body.add("uploadedBy", uploadedBy);
+        return restTemplate.postForEntity("/api/excel/upload", body, ExcelUploadResponse.class);
+    }
+
+    /**
+     * Every file is new, so no upload is answered from an identical earlier one.
+     */
+    private static byte[] csv(int rows) {
+        String batch = UUID.randomUUID().toString();
+        StringBuilder csv = new StringBuilder(HEADER).append("\r\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append("Load property ").append(batch).append(' ').append(i)
+                    .append(",Two bedroom apartment,Apartment,").append(i).append(" MG Road,Pune,Maharashtra,India,")
+                    .append("411001,18.52,73.85,").append(1000 + i % 100).append(",Host,9876543210,host@example.com,")
+                    .append("2500,INR,\"WiFi, Parking\",https://example.com/p/").append(batch).append('/').append(i)
+                    .append(",APPROVED\r\n");
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static double percentile(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, index)] / 1e6;
+    }
+
+    private static long[] join(Future<long[]> poller) {
+        try {
+            return poller.get();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.tdit.dataprovideservice.reader;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ColumnMappingTest {
+
+    static final List<String> TEMPLATE = List.of("Property_Title", "City", "Base_Price", "Amenities");
+
+    static final ColumnMapping COLUMNS = new ColumnMapping(TEMPLATE,
+            Map.of("Property_Title", List.of("Title", "Name"), "Base_Price", List.of("Price")), List.of("Amenities"));
+
+    @Test
+    void matchesNamesIgnoringCaseAndPunctuation() {
+        assertEquals(0, COLUMNS.indexOf("property title"));
+        assertEquals(0, COLUMNS.indexOf("propertyTitle"));
+        assertEquals(1, COLUMNS.indexOf(" CITY "));
+        assertEquals(-1, COLUMNS.indexOf("Country"));
+        assertEquals(-1, COLUMNS.indexOf(null));
+    }
+
+    @Test
+    void matchesHeaderByAlias() {
+        assertArrayEquals(new int[]{2, -1, 0, 1}, COLUMNS.compile(List.of("Price", "Notes", "Title", "city"), "Sheet1"));
+    }
+
+    @Test
+    void ignoresRepeatedColumns() {
+        assertArrayEquals(new int[]{0, 1, 2, -1}, COLUMNS.compile(List.of("Title", "City", "Price", "Name"), "Sheet1"));
+    }
+
+    @Test
+    void readsUnknownHeaderAsTemplatePositions() {
+        assertArrayEquals(new int[]{0, 1, 2, 3}, COLUMNS.compile(List.of("A", "B", "C"), "Sheet1"));
+    }
+
+    @Test
+    void missingRequiredColumnThrows() {
+        IllegalStateException missing = assertThrows(IllegalStateException.class,
+                () -> COLUMNS.compile(List.of("Title", "Amenities"), "Listings"));
+        assertEquals("Sheet 'Listings' is missing required columns: City, Base_Price", missing.getMessage());
+    }
+
+    @Test
+    void configuringUnknownColumnThrows() {
+        assertThrows(IllegalStateException.class,
+                () -> new ColumnMapping(TEMPLATE, Map.of("Country", List.of("Nation")), List.of()));
+        assertThrows(IllegalStateException.class, () -> new ColumnMapping(TEMPLATE, Map.of(), List.of("Price")));
+    }
+}
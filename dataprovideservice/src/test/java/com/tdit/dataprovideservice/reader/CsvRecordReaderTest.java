@@ -0,0 +1,169 @@
+package com.tdit.dataprovideservice.reader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Records as {@link CsvRecordReader} cuts them. Most cases run with a reader that hands over a few characters
+ * per read, so fields and escapes also straddle buffer refills there.
+ */
+class CsvRecordReaderTest {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3, BUFFER_SIZE})
+    void readsQuotedFields(int charsPerRead) throws IOException {
+        String csv = "title,\"Sea view, Goa\",\"He said \"\"hi\"\"\"\r\n"
+                + "\"line one\r\nline two\",\"a\nb\",\"\"\"\"\r\n";
+
+        assertEquals(List.of(
+                        Arrays.asList("title", "Sea view, Goa", "He said \"hi\""),
+                        Arrays.asList("line one\r\nline two", "a\nb", "\"")),
+                read(csv, charsPerRead));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3, BUFFER_SIZE})
+    void trimsValuesAndReadsEmptyOnesAsNull(int charsPerRead) throws IOException {
+        String csv = "  a  ,\t b ,,\" \",\"\"\n"
+                + "a,b,,\n"
+                + "a,";
+
+        assertEquals(List.of(
+                        Arrays.asList("a", "b", null, null, null),
+                        Arrays.asList("a", "b", null, null),
+                        Arrays.asList("a", null)),
+                read(csv, charsPerRead));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3, BUFFER_SIZE})
+    void endsRecordsOnCrLfOrCr(int charsPerRead) throws IOException {
+        assertEquals(List.of(List.of("a", "b"), List.of("c"), List.of("d"), List.of("e")),
+                read("a,b\r\nc\rd\ne", charsPerRead));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3, BUFFER_SIZE})
+    void skipsByteOrderMark(int charsPerRead) throws IOException {
+        assertEquals(List.of(List.of("Property_Title", "City"), List.of("Villa", "Pune")),
+                read("\uFEFFProperty_Title,City\r\nVilla,Pune\r\n", charsPerRead));
+    }
+
+    @Test
+    void keepsTextAfterClosingQuote() throws IOException {
+        assertEquals(List.of(List.of("quoted\" and more", "x")), read("\"quoted\"\"\" and more,x", BUFFER_SIZE));
+        assertEquals(List.of(List.of("ab", "x")), read("\"a\"b,x", BUFFER_SIZE));
+    }
+
+    @Test
+    void unterminatedQuoteRunsToTheEnd() throws IOException {
+        assertEquals(List.of(List.of("a", "b,c\nd")), read("a,\"b,c\nd", BUFFER_SIZE));
+    }
+
+    /**
+     * A quoted field with an escaped quote and a CRLF, moved across the end of the first buffer one character at
+     * a time, so every part of it lands on the refill once.
+     */
+    @Test
+    void readsQuotedFieldAcrossBufferRefill() throws IOException {
+        String quoted = "\"x\"\"y\r\nz\"";
+        for (int offset = BUFFER_SIZE - quoted.length() - 1; offset <= BUFFER_SIZE + 1; offset++) {
+            String first = "p".repeat(offset - 1);
+            String csv = first + "," + quoted + ",last\r\nnext\r\n";
+
+            assertEquals(List.of(List.of(first, "x\"y\r\nz", "last"), List.of("next")), read(csv, BUFFER_SIZE),
+                    "field starting at " + offset);
+        }
+    }
+
+    @Test
+    void readsPlainFieldAcrossBufferRefill() throws IOException {
+        String first = "p".repeat(BUFFER_SIZE - 3);
+        assertEquals(List.of(List.of(first, "across", "end")), read(first + ",across,  end  ", BUFFER_SIZE));
+    }
+
+    @Test
+    void skipsFieldsTheTargetDoesNotWant() throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("a,\"b\nb\",c\r\nd,e,f\r\n"), ',');
+        List<String> wanted = new ArrayList<>();
+        CsvRecordReader.FieldTarget oddColumns = new CsvRecordReader.FieldTarget() {
+            @Override
+            public boolean wants(int column) {
+                return column != 1;
+            }
+
+            @Override
+            public void accept(int column, String value) {
+                wanted.add(value);
+            }
+        };
+
+        while (reader.next(oddColumns)) {
+            wanted.add("|");
+        }
+        assertEquals(List.of("a", "c", "|", "d", "f", "|"), wanted);
+    }
+
+    @Test
+    void readsOtherDelimiters() throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("1,5;\"a;b\""), ';');
+        List<String> record = new ArrayList<>();
+        reader.next(allFields(record));
+        assertEquals(List.of("1,5", "a;b"), record);
+    }
+
+    private static List<List<String>> read(String csv, int charsPerRead) throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new ChunkedReader(new StringReader(csv), charsPerRead), ',');
+        List<List<String>> records = new ArrayList<>();
+        List<String> record = new ArrayList<>();
+        while (reader.next(allFields(record))) {
+            records.add(new ArrayList<>(record));
+            record.clear();
+        }
+        return records;
+    }
+
+    private static CsvRecordReader.FieldTarget allFields(List<String> record) {
+        return new CsvRecordReader.FieldTarget() {
+            @Override
+            public boolean wants(int column) {
+                return true;
+            }
+
+            @Override
+            public void accept(int column, String value) {
+                record.add(value);
+            }
+        };
+    }
+
+    /**
+     * Hands over at most {@code charsPerRead} characters per read, as a slow stream may.
+     */
+    private static final class ChunkedReader extends FilterReader {
+        private final int charsPerRead;
+
+        private ChunkedReader(Reader in, int charsPerRead) {
+            super(in);
+            this.charsPerRead = charsPerRead;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            return super.read(buffer, offset, Math.min(length, charsPerRead));
+        }
+    }
+}
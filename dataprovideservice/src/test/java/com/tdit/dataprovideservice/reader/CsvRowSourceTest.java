@@ -0,0 +1,66 @@
+package com.tdit.dataprovideservice.reader;
+
+import com.tdit.dataprovideservice.config.ExcelProcessingProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.tdit.dataprovideservice.reader.ColumnMappingTest.COLUMNS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvRowSourceTest {
+
+    private final CsvRowSource rowSource = new CsvRowSource(new ExcelProcessingProperties());
+    private final List<String> rows = new ArrayList<>();
+    private boolean finished;
+
+    @Test
+    void mapsHeaderByAliasAndSkipsBlankRecords() throws IOException {
+        read("\uFEFFPrice,Notes,Title,City\r\n"
+                + "2500,ignored,\"Villa, Goa\",Panaji\r\n"
+                + "\r\n"
+                + ",only notes,,\r\n"
+                + "1800,,Flat,\r\n");
+
+        assertEquals(List.of(
+                "1 [Villa, Goa, Panaji, 2500, null]",
+                "4 [Flat, null, 1800, null]"), rows);
+        assertTrue(finished);
+    }
+
+    @Test
+    void readsHeaderWithoutKnownNamesByPosition() throws IOException {
+        read("a,b,c,d,e\nVilla,Pune,2500,WiFi,extra\n");
+
+        assertEquals(List.of("1 [Villa, Pune, 2500, WiFi]"), rows);
+    }
+
+    @Test
+    void missingRequiredColumnFailsTheSheet() {
+        assertThrows(IllegalStateException.class, () -> read("Title,Price\nVilla,2500\n"));
+        assertTrue(rows.isEmpty());
+        assertTrue(finished);
+    }
+
+    private void read(String csv) throws IOException {
+        rowSource.read(new ByteArrayResource(csv.getBytes(StandardCharsets.UTF_8)), COLUMNS, (sheetIndex, sheetName) ->
+                new SheetRowHandler() {
+                    @Override
+                    public void handleRow(int rowIndex, String[] values) {
+                        rows.add(rowIndex + " " + Arrays.toString(values));
+                    }
+
+                    @Override
+                    public void sheetFinished() {
+                        finished = true;
+                    }
+                });
+    }
+}
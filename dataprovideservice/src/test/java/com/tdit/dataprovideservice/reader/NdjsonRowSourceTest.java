@@ -0,0 +1,72 @@
+package com.tdit.dataprovideservice.reader;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.tdit.dataprovideservice.reader.ColumnMappingTest.COLUMNS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NdjsonRowSourceTest {
+
+    private final NdjsonRowSource rowSource = new NdjsonRowSource(new ObjectMapper());
+    private final List<String> rows = new ArrayList<>();
+    private boolean finished;
+
+    @Test
+    void readsObjectsByKey() throws IOException {
+        read("""
+                {"Title": "  Villa  ", "city": "Pune", "Price": 2500.0, "Amenities": ["WiFi", null, 2, true, {"x": 1}, []]}
+
+                {"Property_Title": "Flat", "City": null, "Base_Price": 1800.5, "Notes": {"nested": [1, 2]}, "Amenities": []}
+                {"Title": "", "City": {"name": "Pune"}, "Price": 7}
+                """);
+
+        // Row numbers are the lines the objects start on
+        assertEquals(List.of(
+                "1 [Villa, Pune, 2500, WiFi, 2, true]",
+                "3 [Flat, null, 1800.5, null]",
+                "4 [null, null, 7, null]"), rows);
+        assertTrue(finished);
+    }
+
+    @Test
+    void readsObjectSpreadOverLines() throws IOException {
+        read("{\"Title\": \"Villa\",\n \"City\": \"Pune\"}\n{\"Title\": \"Flat\"}\n");
+
+        assertEquals(List.of("1 [Villa, Pune, null, null]", "3 [Flat, null, null, null]"), rows);
+    }
+
+    @Test
+    void lineThatIsNotAnObjectFailsTheSheet() {
+        IOException failure = assertThrows(IOException.class,
+                () -> read("{\"Title\": \"Villa\"}\n[\"Flat\"]\n{\"Title\": \"Hut\"}\n"));
+
+        assertEquals("Line 2 is not a JSON object", failure.getMessage());
+        assertEquals(List.of("1 [Villa, null, null, null]"), rows);
+        assertTrue(finished);
+    }
+
+    private void read(String ndjson) throws IOException {
+        rowSource.read(new ByteArrayResource(ndjson.getBytes(StandardCharsets.UTF_8)), COLUMNS, (sheetIndex, sheetName) ->
+                new SheetRowHandler() {
+                    @Override
+                    public void handleRow(int rowIndex, String[] values) {
+                        rows.add((rowIndex + 1) + " " + Arrays.toString(values));
+                    }
+
+                    @Override
+                    public void sheetFinished() {
+                        finished = true;
+                    }
+                });
+    }
+}
@@ -0,0 +1,38 @@
+package com.tdit.dataprovideservice.reader;
+
+import org.apache.poi.util.XMLHelper;
+import org.junit.jupiter.api.Test;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.tdit.dataprovideservice.reader.ColumnMappingTest.COLUMNS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StreamingSheetHandlerTest {
+
+    @Test
+    void passesRowWithUnreadableCellOnAsNull() throws Exception {
+        String sheet = """
+                <worksheet xmlns="http://schemas.openxmlformats.org/spreadsheetml/2006/main"><sheetData>
+                <row r="1"><c r="A1" t="inlineStr"><is><t>Title</t></is></c><c r="B1" t="inlineStr"><is><t>City</t></is></c>
+                <c r="C1" t="inlineStr"><is><t>Price</t></is></c></row>
+                <row r="2"><c r="A2" t="inlineStr"><is><t>Villa</t></is></c><c r="C2"><v>2500</v></c></row>
+                <row r="3"><c r="A3" t="inlineStr"><is><t>Flat</t></is></c><c r="C3"><v>not a number</v></c></row>
+                <row r="4"><c r="A4" t="inlineStr"><is><t>Hut</t></is></c><c r="C4"><v>1800.5</v></c></row>
+                </sheetData></worksheet>
+                """;
+        List<String> rows = new ArrayList<>();
+
+        XMLReader parser = XMLHelper.newXMLReader();
+        parser.setContentHandler(new StreamingSheetHandler(null, null, COLUMNS, "Sheet1",
+                (rowIndex, values) -> rows.add(rowIndex + " " + Arrays.toString(values))));
+        parser.parse(new InputSource(new StringReader(sheet)));
+
+        assertEquals(List.of("1 [Villa, null, 2500, null]", "2 null", "3 [Hut, null, 1800.5, null]"), rows);
+    }
+}
@@ -0,0 +1,153 @@
+package com.tdit.dataprovideservice.service;
+
+import com.tdit.dataprovideservice.dto.ExcelRowData;
+import com.tdit.dataprovideservice.entity.Property_Type;
+import com.tdit.dataprovideservice.entity.Status;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * {@link CompiledConstraints} against the Bean Validation provider it replaces, on rows that break each
+ * constraint of {@link ExcelRowData} and on the inputs its shortcuts (blank, plain email address) hand over.
+ */
+class CompiledConstraintsTest {
+
+    private static final CompiledConstraints<ExcelRowData> CONSTRAINTS = CompiledConstraints.compile(ExcelRowData.class);
+
+    private static ValidatorFactory validatorFactory;
+    private static Validator validator;
+
+    @BeforeAll
+    static void createValidator() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+    }
+
+    @AfterAll
+    static void closeValidator() {
+        validatorFactory.close();
+    }
+
+    static Stream<Consumer<ExcelRowData>> rows() {
+        return Stream.of(
+                row -> {},
+                row -> row.setPropertyTitle(null),
+                row -> row.setPropertyTitle(" \t "),
+                row -> row.setPropertyTitle("x".repeat(151)),
+                row -> row.setPropertyTitle("x".repeat(150)),
+                row -> row.setDescription("x".repeat(501)),
+                row -> row.setPropertyType(null),
+                row -> row.setAddressLine1(""),
+                row -> {
+                    row.setCity(null);
+                    row.setState("");
+                    row.setCountry("x".repeat(101));
+                },
+                row -> row.setPincode("4110"),
+                row -> row.setPincode("41100A"),
+                row -> row.setLatitude("18,52"),
+                row -> row.setLatitude("-18."),
+                row -> row.setLongitude(".5"),
+                row -> row.setHostId("12a"),
+                row -> row.setHostContact("98765"),
+                row -> row.setHostEmail("host.example.com"),
+                row -> row.setHostEmail("first.last+tag@mail.example.co.in"),
+                row -> row.setHostEmail("first..last@example.com"),
+                row -> row.setHostEmail("host@-example.com"),
+                row -> row.setHostEmail("host@example"),
+                row -> row.setHostEmail("\"quoted local\"@example.com"),
+                row -> row.setHostEmail("höst@bücher.de"),
+                row -> row.setHostEmail("host@[192.168.0.1]"),
+                row -> row.setHostEmail("x".repeat(65) + "@example.com"),
+                row -> row.setHostEmail("host@" + "x".repeat(90) + ".com"),
+                row -> row.setBasePrice("-100"),
+                row -> row.setBasePrice("1e3"),
+                row -> row.setCurrency("inr"),
+                row -> row.setCurrency("XYZ"),
+                row -> row.setAmenities("x".repeat(1001)),
+                row -> row.setPropertyUrl("not a url"),
+                row -> row.setPropertyUrl("example.com/stay/1"),
+                row -> row.setPropertyUrl("https://example.com/" + "x".repeat(500)),
+                row -> row.setStatus(null),
+                row -> row.setCreatedAt("2024-01-01"),
+                row -> row.setUpdatedAt("2024-01-01 10:00:00"));
+    }
+
+    @ParameterizedTest
+    @MethodSource("rows")
+    void reportsTheViolationsOfBeanValidation(Consumer<ExcelRowData> change) {
+        ExcelRowData row = validRow();
+        change.accept(row);
+        assertSameViolations(row);
+    }
+
+    @Test
+    void emptyRowReportsEveryMandatoryField() {
+        assertSameViolations(new ExcelRowData());
+    }
+
+    private static void assertSameViolations(ExcelRowData row) {
+        String[] expected = validator.validate(row).stream().map(ConstraintViolation::getMessage).sorted()
+                .toArray(String[]::new);
+        StringBuilder errors = CONSTRAINTS.validate(row, null);
+        String[] actual = errors == null ? new String[0] : errors.toString().split(CompiledConstraints.MESSAGE_SEPARATOR);
+        // Bean Validation reports violations in no particular order
+        Arrays.sort(actual);
+        assertEquals(List.of(expected), List.of(actual), row::toString);
+    }
+
+    @Test
+    void validRowHasNoViolations() {
+        assertNull(CONSTRAINTS.validate(validRow(), null));
+    }
+
+    @Test
+    void unsupportedConstraintFailsCompilation() {
+        assertThrows(IllegalStateException.class, () -> CompiledConstraints.compile(Unsupported.class));
+    }
+
+    private static ExcelRowData validRow() {
+        return ExcelRowData.builder()
+                .propertyTitle("Sea view apartment")
+                .description("Two bedroom apartment")
+                .propertyType(Property_Type.Apartment)
+                .addressLine1("12 MG Road")
+                .city("Pune")
+                .state("Maharashtra")
+                .country("India")
+                .pincode("411001")
+                .latitude("18.5204")
+                .longitude("73.8567")
+                .hostId("1001")
+                .hostName("Host")
+                .hostContact("9876543210")
+                .hostEmail("host@example.com")
+                .basePrice("2500")
+                .currency("INR")
+                .amenities("WiFi, Parking")
+                .propertyUrl("https://example.com/p/1")
+                .status(Status.APPROVED)
+                .build();
+    }
+
+    private static class Unsupported {
+        @jakarta.validation.constraints.Min(1)
+        private int value;
+    }
+}
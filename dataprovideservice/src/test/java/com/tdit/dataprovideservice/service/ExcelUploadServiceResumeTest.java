@@ -0,0 +1,109 @@
+package com.tdit.dataprovideservice.service;
+
+import com.tdit.dataprovideservice.dto.ExcelUploadResponse;
+import com.tdit.dataprovideservice.entity.UploadAudit;
+import com.tdit.dataprovideservice.entity.UploadSheetCheckpoint;
+import com.tdit.dataprovideservice.reader.UploadFormat;
+import com.tdit.dataprovideservice.repository.UploadAuditRepository;
+import com.tdit.dataprovideservice.repository.UploadSheetCheckpointRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static com.tdit.dataprovideservice.entity.Constants.ERROR_RESUME_CONTENT_MISMATCH;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = "excel.processing.admission.enabled=false")
+class ExcelUploadServiceResumeTest {
+
+    private static final String FILE_NAME = "listings.csv";
+    private static final String HEADER = "Property_Title,Description,Property_Type,Address_Line1,City,State,Country,"
+            + "Pincode,Latitude,Longitude,Host_ID,Host_Name,Host_Contact,Host_Email,Base_Price,Currency,Amenities,"
+            + "Property_URL,Status";
+
+    @Autowired
+    private ExcelUploadService excelUploadService;
+
+    @Autowired
+    private UploadAuditRepository uploadAuditRepository;
+
+    @Autowired
+    private UploadSheetCheckpointRepository uploadSheetCheckpointRepository;
+
+    @Test
+    void resumeWithOtherContentIsRefused() throws Exception {
+        String originalHash = ContentHashes.of(new ByteArrayResource(csv(5).getBytes(StandardCharsets.UTF_8)));
+        UploadAudit failed = uploadAuditRepository.save(failedAudit("resume-other-content", 2, originalHash));
+        uploadSheetCheckpointRepository.save(new UploadSheetCheckpoint(failed.getUploadId(), 0, UploadFormat.CSV.name(), 2));
+
+        IllegalStateException refused = assertThrows(IllegalStateException.class,
+                () -> excelUploadService.resumeUpload(failed.getUploadId(), file(csv(5)), UploadFormat.CSV));
+        assertEquals(ERROR_RESUME_CONTENT_MISMATCH + FILE_NAME, refused.getMessage());
+        assertEquals(UploadAudit.UploadStatus.FAILED,
+                uploadAuditRepository.findById(failed.getUploadId()).orElseThrow().getStatus());
+    }
+
+    /**
+     * The uploader's last completed upload is the same file, but the resumed upload still has to read the rows it
+     * did not commit instead of taking that upload's figures.
+     */
+    @Test
+    void resumeIsNotAnsweredFromIdenticalUpload() throws Exception {
+        String uploadedBy = "resume-identical";
+        String csv = csv(5);
+        ExcelUploadResponse completed = excelUploadService.processExcelUpload(file(csv), UploadFormat.CSV, uploadedBy);
+        String contentHash = uploadAuditRepository.findById(completed.getUploadId()).orElseThrow().getContentHash();
+
+        UploadAudit failed = uploadAuditRepository.save(failedAudit(uploadedBy, 2, contentHash));
+        uploadSheetCheckpointRepository.save(new UploadSheetCheckpoint(failed.getUploadId(), 0, UploadFormat.CSV.name(), 2));
+
+        ExcelUploadResponse resumed = excelUploadService.resumeUpload(failed.getUploadId(), file(csv), UploadFormat.CSV);
+
+        assertEquals(5, resumed.getTotalRows());
+        assertEquals(5, resumed.getSuccessRows());
+        UploadAudit audit = uploadAuditRepository.findById(failed.getUploadId()).orElseThrow();
+        assertEquals(UploadAudit.UploadStatus.COMPLETED, audit.getStatus());
+        assertEquals(5, audit.getCommittedRows());
+        assertNull(audit.getDuplicateOf());
+    }
+
+    private static UploadAudit failedAudit(String uploadedBy, int committedRows, String contentHash) {
+        return UploadAudit.builder()
+                .fileName(FILE_NAME)
+                .uploadedBy(uploadedBy)
+                .timestamp(LocalDateTime.now())
+                .status(UploadAudit.UploadStatus.FAILED)
+                .contentHash(contentHash)
+                .committedRows(committedRows)
+                .totalRows(committedRows)
+                .successRows(committedRows)
+                .failedRows(0)
+                .warningRows(0)
+                .unchangedRows(0)
+                .build();
+    }
+
+    private static MockMultipartFile file(String csv) {
+        return new MockMultipartFile("file", FILE_NAME, "text/csv", csv.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String csv(int rows) {
+        String batch = UUID.randomUUID().toString();
+        StringBuilder csv = new StringBuilder(HEADER).append("\r\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append("Resume property ").append(batch).append(' ').append(i)
+                    .append(",Two bedroom apartment,Apartment,").append(i).append(" MG Road,Pune,Maharashtra,India,")
+                    .append("411001,18.52,73.85,1000,Host,9876543210,host@example.com,2500,INR,\"WiFi, Parking\",")
+                    .append("https://example.com/resume/").append(batch).append('/').append(i).append(",APPROVED\r\n");
+        }
+        return csv.toString();
+    }
+}
@@ -0,0 +1,53 @@
+package com.tdit.dataprovideservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * {@link ExcelValidationService#parseDouble} has to give bit for bit what {@link Double#parseDouble} gives,
+ * on its fast path and on the inputs it hands over.
+ */
+class ExcelValidationServiceTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "0", "-0", "0.0", "-0.0", "7", "-7", "18.5204", "-73.8567", ".5", "-.5", "5.", "00012.50",
+            // 15 digits take the fast path, 16 do not
+            "123456789012345", "0.123456789012345", "-12345678.9012345", "999999999999999",
+            "1234567890123456", "0.1234567890123456", "9007199254740993",
+            "1e3", "1E-3", "-2.5e10", "+1", "+1.5", "NaN", "-Infinity", " 42", "42 ", "0x1p3"})
+    void parseDoubleMatchesTheJdk(String value) {
+        assertEquals(Double.parseDouble(value), ExcelValidationService.parseDouble(value), value);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "-", ".", "-.", "1.2.3", "1,5", "abc", "--1", "1-"})
+    void parseDoubleRejectsWhatTheJdkRejects(String value) {
+        assertThrows(NumberFormatException.class, () -> Double.parseDouble(value));
+        assertThrows(NumberFormatException.class, () -> ExcelValidationService.parseDouble(value));
+    }
+
+    @Test
+    void parseDoubleMatchesTheJdkOnRandomDecimals() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            int digits = 1 + random.nextInt(17);
+            StringBuilder value = new StringBuilder(random.nextBoolean() ? "-" : "");
+            int point = random.nextInt(digits + 1);
+            for (int d = 0; d < digits; d++) {
+                if (d == point && d > 0) {
+                    value.append('.');
+                }
+                value.append((char) ('0' + random.nextInt(10)));
+            }
+            String text = value.toString();
+            assertEquals(Double.parseDouble(text), ExcelValidationService.parseDouble(text), text);
+        }
+    }
+}
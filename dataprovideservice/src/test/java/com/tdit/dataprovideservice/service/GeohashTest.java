@@ -0,0 +1,79 @@
+package com.tdit.dataprovideservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeohashTest {
+
+    private static final double KM_PER_DEGREE = 6371.0088 * Math.PI / 180;
+
+    @Test
+    void smallBoxTakesAtMostFourCells() {
+        List<String> cells = Geohash.cover(18.45, 73.75, 18.60, 73.95);
+
+        assertTrue(cells.size() <= 4, cells::toString);
+        assertCovers(cells, 18.45, 73.75, 18.60, 73.95);
+    }
+
+    /**
+     * A 100 km radius at 89.5 degrees north spans about 206 degrees of longitude, more than a one-character cell.
+     */
+    @Test
+    void radiusNearThePoleCoversItsWholeBox() {
+        double latitudeSpan = 100 / KM_PER_DEGREE;
+        double longitudeSpan = latitudeSpan / Math.cos(Math.toRadians(89.5));
+        double minLat = 89.5 - latitudeSpan, maxLat = 90;
+        double minLng = Math.max(10 - longitudeSpan, -180), maxLng = Math.min(10 + longitudeSpan, 180);
+
+        List<String> cells = Geohash.cover(minLat, minLng, maxLat, maxLng);
+
+        assertTrue(maxLng - minLng > 200);
+        assertCovers(cells, minLat, minLng, maxLat, maxLng);
+        assertTrue(cells.contains(Geohash.encode(89.5, 10, 1)), cells::toString);
+        assertTrue(cells.contains(Geohash.encode(89.5, -80, 1)), cells::toString);
+        assertTrue(cells.contains(Geohash.encode(89.5, 100, 1)), cells::toString);
+    }
+
+    @Test
+    void wholeWorldTakesEveryOneCharacterCell() {
+        List<String> cells = Geohash.cover(-90, -180, 90, 180);
+
+        assertEquals(32, cells.size());
+        assertCovers(cells, -90, -180, 90, 180);
+    }
+
+    @Test
+    void boxesOfEverySizeAreCovered() {
+        Random random = new Random(7);
+        for (int i = 0; i < 2_000; i++) {
+            double height = 180 * Math.pow(random.nextDouble(), 4);
+            double width = 360 * Math.pow(random.nextDouble(), 4);
+            double minLat = -90 + random.nextDouble() * (180 - height);
+            double minLng = -180 + random.nextDouble() * (360 - width);
+
+            assertCovers(Geohash.cover(minLat, minLng, minLat + height, minLng + width),
+                    minLat, minLng, minLat + height, minLng + width);
+        }
+    }
+
+    /**
+     * Every point of a grid over the box, edges included, has its stored hash within one of the cells.
+     */
+    private static void assertCovers(List<String> cells, double minLat, double minLng, double maxLat, double maxLng) {
+        int steps = 40;
+        for (int i = 0; i <= steps; i++) {
+            for (int j = 0; j <= steps; j++) {
+                double lat = minLat + (maxLat - minLat) * i / steps;
+                double lng = minLng + (maxLng - minLng) * j / steps;
+                String hash = Geohash.encode(lat, lng, Geohash.PRECISION);
+                assertTrue(cells.stream().anyMatch(hash::startsWith),
+                        () -> lat + "," + lng + " is outside " + cells);
+            }
+        }
+    }
+}
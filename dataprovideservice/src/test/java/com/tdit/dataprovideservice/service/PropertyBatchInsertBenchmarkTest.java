@@ -0,0 +1,155 @@
+package com.tdit.dataprovideservice.service;
+
+import com.tdit.benchmark.IdentityProperty;
+import com.tdit.dataprovideservice.entity.Property;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Insert throughput of the old IDENTITY path (one INSERT per persist) against the pooled-sequence
+ * batch writer, and the writer overwriting stored properties by Property_ID, on the embedded database. Run with:
+ * <pre>mvn test -Dtest=PropertyBatchInsertBenchmarkTest -Dbenchmark=true [-Dbenchmark.rows=50000]</pre>
+ */
+@Slf4j
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class PropertyBatchInsertBenchmarkTest {
+
+    /**
+     * Maps the IDENTITY baseline next to the application's entities, for this context only.
+     */
+    @TestConfiguration
+    @EntityScan(basePackageClasses = {Property.class, IdentityProperty.class})
+    static class BaselineEntities {
+    }
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 20_000);
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private PropertyBatchWriter propertyBatchWriter;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void compareIdentityAndBatchedInserts() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        // Warm-up so JIT and connection pool costs do not land on the first measurement
+        insertIdentity(transaction, 1_000);
+        List<Long> warmUpIds = insertBatched(transaction, 1_000).ids();
+        overwriteBatched(transaction, warmUpIds);
+
+        long identityNanos = insertIdentity(transaction, ROWS);
+        Written inserted = insertBatched(transaction, ROWS);
+        long overwriteNanos = overwriteBatched(transaction, inserted.ids());
+
+        log.info("IDENTITY per-row inserts   : {} rows/sec", rate(identityNanos));
+        log.info("Sequence batched inserts   : {} rows/sec", rate(inserted.nanos()));
+        log.info("Overwrites by Property_ID  : {} rows/sec", rate(overwriteNanos));
+
+        Long identityCount = transaction.execute(status -> entityManager
+                .createQuery("select count(p) from IdentityProperty p", Long.class)
+                .getSingleResult());
+        Long batchedCount = transaction.execute(status -> entityManager
+                .createQuery("select count(p) from Property p", Long.class)
+                .getSingleResult());
+        assertEquals(ROWS + 1_000L, identityCount);
+        assertEquals(ROWS + 1_000L, batchedCount);
+    }
+
+    private long insertIdentity(TransactionTemplate transaction, int rows) {
+        long start = System.nanoTime();
+        transaction.executeWithoutResult(status -> {
+            for (int i = 0; i < rows; i++) {
+                entityManager.persist(IdentityProperty.from(property(i, null)));
+            }
+        });
+        return System.nanoTime() - start;
+    }
+
+    private Written insertBatched(TransactionTemplate transaction, int rows) {
+        List<Property> properties = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            properties.add(property(i, null));
+        }
+        long nanos = writeBatched(transaction, properties);
+        return new Written(properties.stream().map(Property::getPropertyId).toList(), nanos);
+    }
+
+    /**
+     * Writes rows carrying the ids of stored properties, as a re-uploaded export does.
+     */
+    private long overwriteBatched(TransactionTemplate transaction, List<Long> ids) {
+        List<Property> properties = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            properties.add(property(i, ids.get(i)));
+        }
+        return writeBatched(transaction, properties);
+    }
+
+    private long writeBatched(TransactionTemplate transaction, List<Property> properties) {
+        long start = System.nanoTime();
+        UUID uploadId = UUID.randomUUID();
+        transaction.executeWithoutResult(status -> {
+            for (int from = 0; from < properties.size(); from += BATCH_SIZE) {
+                propertyBatchWriter.write(uploadId, properties.subList(from, Math.min(from + BATCH_SIZE, properties.size())));
+            }
+        });
+        return System.nanoTime() - start;
+    }
+
+    private static String rate(long nanos) {
+        return String.format("%,10.0f", ROWS / (nanos / 1e9));
+    }
+
+    private record Written(List<Long> ids, long nanos) {
+    }
+
+    private static Property property(int i, Long propertyId) {
+        LocalDateTime now = LocalDateTime.now();
+        return Property.builder()
+                .propertyId(propertyId)
+                .propertyTitle("Benchmark property " + i)
+                .description("Two bedroom apartment close to the city centre")
+                .propertyType("Apartment")
+                .addressLine1(i + " MG Road")
+                .city("Pune")
+                .state("Maharashtra")
+                .country("India")
+                .pincode("411001")
+                .latitude(18.52)
+                .longitude(73.85)
+                .hostId(1000L + i % 100)
+                .hostName("Host " + i % 100)
+                .hostContact("9876543210")
+                .hostEmail("host@example.com")
+                .basePrice(2500.0)
+                .currency("INR")
+                .amenities(List.of("WiFi", "Parking"))
+                .propertyUrl("https://example.com/p/" + i)
+                .status("APPROVED")
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+    }
+}
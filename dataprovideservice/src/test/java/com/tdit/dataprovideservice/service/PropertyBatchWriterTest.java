@@ -0,0 +1,76 @@
+package com.tdit.dataprovideservice.service;
+
+import com.tdit.dataprovideservice.entity.Property;
+import com.tdit.dataprovideservice.repository.PropertyRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class PropertyBatchWriterTest {
+
+    private static final long UNKNOWN_ID = 999_999_999L;
+
+    @Autowired
+    private PropertyBatchWriter propertyBatchWriter;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void storedIdsAreOverwrittenWithoutSelectPerRow() {
+        List<Property> first = List.of(property("a", null), property("b", null), property("c", null));
+        transactionTemplate.executeWithoutResult(status -> propertyBatchWriter.write(UUID.randomUUID(), first));
+        List<Long> ids = first.stream().map(Property::getPropertyId).toList();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<Property> second = List.of(property("a2", ids.get(0)), property("b2", ids.get(1)),
+                property("c2", ids.get(2)), property("new", UNKNOWN_ID));
+        transactionTemplate.executeWithoutResult(status -> propertyBatchWriter.write(UUID.randomUUID(), second));
+
+        // The stored ids are loaded by the one findAllById query, none is fetched on its own
+        assertEquals(1, statistics.getQueryExecutionCount() + statistics.getCollectionFetchCount()
+                + statistics.getEntityFetchCount(), statistics::toString);
+        assertEquals(3, statistics.getEntityUpdateCount());
+        assertEquals(1, statistics.getEntityInsertCount());
+
+        assertEquals("a2", propertyRepository.findById(ids.get(0)).orElseThrow().getPropertyTitle());
+        assertEquals("c2", propertyRepository.findById(ids.get(2)).orElseThrow().getPropertyTitle());
+        Long inserted = second.get(3).getPropertyId();
+        assertNotEquals(UNKNOWN_ID, inserted);
+        assertEquals("new", propertyRepository.findById(inserted).orElseThrow().getPropertyTitle());
+        assertFalse(propertyRepository.existsById(UNKNOWN_ID));
+    }
+
+    private static Property property(String title, Long id) {
+        LocalDateTime now = LocalDateTime.now();
+        return Property.builder()
+                .propertyId(id)
+                .propertyTitle(title)
+                .city("Pune")
+                .country("India")
+                .status("APPROVED")
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+    }
+}
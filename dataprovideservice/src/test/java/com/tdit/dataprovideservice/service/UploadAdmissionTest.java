@@ -0,0 +1,166 @@
+package com.tdit.dataprovideservice.service;
+
+import com.tdit.dataprovideservice.config.ExcelProcessingProperties;
+import com.tdit.dataprovideservice.reader.UploadFormat;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.tdit.dataprovideservice.entity.Constants.ERROR_UPLOAD_OVER_BUDGET;
+import static com.tdit.dataprovideservice.entity.Constants.ERROR_UPLOAD_USER_CONCURRENCY;
+import static com.tdit.dataprovideservice.entity.Constants.ERROR_UPLOAD_USER_RATE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UploadAdmissionTest {
+
+    private static final long KIB = 1024;
+
+    private final ExcelProcessingProperties properties = new ExcelProcessingProperties();
+    private final ExcelProcessingProperties.Admission config = properties.getAdmission();
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void configure() {
+        // A file takes its own size of the 100 KiB budget
+        config.setMemoryBudget(DataSize.ofKilobytes(100));
+        config.setExpansionFactor(1);
+        config.setPerUserConcurrency(0);
+        config.setPerUserPerMinute(0);
+    }
+
+    @Test
+    void rejectsUploadsOverTheUserConcurrency() {
+        config.setPerUserConcurrency(1);
+        UploadAdmission admission = new UploadAdmission(properties, registry);
+
+        UploadAdmission.Permit first = admission.admit("alice", KIB, UploadFormat.CSV);
+        UploadRejectedException rejected = assertThrows(UploadRejectedException.class,
+                () -> admission.admit("alice", KIB, UploadFormat.CSV));
+        assertEquals(ERROR_UPLOAD_USER_CONCURRENCY, rejected.getMessage());
+        assertEquals(config.getRetryAfter(), rejected.getRetryAfter());
+        admission.admit("bob", KIB, UploadFormat.CSV).close();
+
+        first.close();
+        // Closing twice does not free a second slot
+        first.close();
+        UploadAdmission.Permit second = admission.admit("alice", KIB, UploadFormat.CSV);
+        assertThrows(UploadRejectedException.class, () -> admission.admit("alice", KIB, UploadFormat.CSV));
+        second.close();
+        assertEquals(2, rejections(UploadAdmission.REASON_USER_CONCURRENCY));
+    }
+
+    @Test
+    void rejectsUploadsOverTheUserRate() {
+        config.setPerUserPerMinute(2);
+        UploadAdmission admission = new UploadAdmission(properties, registry);
+
+        admission.admit("alice", KIB, UploadFormat.CSV).close();
+        admission.admit("alice", KIB, UploadFormat.CSV).close();
+        UploadRejectedException rejected = assertThrows(UploadRejectedException.class,
+                () -> admission.admit("alice", KIB, UploadFormat.CSV));
+
+        assertEquals(ERROR_UPLOAD_USER_RATE, rejected.getMessage());
+        // A token every 30 seconds
+        assertTrue(rejected.getRetryAfter().compareTo(Duration.ZERO) > 0
+                && rejected.getRetryAfter().compareTo(Duration.ofSeconds(30)) <= 0, rejected.getRetryAfter()::toString);
+        admission.admit("bob", KIB, UploadFormat.CSV).close();
+        assertEquals(1, rejections(UploadAdmission.REASON_USER_RATE));
+    }
+
+    @Test
+    void rejectsUploadsBeyondTheQueue() {
+        config.setMaxQueued(0);
+        UploadAdmission admission = new UploadAdmission(properties, registry);
+
+        try (UploadAdmission.Permit permit = admission.admit("alice", 60 * KIB, UploadFormat.CSV)) {
+            UploadRejectedException rejected = assertThrows(UploadRejectedException.class,
+                    () -> admission.admit("bob", 60 * KIB, UploadFormat.CSV));
+            assertEquals(ERROR_UPLOAD_OVER_BUDGET, rejected.getMessage());
+            assertEquals(config.getRetryAfter(), rejected.getRetryAfter());
+        }
+        admission.admit("bob", 60 * KIB, UploadFormat.CSV).close();
+        assertEquals(1, rejections(UploadAdmission.REASON_QUEUE));
+    }
+
+    @Test
+    void queuedUploadWaitsForBudget() throws Exception {
+        config.setMaxWait(Duration.ofMillis(50));
+        UploadAdmission admission = new UploadAdmission(properties, registry);
+        UploadAdmission.Permit held = admission.admit("alice", 60 * KIB, UploadFormat.CSV);
+
+        assertThrows(UploadRejectedException.class, () -> admission.admit("bob", 60 * KIB, UploadFormat.CSV));
+        assertEquals(1, rejections(UploadAdmission.REASON_BUDGET));
+
+        config.setMaxWait(Duration.ofSeconds(10));
+        CompletableFuture<UploadAdmission.Permit> waiting =
+                CompletableFuture.supplyAsync(() -> admission.admit("bob", 60 * KIB, UploadFormat.CSV));
+        Thread.sleep(100);
+        held.close();
+        waiting.get(5, TimeUnit.SECONDS).close();
+        assertEquals(1, rejections(UploadAdmission.REASON_BUDGET));
+    }
+
+    @Test
+    void fileLargerThanTheBudgetRunsOnItsOwn() {
+        config.setMaxQueued(0);
+        UploadAdmission admission = new UploadAdmission(properties, registry);
+
+        try (UploadAdmission.Permit permit = admission.admit("alice", 500 * KIB, UploadFormat.CSV)) {
+            assertThrows(UploadRejectedException.class, () -> admission.admit("bob", KIB, UploadFormat.CSV));
+        }
+    }
+
+    @Test
+    void uploadTurnedAwayForBudgetGetsItsRateTokenBack() {
+        config.setPerUserPerMinute(1);
+        config.setPerUserConcurrency(1);
+        config.setMaxQueued(0);
+        UploadAdmission admission = new UploadAdmission(properties, registry);
+
+        UploadAdmission.Permit held = admission.admit("alice", 60 * KIB, UploadFormat.CSV);
+        assertThrows(UploadRejectedException.class, () -> admission.admit("bob", 60 * KIB, UploadFormat.CSV));
+        held.close();
+
+        // Neither bob's only token nor his only slot went to the rejected upload
+        admission.admit("bob", 60 * KIB, UploadFormat.CSV).close();
+        assertEquals(1, rejections(UploadAdmission.REASON_QUEUE));
+        assertEquals(0, rejections(UploadAdmission.REASON_USER_RATE));
+        assertEquals(0, rejections(UploadAdmission.REASON_USER_CONCURRENCY));
+    }
+
+    @Test
+    void uploaderDoesNotExpireWhileItsUploadsRun() {
+        UploadAdmission admission = new UploadAdmission(properties, registry);
+
+        UploadAdmission.Permit permit = admission.admit("alice", KIB, UploadFormat.CSV);
+        assertTrue(expiresAfter(admission, "alice").compareTo(Duration.ofDays(365)) > 0);
+        permit.close();
+        assertTrue(expiresAfter(admission, "alice").compareTo(Duration.ofHours(1)) <= 0);
+    }
+
+    @Test
+    void disabledAdmissionAdmitsEverything() {
+        config.setEnabled(false);
+        config.setPerUserConcurrency(1);
+        UploadAdmission admission = new UploadAdmission(properties, registry);
+
+        admission.admit("alice", 500 * KIB, UploadFormat.CSV);
+        admission.admit("alice", 500 * KIB, UploadFormat.CSV);
+    }
+
+    private static Duration expiresAfter(UploadAdmission admission, String uploadedBy) {
+        return admission.uploaders.policy().expireVariably().orElseThrow().getExpiresAfter(uploadedBy).orElseThrow();
+    }
+
+    private double rejections(String reason) {
+        return registry.get(UploadAdmission.REJECTED).tag("reason", reason).counter().count();
+    }
+}
@@ -0,0 +1,169 @@
+package com.tdit.dataprovideservice.service;
+
+import com.tdit.dataprovideservice.config.ExcelProcessingProperties;
+import com.tdit.dataprovideservice.dto.ExcelRowData;
+import com.tdit.dataprovideservice.dto.UploadProgress;
+import com.tdit.dataprovideservice.entity.Property_Type;
+import com.tdit.dataprovideservice.entity.Status;
+import com.tdit.dataprovideservice.entity.UploadAudit;
+import com.tdit.dataprovideservice.reader.CsvRowSource;
+import com.tdit.dataprovideservice.reader.StreamingXlsxReader;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A three-sheet upload whose writer fails part way, resumed from the checkpoints the failed run left.
+ * Workers are slowed down on some rows so they finish out of order.
+ */
+class UploadPipelineTest {
+
+    private static final int SHEETS = 3;
+    private static final int ROWS_PER_SHEET = 250;
+    private static final int CHUNK_SIZE = 40;
+    private static final String FAILED_CITY = "";
+
+    private final ExcelProcessingProperties properties = new ExcelProcessingProperties();
+    private final UploadMetrics uploadMetrics = new UploadMetrics(new SimpleMeterRegistry());
+    /** Committed row numbers per sheet, in commit order. */
+    private final Map<Integer, List<Integer>> committed = new HashMap<>();
+    private int committedProperties;
+
+    @Test
+    void resumedUploadCommitsEveryRowOnceAndInOrder() throws Exception {
+        properties.getPipeline().setWorkers(4);
+        properties.getPipeline().setQueueCapacity(16);
+        properties.getPipeline().setChunkSize(CHUNK_SIZE);
+        UploadPipeline pipeline = new UploadPipeline(
+                new ExcelProcessorService(properties, new StreamingXlsxReader(new SimpleAsyncTaskExecutor(), properties),
+                        List.of(new CsvRowSource(properties))),
+                new SlowExcelValidationService(), properties, new SimpleAsyncTaskExecutor("parser-"),
+                new SimpleAsyncTaskExecutor("worker-"));
+
+        UploadPipeline.Result firstRun = new UploadPipeline.Result();
+        IllegalStateException failure = assertThrows(IllegalStateException.class, () -> pipeline.run(
+                this::produce, failingAfter(7), new UploadProgress(), uploadMetrics.start(0), firstRun));
+        assertEquals("Database down", failure.getMessage());
+        assertEquals(7 * CHUNK_SIZE, firstRun.getCommittedRows());
+        assertTrue(firstRun.getSheetCheckpoints().stream()
+                        .anyMatch(checkpoint -> checkpoint.committedRows() > 0 && checkpoint.committedRows() < ROWS_PER_SHEET),
+                "the failure should leave a sheet part way committed");
+        assertCommittedInOrder(firstRun);
+
+        UploadAudit audit = UploadAudit.builder()
+                .committedRows(firstRun.getCommittedRows())
+                .totalRows(firstRun.getTotalRows())
+                .successRows(firstRun.getSuccessRows())
+                .failedRows(firstRun.getFailedRows())
+                .warningRows(firstRun.getWarningRows())
+                .unchangedRows(firstRun.getUnchangedRows())
+                .build();
+        UploadPipeline.Result resumed = UploadPipeline.Result.resumeFrom(audit, firstRun.getSheetCheckpoints());
+        pipeline.run(this::produce, failingAfter(Integer.MAX_VALUE), new UploadProgress(), uploadMetrics.start(0),
+                resumed);
+
+        List<Integer> allRows = IntStream.rangeClosed(2, ROWS_PER_SHEET + 1).boxed().toList();
+        for (int sheet = 0; sheet < SHEETS; sheet++) {
+            assertEquals(allRows, committed.get(sheet), "rows of sheet " + sheet);
+        }
+        int failedRows = SHEETS * (int) allRows.stream().filter(UploadPipelineTest::fails).count();
+        assertEquals(SHEETS * ROWS_PER_SHEET, resumed.getCommittedRows());
+        assertEquals(SHEETS * ROWS_PER_SHEET, resumed.getTotalRows());
+        assertEquals(failedRows, resumed.getFailedRows());
+        assertEquals(SHEETS * ROWS_PER_SHEET - failedRows, resumed.getSuccessRows());
+        assertEquals(SHEETS * ROWS_PER_SHEET - failedRows, committedProperties);
+        assertCommittedInOrder(resumed);
+    }
+
+    /**
+     * Reads the sheets row by row in turn, so chunks mix them.
+     */
+    private void produce(SheetRowSink.Factory sinks) {
+        List<SheetRowSink> sheets = new ArrayList<>();
+        for (int sheet = 0; sheet < SHEETS; sheet++) {
+            sheets.add(sinks.open(sheet, "Sheet" + (sheet + 1)));
+        }
+        for (int rowNumber = 2; rowNumber <= ROWS_PER_SHEET + 1; rowNumber++) {
+            for (int sheet = 0; sheet < SHEETS; sheet++) {
+                sheets.get(sheet).accept(rowNumber, row(sheet, rowNumber));
+            }
+        }
+        sheets.forEach(SheetRowSink::sheetFinished);
+    }
+
+    private UploadPipeline.ChunkWriter failingAfter(int chunks) {
+        int[] written = {0};
+        return chunk -> {
+            if (written[0]++ == chunks) {
+                throw new IllegalStateException("Database down");
+            }
+            for (UploadAudit.RowResult rowResult : chunk.getRowResults()) {
+                committed.computeIfAbsent(rowResult.getSheetIndex(), sheet -> new ArrayList<>())
+                        .add(rowResult.getRowNumber());
+            }
+            committedProperties += chunk.getProperties().size();
+        };
+    }
+
+    /**
+     * Every checkpoint matches what the writer actually got for its sheet.
+     */
+    private void assertCommittedInOrder(UploadPipeline.Result result) {
+        for (UploadPipeline.SheetCheckpoint checkpoint : result.getSheetCheckpoints()) {
+            List<Integer> rows = committed.get(checkpoint.sheetIndex());
+            assertEquals(checkpoint.committedRows(), rows.size(), checkpoint.toString());
+            assertEquals(IntStream.rangeClosed(2, rows.size() + 1).boxed().toList(), rows, checkpoint.toString());
+            assertEquals("Sheet" + (checkpoint.sheetIndex() + 1), checkpoint.sheetName());
+        }
+    }
+
+    private static boolean fails(int rowNumber) {
+        return rowNumber % 11 == 0;
+    }
+
+    private static ExcelRowData row(int sheet, int rowNumber) {
+        return ExcelRowData.builder()
+                .propertyTitle("Property " + sheet + "-" + rowNumber)
+                .propertyType(Property_Type.Apartment)
+                .addressLine1(rowNumber + " MG Road")
+                .city(fails(rowNumber) ? FAILED_CITY : "Pune")
+                .state("Maharashtra")
+                .country("India")
+                .pincode("411001")
+                .latitude("18.52")
+                .longitude("73.85")
+                .hostId("1001")
+                .hostName("Host")
+                .hostContact("9876543210")
+                .hostEmail("host@example.com")
+                .basePrice("2500")
+                .currency("INR")
+                .propertyUrl("https://example.com/p/" + sheet + "/" + rowNumber)
+                .status(Status.APPROVED)
+                .build();
+    }
+
+    private static final class SlowExcelValidationService extends ExcelValidationService {
+        @Override
+        public UploadAudit.RowResult validateRow(ExcelRowData rowData, int rowNumber) {
+            if (rowNumber % 7 == 0) {
+                try {
+                    Thread.sleep(2);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return super.validateRow(rowData, rowNumber);
+        }
+    }
+}
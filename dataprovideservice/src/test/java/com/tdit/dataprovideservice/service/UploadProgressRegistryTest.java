@@ -0,0 +1,53 @@
+package com.tdit.dataprovideservice.service;
+
+import com.tdit.dataprovideservice.dto.UploadProgress;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UploadProgressRegistryTest {
+
+    private final UploadProgressRegistry registry = new UploadProgressRegistry();
+
+    @Test
+    void queueWaitIsNotCountedInTheRate() throws InterruptedException {
+        UUID uploadId = UUID.randomUUID();
+        UploadProgress queued = registry.queue(uploadId);
+        queued.addEstimatedRows(1_000);
+        Thread.sleep(200);
+
+        assertEquals(UploadProgress.State.QUEUED, queued.getState());
+        assertEquals(0, queued.getElapsedSeconds());
+        assertEquals(0, queued.getRowsPerSecond());
+        assertNull(queued.getEtaSeconds());
+        assertTrue(queued.getQueuedSeconds() >= 0.2);
+
+        UploadProgress running = registry.start(uploadId);
+        assertSame(queued, running);
+        assertEquals(UploadProgress.State.RUNNING, running.getState());
+        double queuedSeconds = running.getQueuedSeconds();
+        assertTrue(queuedSeconds >= 0.2);
+        assertTrue(running.getElapsedSeconds() < 0.2, () -> running.getElapsedSeconds() + "s elapsed");
+
+        Thread.sleep(50);
+        assertEquals(queuedSeconds, running.getQueuedSeconds());
+        running.rowValidated();
+        assertTrue(running.getRowsPerSecond() > 1 / 0.2);
+    }
+
+    @Test
+    void uploadNotQueuedStartsRunning() {
+        UUID uploadId = UUID.randomUUID();
+        UploadProgress progress = registry.start(uploadId);
+
+        assertEquals(UploadProgress.State.RUNNING, progress.getState());
+        assertTrue(progress.getQueuedSeconds() < 0.1);
+        registry.finish(uploadId);
+        assertTrue(registry.get(uploadId).isEmpty());
+    }
+}